@@ -8,6 +8,7 @@
 import org.apache.commons.lang3.text.translate.CharSequenceTranslator;
 import org.apache.commons.lang3.text.translate.EntityArrays;
 import org.apache.commons.lang3.text.translate.JavaUnicodeEscaper;
+import org.apache.commons.lang3.text.translate.LazyTranslator;
 import org.apache.commons.lang3.text.translate.LookupTranslator;
 import org.apache.commons.lang3.text.translate.NumericEntityEscaper;
 import org.apache.commons.lang3.text.translate.NumericEntityUnescaper;
@@ -22,133 +23,170 @@ public class StringEscapeUtils {
     
 
     
-    public static final CharSequenceTranslator ESCAPE_JAVA =
-          new LookupTranslator(
-            new String[][] {
-              {"\"", "\\\""},
-              {"\\", "\\\\"},
-          }).with(
-            new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE())
-          ).with(
-            JavaUnicodeEscaper.outsideOf(32, 0x7f)
-        );
+    public static final CharSequenceTranslator ESCAPE_JAVA = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new LookupTranslator(
+                new String[][] {
+                  {"\"", "\\\""},
+                  {"\\", "\\\\"},
+              }).with(
+                new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE())
+              ).with(
+                JavaUnicodeEscaper.outsideOf(32, 0x7f)
+            );
+        }
+    };
 
     
-    public static final CharSequenceTranslator ESCAPE_ECMASCRIPT =
-        new AggregateTranslator(
-            new LookupTranslator(
-                      new String[][] {
-                            {"'", "\\'"},
-                            {"\"", "\\\""},
-                            {"\\", "\\\\"},
-                            {"/", "\\/"}
-                      }),
-            new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE()),
-            JavaUnicodeEscaper.outsideOf(32, 0x7f)
-        );
+    public static final CharSequenceTranslator ESCAPE_ECMASCRIPT = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(
+                          new String[][] {
+                                {"'", "\\'"},
+                                {"\"", "\\\""},
+                                {"\\", "\\\\"},
+                                {"/", "\\/"}
+                          }),
+                new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE()),
+                JavaUnicodeEscaper.outsideOf(32, 0x7f)
+            );
+        }
+    };
 
     
-    public static final CharSequenceTranslator ESCAPE_JSON =
-        new AggregateTranslator(
-            new LookupTranslator(
-                      new String[][] {
-                            {"\"", "\\\""},
-                            {"\\", "\\\\"},
-                            {"/", "\\/"}
-                      }),
-            new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE()),
-            JavaUnicodeEscaper.outsideOf(32, 0x7f)
-        );
+    public static final CharSequenceTranslator ESCAPE_JSON = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(
+                          new String[][] {
+                                {"\"", "\\\""},
+                                {"\\", "\\\\"},
+                                {"/", "\\/"}
+                          }),
+                new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE()),
+                JavaUnicodeEscaper.outsideOf(32, 0x7f)
+            );
+        }
+    };
 
     
     @Deprecated
-    public static final CharSequenceTranslator ESCAPE_XML =
-        new AggregateTranslator(
-            new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
-            new LookupTranslator(EntityArrays.APOS_ESCAPE())
-        );
-
-    
-    public static final CharSequenceTranslator ESCAPE_XML10 =
-        new AggregateTranslator(
-            new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
-            new LookupTranslator(EntityArrays.APOS_ESCAPE()),
-            new LookupTranslator(
-                    new String[][] {
-                            { "\u0000", StringUtils.EMPTY },
-                            { "\u0001", StringUtils.EMPTY },
-                            { "\u0002", StringUtils.EMPTY },
-                            { "\u0003", StringUtils.EMPTY },
-                            { "\u0004", StringUtils.EMPTY },
-                            { "\u0005", StringUtils.EMPTY },
-                            { "\u0006", StringUtils.EMPTY },
-                            { "\u0007", StringUtils.EMPTY },
-                            { "\u0008", StringUtils.EMPTY },
-                            { "\u000b", StringUtils.EMPTY },
-                            { "\u000c", StringUtils.EMPTY },
-                            { "\u000e", StringUtils.EMPTY },
-                            { "\u000f", StringUtils.EMPTY },
-                            { "\u0010", StringUtils.EMPTY },
-                            { "\u0011", StringUtils.EMPTY },
-                            { "\u0012", StringUtils.EMPTY },
-                            { "\u0013", StringUtils.EMPTY },
-                            { "\u0014", StringUtils.EMPTY },
-                            { "\u0015", StringUtils.EMPTY },
-                            { "\u0016", StringUtils.EMPTY },
-                            { "\u0017", StringUtils.EMPTY },
-                            { "\u0018", StringUtils.EMPTY },
-                            { "\u0019", StringUtils.EMPTY },
-                            { "\u001a", StringUtils.EMPTY },
-                            { "\u001b", StringUtils.EMPTY },
-                            { "\u001c", StringUtils.EMPTY },
-                            { "\u001d", StringUtils.EMPTY },
-                            { "\u001e", StringUtils.EMPTY },
-                            { "\u001f", StringUtils.EMPTY },
-                            { "\ufffe", StringUtils.EMPTY },
-                            { "\uffff", StringUtils.EMPTY }
-                    }),
-            NumericEntityEscaper.between(0x7f, 0x84),
-            NumericEntityEscaper.between(0x86, 0x9f),
-            new UnicodeUnpairedSurrogateRemover()
-        );
-
-    
-    public static final CharSequenceTranslator ESCAPE_XML11 =
-        new AggregateTranslator(
-            new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
-            new LookupTranslator(EntityArrays.APOS_ESCAPE()),
-            new LookupTranslator(
-                    new String[][] {
-                            { "\u0000", StringUtils.EMPTY },
-                            { "\u000b", "&#11;" },
-                            { "\u000c", "&#12;" },
-                            { "\ufffe", StringUtils.EMPTY },
-                            { "\uffff", StringUtils.EMPTY }
-                    }),
-            NumericEntityEscaper.between(0x1, 0x8),
-            NumericEntityEscaper.between(0xe, 0x1f),
-            NumericEntityEscaper.between(0x7f, 0x84),
-            NumericEntityEscaper.between(0x86, 0x9f),
-            new UnicodeUnpairedSurrogateRemover()
-        );
-
-    
-    public static final CharSequenceTranslator ESCAPE_HTML3 =
-        new AggregateTranslator(
-            new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
-            new LookupTranslator(EntityArrays.ISO8859_1_ESCAPE())
-        );
-
-    
-    public static final CharSequenceTranslator ESCAPE_HTML4 =
-        new AggregateTranslator(
-            new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
-            new LookupTranslator(EntityArrays.ISO8859_1_ESCAPE()),
-            new LookupTranslator(EntityArrays.HTML40_EXTENDED_ESCAPE())
-        );
-
-    
-    public static final CharSequenceTranslator ESCAPE_CSV = new CsvEscaper();
+    public static final CharSequenceTranslator ESCAPE_XML = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
+                new LookupTranslator(EntityArrays.APOS_ESCAPE())
+            );
+        }
+    };
+
+    
+    public static final CharSequenceTranslator ESCAPE_XML10 = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
+                new LookupTranslator(EntityArrays.APOS_ESCAPE()),
+                new LookupTranslator(
+                        new String[][] {
+                                { "\u0000", StringUtils.EMPTY },
+                                { "\u0001", StringUtils.EMPTY },
+                                { "\u0002", StringUtils.EMPTY },
+                                { "\u0003", StringUtils.EMPTY },
+                                { "\u0004", StringUtils.EMPTY },
+                                { "\u0005", StringUtils.EMPTY },
+                                { "\u0006", StringUtils.EMPTY },
+                                { "\u0007", StringUtils.EMPTY },
+                                { "\u0008", StringUtils.EMPTY },
+                                { "\u000b", StringUtils.EMPTY },
+                                { "\u000c", StringUtils.EMPTY },
+                                { "\u000e", StringUtils.EMPTY },
+                                { "\u000f", StringUtils.EMPTY },
+                                { "\u0010", StringUtils.EMPTY },
+                                { "\u0011", StringUtils.EMPTY },
+                                { "\u0012", StringUtils.EMPTY },
+                                { "\u0013", StringUtils.EMPTY },
+                                { "\u0014", StringUtils.EMPTY },
+                                { "\u0015", StringUtils.EMPTY },
+                                { "\u0016", StringUtils.EMPTY },
+                                { "\u0017", StringUtils.EMPTY },
+                                { "\u0018", StringUtils.EMPTY },
+                                { "\u0019", StringUtils.EMPTY },
+                                { "\u001a", StringUtils.EMPTY },
+                                { "\u001b", StringUtils.EMPTY },
+                                { "\u001c", StringUtils.EMPTY },
+                                { "\u001d", StringUtils.EMPTY },
+                                { "\u001e", StringUtils.EMPTY },
+                                { "\u001f", StringUtils.EMPTY },
+                                { "\ufffe", StringUtils.EMPTY },
+                                { "\uffff", StringUtils.EMPTY }
+                        }),
+                NumericEntityEscaper.between(0x7f, 0x84),
+                NumericEntityEscaper.between(0x86, 0x9f),
+                new UnicodeUnpairedSurrogateRemover()
+            );
+        }
+    };
+
+    
+    public static final CharSequenceTranslator ESCAPE_XML11 = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
+                new LookupTranslator(EntityArrays.APOS_ESCAPE()),
+                new LookupTranslator(
+                        new String[][] {
+                                { "\u0000", StringUtils.EMPTY },
+                                { "\u000b", "&#11;" },
+                                { "\u000c", "&#12;" },
+                                { "\ufffe", StringUtils.EMPTY },
+                                { "\uffff", StringUtils.EMPTY }
+                        }),
+                NumericEntityEscaper.between(0x1, 0x8),
+                NumericEntityEscaper.between(0xe, 0x1f),
+                NumericEntityEscaper.between(0x7f, 0x84),
+                NumericEntityEscaper.between(0x86, 0x9f),
+                new UnicodeUnpairedSurrogateRemover()
+            );
+        }
+    };
+
+    
+    public static final CharSequenceTranslator ESCAPE_HTML3 = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
+                new LookupTranslator(EntityArrays.ISO8859_1_ESCAPE())
+            );
+        }
+    };
+
+    
+    public static final CharSequenceTranslator ESCAPE_HTML4 = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
+                new LookupTranslator(EntityArrays.ISO8859_1_ESCAPE()),
+                new LookupTranslator(EntityArrays.HTML40_EXTENDED_ESCAPE())
+            );
+        }
+    };
+
+    
+    public static final CharSequenceTranslator ESCAPE_CSV = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new CsvEscaper();
+        }
+    };
 
     // TODO: Create a parent class - 'SinglePassTranslator' ?
     //       It would handle the index checking + length returning,
@@ -183,19 +221,23 @@ public int translate(final CharSequence input, final int index, final Writer out
 
     
     // TODO: throw "illegal character: \92" as an Exception if a \ on the end of the Java (as per the compiler)?
-    public static final CharSequenceTranslator UNESCAPE_JAVA =
-        new AggregateTranslator(
-            new OctalUnescaper(),     // .between('\1', '\377'),
-            new UnicodeUnescaper(),
-            new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_UNESCAPE()),
-            new LookupTranslator(
-                      new String[][] {
-                            {"\\\\", "\\"},
-                            {"\\\"", "\""},
-                            {"\\'", "'"},
-                            {"\\", ""}
-                      })
-        );
+    public static final CharSequenceTranslator UNESCAPE_JAVA = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new OctalUnescaper(),     // .between('\1', '\377'),
+                new UnicodeUnescaper(),
+                new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_UNESCAPE()),
+                new LookupTranslator(
+                          new String[][] {
+                                {"\\\\", "\\"},
+                                {"\\\"", "\""},
+                                {"\\'", "'"},
+                                {"\\", ""}
+                          })
+            );
+        }
+    };
 
     
     public static final CharSequenceTranslator UNESCAPE_ECMASCRIPT = UNESCAPE_JAVA;
@@ -204,32 +246,49 @@ public int translate(final CharSequence input, final int index, final Writer out
     public static final CharSequenceTranslator UNESCAPE_JSON = UNESCAPE_JAVA;
 
     
-    public static final CharSequenceTranslator UNESCAPE_HTML3 =
-        new AggregateTranslator(
-            new LookupTranslator(EntityArrays.BASIC_UNESCAPE()),
-            new LookupTranslator(EntityArrays.ISO8859_1_UNESCAPE()),
-            new NumericEntityUnescaper()
-        );
+    public static final CharSequenceTranslator UNESCAPE_HTML3 = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(EntityArrays.BASIC_UNESCAPE()),
+                new LookupTranslator(EntityArrays.ISO8859_1_UNESCAPE()),
+                new NumericEntityUnescaper()
+            );
+        }
+    };
 
     
-    public static final CharSequenceTranslator UNESCAPE_HTML4 =
-        new AggregateTranslator(
-            new LookupTranslator(EntityArrays.BASIC_UNESCAPE()),
-            new LookupTranslator(EntityArrays.ISO8859_1_UNESCAPE()),
-            new LookupTranslator(EntityArrays.HTML40_EXTENDED_UNESCAPE()),
-            new NumericEntityUnescaper()
-        );
+    public static final CharSequenceTranslator UNESCAPE_HTML4 = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(EntityArrays.BASIC_UNESCAPE()),
+                new LookupTranslator(EntityArrays.ISO8859_1_UNESCAPE()),
+                new LookupTranslator(EntityArrays.HTML40_EXTENDED_UNESCAPE()),
+                new NumericEntityUnescaper()
+            );
+        }
+    };
 
     
-    public static final CharSequenceTranslator UNESCAPE_XML =
-        new AggregateTranslator(
-            new LookupTranslator(EntityArrays.BASIC_UNESCAPE()),
-            new LookupTranslator(EntityArrays.APOS_UNESCAPE()),
-            new NumericEntityUnescaper()
-        );
+    public static final CharSequenceTranslator UNESCAPE_XML = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new AggregateTranslator(
+                new LookupTranslator(EntityArrays.BASIC_UNESCAPE()),
+                new LookupTranslator(EntityArrays.APOS_UNESCAPE()),
+                new NumericEntityUnescaper()
+            );
+        }
+    };
 
     
-    public static final CharSequenceTranslator UNESCAPE_CSV = new CsvUnescaper();
+    public static final CharSequenceTranslator UNESCAPE_CSV = new LazyTranslator() {
+        @Override
+        protected CharSequenceTranslator initialize() {
+            return new CsvUnescaper();
+        }
+    };
 
     static class CsvUnescaper extends CharSequenceTranslator {
 
@@ -279,30 +338,60 @@ public static final String escapeJava(final String input) {
     }
 
     
+    public static void escapeJava(final CharSequence input, final StringBuilder out) {
+        translate(ESCAPE_JAVA, input, out);
+    }
+
+    
     public static final String escapeEcmaScript(final String input) {
         return ESCAPE_ECMASCRIPT.translate(input);
     }
 
     
+    public static void escapeEcmaScript(final CharSequence input, final StringBuilder out) {
+        translate(ESCAPE_ECMASCRIPT, input, out);
+    }
+
+    
     public static final String escapeJson(final String input) {
         return ESCAPE_JSON.translate(input);
     }
 
     
+    public static void escapeJson(final CharSequence input, final StringBuilder out) {
+        translate(ESCAPE_JSON, input, out);
+    }
+
+    
     public static final String unescapeJava(final String input) {
         return UNESCAPE_JAVA.translate(input);
     }
 
     
+    public static void unescapeJava(final CharSequence input, final StringBuilder out) {
+        translate(UNESCAPE_JAVA, input, out);
+    }
+
+    
     public static final String unescapeEcmaScript(final String input) {
         return UNESCAPE_ECMASCRIPT.translate(input);
     }
 
     
+    public static void unescapeEcmaScript(final CharSequence input, final StringBuilder out) {
+        translate(UNESCAPE_ECMASCRIPT, input, out);
+    }
+
+    
     public static final String unescapeJson(final String input) {
         return UNESCAPE_JSON.translate(input);
     }
 
+    
+    public static void unescapeJson(final CharSequence input, final StringBuilder out) {
+        translate(UNESCAPE_JSON, input, out);
+    }
+
     // HTML and XML
     //--------------------------------------------------------------------------
     
@@ -311,10 +400,20 @@ public static final String escapeHtml4(final String input) {
     }
 
     
+    public static void escapeHtml4(final CharSequence input, final StringBuilder out) {
+        translate(ESCAPE_HTML4, input, out);
+    }
+
+    
     public static final String escapeHtml3(final String input) {
         return ESCAPE_HTML3.translate(input);
     }
 
+    
+    public static void escapeHtml3(final CharSequence input, final StringBuilder out) {
+        translate(ESCAPE_HTML3, input, out);
+    }
+
     //-----------------------------------------------------------------------
     
     public static final String unescapeHtml4(final String input) {
@@ -322,10 +421,20 @@ public static final String unescapeHtml4(final String input) {
     }
 
     
+    public static void unescapeHtml4(final CharSequence input, final StringBuilder out) {
+        translate(UNESCAPE_HTML4, input, out);
+    }
+
+    
     public static final String unescapeHtml3(final String input) {
         return UNESCAPE_HTML3.translate(input);
     }
 
+    
+    public static void unescapeHtml3(final CharSequence input, final StringBuilder out) {
+        translate(UNESCAPE_HTML3, input, out);
+    }
+
     //-----------------------------------------------------------------------
     
     @Deprecated
@@ -339,16 +448,31 @@ public static String escapeXml10(final String input) {
     }
 
     
+    public static void escapeXml10(final CharSequence input, final StringBuilder out) {
+        translate(ESCAPE_XML10, input, out);
+    }
+
+    
     public static String escapeXml11(final String input) {
         return ESCAPE_XML11.translate(input);
     }
 
+    
+    public static void escapeXml11(final CharSequence input, final StringBuilder out) {
+        translate(ESCAPE_XML11, input, out);
+    }
+
     //-----------------------------------------------------------------------
     
     public static final String unescapeXml(final String input) {
         return UNESCAPE_XML.translate(input);
     }
 
+    
+    public static void unescapeXml(final CharSequence input, final StringBuilder out) {
+        translate(UNESCAPE_XML, input, out);
+    }
+
     //-----------------------------------------------------------------------
 
     
@@ -357,8 +481,28 @@ public static final String escapeCsv(final String input) {
     }
 
     
+    public static void escapeCsv(final CharSequence input, final StringBuilder out) {
+        translate(ESCAPE_CSV, input, out);
+    }
+
+    
     public static final String unescapeCsv(final String input) {
         return UNESCAPE_CSV.translate(input);
     }
 
+    
+    public static void unescapeCsv(final CharSequence input, final StringBuilder out) {
+        translate(UNESCAPE_CSV, input, out);
+    }
+
+    // translates the input onto the builder, which must not be null
+    private static void translate(final CharSequenceTranslator translator, final CharSequence input, final StringBuilder out) {
+        try {
+            translator.translate(input, out);
+        } catch (final IOException ioe) {
+            // this should never ever happen while writing to a StringBuilder
+            throw new RuntimeException(ioe);
+        }
+    }
+
 }
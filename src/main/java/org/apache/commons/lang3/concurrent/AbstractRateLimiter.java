@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A base class for {@link RateLimiter}s, keeping time with {@link System#nanoTime()}.</p>
+ *
+ * @since 3.8
+ */
+public abstract class AbstractRateLimiter implements RateLimiter {
+
+    /**
+     * <p>Acquires a permit if it is available now, without waiting.</p>
+     *
+     * @return {@code true} if the permit was acquired
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * <p>Acquires permits, waiting as long as it takes for them.</p>
+     *
+     * @param permits  the number of permits, positive
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws IllegalArgumentException if the number of permits is not positive
+     */
+    public void acquire(final int permits) throws InterruptedException {
+        sleepNanos(reserve(permits));
+    }
+
+    /**
+     * <p>Gets the current time in nanoseconds, {@link System#nanoTime()} but for tests.</p>
+     *
+     * @return the current time
+     */
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * <p>Waits for a time, parking the thread.</p>
+     *
+     * @param nanos  the time to wait in nanoseconds
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    void sleepNanos(final long nanos) throws InterruptedException {
+        if (nanos <= 0) {
+            return;
+        }
+        final long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        do {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            remaining = deadline - System.nanoTime();
+        } while (remaining > 0);
+    }
+
+    static void checkPermits(final int permits) {
+        Validate.isTrue(permits > 0, "Permits must be greater than 0: %d", permits);
+    }
+
+    static long toNanos(final long timeout, final TimeUnit unit) {
+        Validate.notNull(unit, "Time unit must not be null!");
+        return Math.max(0, unit.toNanos(timeout));
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A lock-free version of {@link TimedSemaphore}, which needs no timer thread.</p>
+ *
+ * <p>Like {@code TimedSemaphore}, it allows a limited number of acquires in each time
+ * period, with {@link #NO_LIMIT} for no limit, and the periods start with the first
+ * acquire. Rather than being reset by a scheduled task, the current period is worked
+ * out from {@link System#nanoTime()} when it is needed, and the period and the number
+ * of acquires in it are kept in a single word that is updated by compare-and-set. A
+ * thread that has to wait parks until the next period starts.</p>
+ *
+ * <p>The statistics are those of {@code TimedSemaphore}, computed from the same word;
+ * while other threads acquire they may lag a little behind.</p>
+ *
+ * <p>Periods are numbered modulo 2<sup>33</sup>, so if an instance is left unused for
+ * exactly a multiple of that many periods, the acquires of the last period it was used
+ * in are counted again.</p>
+ *
+ * @since 3.8
+ */
+public class AtomicTimedSemaphore {
+
+    /**
+     * Constant for a value representing no limit. If the limit is set to a value less
+     * or equal this constant, there is no limit on the number of acquires in a period.
+     */
+    public static final int NO_LIMIT = 0;
+
+    // the state keeps the count in the low bits and the period number above it
+    private static final int COUNT_BITS = 31;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long PERIOD_MASK = -1L >>> COUNT_BITS;
+
+    private static final long UNSTARTED = Long.MIN_VALUE;
+
+    private final long period;
+    private final TimeUnit unit;
+    private final long periodNanos;
+
+    private volatile int limit;
+    private volatile boolean shutdown;
+
+    // the nanoTime of the first acquire, when the first period starts
+    private final AtomicLong startTime = new AtomicLong(UNSTARTED);
+
+    // the number of the period acquired in last, modulo 2^33, and the acquires in it
+    private final AtomicLong state = new AtomicLong();
+
+    // the acquires of the periods before the one in the state
+    private final AtomicLong totalAcquireCount = new AtomicLong();
+
+    // the acquires of the period before the one in the state
+    private volatile int lastCallsPerPeriod;
+
+    /**
+     * <p>Creates a new instance, allowing a number of acquires in each period.</p>
+     *
+     * @param timePeriod  the time period
+     * @param timeUnit  the unit of the period, not null
+     * @param limit  the number of acquires allowed in a period, or {@link #NO_LIMIT}
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public AtomicTimedSemaphore(final long timePeriod, final TimeUnit timeUnit, final int limit) {
+        Validate.inclusiveBetween(1, Long.MAX_VALUE, timePeriod, "Time period must be greater than 0!");
+        Validate.notNull(timeUnit, "Time unit must not be null!");
+        this.period = timePeriod;
+        this.unit = timeUnit;
+        this.periodNanos = Math.max(1, timeUnit.toNanos(timePeriod));
+        this.limit = limit;
+    }
+
+    /**
+     * <p>Gets the number of acquires allowed in a period.</p>
+     *
+     * @return the limit
+     */
+    public final int getLimit() {
+        return limit;
+    }
+
+    /**
+     * <p>Sets the number of acquires allowed in a period, taking effect at once.</p>
+     *
+     * @param limit  the limit, or {@link #NO_LIMIT}
+     */
+    public final void setLimit(final int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * <p>Shuts this semaphore down. Later acquires throw an exception, and so do waiting
+     * ones when they next wake up.</p>
+     */
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * <p>Tests whether this semaphore has been shut down.</p>
+     *
+     * @return {@code true} if {@link #shutdown()} was called
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * <p>Acquires a permit, waiting for the next period while the limit of the current
+     * one is reached.</p>
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws IllegalStateException if this semaphore is shut down
+     */
+    public void acquire() throws InterruptedException {
+        for (;;) {
+            checkShutdown();
+            final long now = nanoTime();
+            if (acquirePermit(now)) {
+                return;
+            }
+            final long elapsed = now - startTime.get();
+            LockSupport.parkNanos(this, periodNanos - elapsed % periodNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * <p>Acquires a permit if the limit of the current period is not reached.</p>
+     *
+     * @return {@code true} if a permit was acquired
+     * @throws IllegalStateException if this semaphore is shut down
+     */
+    public boolean tryAcquire() {
+        checkShutdown();
+        return acquirePermit(nanoTime());
+    }
+
+    private boolean acquirePermit(final long now) {
+        final long current = currentPeriod(start(now), now) & PERIOD_MASK;
+        for (;;) {
+            final long s = state.get();
+            final long statePeriod = s >>> COUNT_BITS;
+            final long count = s & COUNT_MASK;
+            if (statePeriod != current && !isAhead(statePeriod, current)) {
+                // the first acquire of a new period, which is always allowed
+                if (state.compareAndSet(s, pack(current, 1))) {
+                    totalAcquireCount.addAndGet(count);
+                    lastCallsPerPeriod = ((current - statePeriod) & PERIOD_MASK) == 1 ? (int) count : 0;
+                    return true;
+                }
+                continue;
+            }
+            final int currentLimit = limit;
+            if (currentLimit > NO_LIMIT && count >= currentLimit) {
+                return false;
+            }
+            // without a limit the count stops at the largest int rather than overflow
+            if (count == COUNT_MASK || state.compareAndSet(s, s + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * <p>Gets the number of acquires of the period before the current one.</p>
+     *
+     * @return the number of acquires of the last period
+     */
+    public int getLastAcquiresPerPeriod() {
+        final long s = state.get();
+        final long statePeriod = s >>> COUNT_BITS;
+        final long current = currentPeriod() & PERIOD_MASK;
+        if (statePeriod == current || isAhead(statePeriod, current)) {
+            return lastCallsPerPeriod;
+        }
+        return ((current - statePeriod) & PERIOD_MASK) == 1 ? (int) (s & COUNT_MASK) : 0;
+    }
+
+    /**
+     * <p>Gets the number of acquires in the current period.</p>
+     *
+     * @return the number of acquires
+     */
+    public int getAcquireCount() {
+        final long s = state.get();
+        final long current = currentPeriod() & PERIOD_MASK;
+        if ((s >>> COUNT_BITS) == current || isAhead(s >>> COUNT_BITS, current)) {
+            return (int) (s & COUNT_MASK);
+        }
+        return 0;
+    }
+
+    /**
+     * <p>Gets the number of acquires still allowed in the current period.</p>
+     *
+     * @return the number of permits available
+     */
+    public int getAvailablePermits() {
+        return getLimit() - getAcquireCount();
+    }
+
+    /**
+     * <p>Gets the mean number of acquires of the periods that have ended.</p>
+     *
+     * @return the mean number of acquires per period, 0 if no period has ended
+     */
+    public double getAverageCallsPerPeriod() {
+        final long periods = currentPeriod();
+        if (periods <= 0) {
+            return 0;
+        }
+        final long s = state.get();
+        long total = totalAcquireCount.get();
+        if ((s >>> COUNT_BITS) != (periods & PERIOD_MASK)) {
+            total += s & COUNT_MASK;
+        }
+        return (double) total / (double) periods;
+    }
+
+    /**
+     * <p>Gets the time period.</p>
+     *
+     * @return the time period
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * <p>Gets the unit of the time period.</p>
+     *
+     * @return the time unit
+     */
+    public TimeUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * <p>Gets the current time in nanoseconds, {@link System#nanoTime()} but for tests.</p>
+     *
+     * @return the current time
+     */
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private void checkShutdown() {
+        if (shutdown) {
+            throw new IllegalStateException("AtomicTimedSemaphore is shut down!");
+        }
+    }
+
+    // the start of the first period, which the first acquire sets
+    private long start(final long now) {
+        final long start = startTime.get();
+        if (start != UNSTARTED) {
+            return start;
+        }
+        return startTime.compareAndSet(UNSTARTED, now) ? now : startTime.get();
+    }
+
+    // the number of the current period, 0 before the first acquire
+    private long currentPeriod() {
+        final long start = startTime.get();
+        return start == UNSTARTED ? 0 : currentPeriod(start, nanoTime());
+    }
+
+    private long currentPeriod(final long start, final long now) {
+        return Math.max(0, now - start) / periodNanos;
+    }
+
+    // whether a period number is after the current one, as read from an earlier clock
+    private static boolean isAhead(final long statePeriod, final long current) {
+        final long ahead = (statePeriod - current) & PERIOD_MASK;
+        return ahead != 0 && ahead < PERIOD_MASK / 2;
+    }
+
+    private static long pack(final long period, final long count) {
+        return period << COUNT_BITS | count;
+    }
+}
@@ -0,0 +1,632 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A circuit breaker that opens when too large a share of the recent calls fail or
+ * are slow, rather than when a fixed number of events happen as with
+ * {@link EventCountCircuitBreaker}, so that it works the same at any volume of calls.</p>
+ *
+ * <p>The calls of a sliding window are counted in a ring of buckets, each covering a
+ * part of the window. When a call fails or is slow, and the window holds at least
+ * the minimum number of calls, the breaker opens if the rate of failed calls or the
+ * rate of slow calls is at or above its threshold. Successful calls that are not
+ * slow cannot open the breaker, so they are only counted.</p>
+ *
+ * <p>An open breaker turns all calls away for the open duration, and then becomes half
+ * open: {@link #checkState()} lets a given number of probe calls through. The breaker
+ * closes, with an empty window, when that many probe calls succeeded, and opens again
+ * for the open duration on the first probe call that fails or is slow, or when the
+ * outcomes of the probe calls are not all reported within the open duration of the
+ * last one being let through. Only as many outcomes count as probe calls were let
+ * through, and not those whose duration shows that the call started before the breaker
+ * became half open, as it was let through before the breaker opened.</p>
+ *
+ * <p>A typical use reports the outcome of each call it was let through, however the
+ * call ends:</p>
+ *
+ * <pre>
+ * ErrorRateCircuitBreaker breaker = new ErrorRateCircuitBreaker.Builder()
+ *     .window(1, TimeUnit.MINUTES)
+ *     .failureRateThreshold(0.5)
+ *     .slowCallDuration(2, TimeUnit.SECONDS)
+ *     .build();
+ * ...
+ * if (breaker.checkState()) {
+ *     final long start = System.nanoTime();
+ *     boolean failed = true;
+ *     try {
+ *         callService();
+ *         failed = false;
+ *     } finally {
+ *         if (failed) {
+ *             breaker.recordFailure(System.nanoTime() - start);
+ *         } else {
+ *             breaker.recordSuccess(System.nanoTime() - start);
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>Instances are thread-safe and do not lock. A state change fires a property change
+ * event when the breaker opens from closed and when it closes; it counts as open while
+ * half open.</p>
+ *
+ * @since 3.8
+ */
+public class ErrorRateCircuitBreaker extends AbstractCircuitBreaker<Boolean> {
+
+    // the calls count in the low half of a packed count, the failed calls in the high half
+    private static final int FAILURE_SHIFT = 32;
+    private static final long CALL_MASK = (1L << FAILURE_SHIFT) - 1;
+
+    private final int bucketCount;
+    private final long bucketNanos;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int probeCalls;
+
+    // the calls of the sliding window, replaced by an empty one when the breaker closes
+    private final AtomicReference<Window> window;
+
+    // the time the breaker opened and its probe calls, null while closed
+    private final AtomicReference<Trial> trial = new AtomicReference<>();
+
+    ErrorRateCircuitBreaker(final Builder builder) {
+        super();
+        bucketCount = builder.buckets;
+        bucketNanos = builder.windowNanos / builder.buckets;
+        failureRateThreshold = builder.failureRateThreshold;
+        minimumCalls = builder.minimumCalls;
+        slowCallNanos = builder.slowCallNanos;
+        slowCallRateThreshold = builder.slowCallRateThreshold;
+        openNanos = builder.openNanos;
+        probeCalls = builder.probeCalls;
+        window = new AtomicReference<>(new Window(now(), bucketCount));
+    }
+
+    /**
+     * <p>Returns the length of the sliding window in nanoseconds.</p>
+     *
+     * @return the window
+     */
+    public long getWindow() {
+        return bucketNanos * bucketCount;
+    }
+
+    /**
+     * <p>Returns the number of buckets the window is counted in.</p>
+     *
+     * @return the number of buckets
+     */
+    public int getBuckets() {
+        return bucketCount;
+    }
+
+    /**
+     * <p>Returns the rate of failed calls at which the breaker opens.</p>
+     *
+     * @return the failure rate threshold
+     */
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * <p>Returns the number of calls the window must hold before the breaker can open.</p>
+     *
+     * @return the minimum number of calls
+     */
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * <p>Returns the duration in nanoseconds from which a call is slow.</p>
+     *
+     * @return the slow call duration, {@code Long.MAX_VALUE} if no call is slow
+     */
+    public long getSlowCallDuration() {
+        return slowCallNanos;
+    }
+
+    /**
+     * <p>Returns the rate of slow calls at which the breaker opens.</p>
+     *
+     * @return the slow call rate threshold
+     */
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /**
+     * <p>Returns how long in nanoseconds the breaker turns all calls away once open.</p>
+     *
+     * @return the open duration
+     */
+    public long getOpenDuration() {
+        return openNanos;
+    }
+
+    /**
+     * <p>Returns the number of probe calls let through while half open.</p>
+     *
+     * @return the number of probe calls
+     */
+    public int getProbeCalls() {
+        return probeCalls;
+    }
+
+    /**
+     * <p>Returns whether the breaker is open and its open duration has passed, so that
+     * probe calls are let through.</p>
+     *
+     * @return {@code true} if half open
+     */
+    public boolean isHalfOpen() {
+        final Trial current = trial.get();
+        return current != null && now() - current.openTime >= openNanos;
+    }
+
+    /**
+     * <p>Returns the number of calls in the sliding window.</p>
+     *
+     * @return the number of calls
+     */
+    public long getCallCount() {
+        return window.get().count(now(), bucketNanos)[0];
+    }
+
+    /**
+     * <p>Returns the rate of failed calls in the sliding window.</p>
+     *
+     * @return the failure rate, 0 if there are no calls
+     */
+    public double getFailureRate() {
+        final long[] counts = window.get().count(now(), bucketNanos);
+        return counts[0] == 0 ? 0 : (double) counts[1] / counts[0];
+    }
+
+    /**
+     * <p>Returns the rate of slow calls in the sliding window.</p>
+     *
+     * @return the slow call rate, 0 if there are no calls
+     */
+    public double getSlowCallRate() {
+        final long[] counts = window.get().count(now(), bucketNanos);
+        return counts[0] == 0 ? 0 : (double) counts[2] / counts[0];
+    }
+
+    /**
+     * {@inheritDoc} A call may be made if this returns {@code true}. While half open each
+     * {@code true} is one of the probe calls, and the outcome of the call has to be
+     * reported for the breaker to close again. If the outcomes of the probe calls are
+     * not all reported within the open duration, the breaker opens again.
+     */
+    @Override
+    public boolean checkState() {
+        final Trial current = trial.get();
+        if (current == null) {
+            return true;
+        }
+        final long time = now();
+        if (time - current.openTime < openNanos) {
+            return false;
+        }
+        for (;;) {
+            final int probes = current.probes.get();
+            if (probes >= probeCalls) {
+                // a probe call that never reports counts as a bad one once the open duration is over
+                if (time - current.probeTime >= openNanos) {
+                    trial.compareAndSet(current, new Trial(time));
+                }
+                return false;
+            }
+            if (current.probes.compareAndSet(probes, probes + 1)) {
+                current.probeTime = time;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc} This implementation reports a call that failed if the increment is
+     * {@code true} and succeeded otherwise, without a duration, so it is not slow.
+     *
+     * @param failed whether the call failed
+     * @return {@code true} if the breaker is closed after the call
+     */
+    @Override
+    public boolean incrementAndCheckState(final Boolean failed) {
+        return record(failed.booleanValue(), 0);
+    }
+
+    /**
+     * <p>Reports a call that succeeded.</p>
+     *
+     * @param durationNanos  the duration of the call in nanoseconds
+     * @return {@code true} if the breaker is closed after the call
+     */
+    public boolean recordSuccess(final long durationNanos) {
+        return record(false, durationNanos);
+    }
+
+    /**
+     * <p>Reports a call that failed.</p>
+     *
+     * @param durationNanos  the duration of the call in nanoseconds
+     * @return {@code true} if the breaker is closed after the call
+     */
+    public boolean recordFailure(final long durationNanos) {
+        return record(true, durationNanos);
+    }
+
+    /**
+     * {@inheritDoc} The open duration starts now.
+     */
+    @Override
+    public void open() {
+        trial.set(new Trial(now()));
+        super.open();
+    }
+
+    /**
+     * {@inheritDoc} The sliding window starts empty.
+     */
+    @Override
+    public void close() {
+        window.set(new Window(now(), bucketCount));
+        trial.set(null);
+        super.close();
+    }
+
+    /**
+     * Returns the current time in nanoseconds, {@link System#nanoTime()} but for tests.
+     *
+     * @return the current time in nanoseconds
+     */
+    long now() {
+        return System.nanoTime();
+    }
+
+    private boolean record(final boolean failed, final long durationNanos) {
+        final boolean slow = durationNanos >= slowCallNanos;
+        final long time = now();
+        final Trial current = trial.get();
+        if (current != null) {
+            // a call that started before the breaker became half open is no probe call
+            if (durationNanos <= time - current.openTime - openNanos && current.claimOutcome()) {
+                recordProbe(current, failed || slow, time);
+            }
+            return trial.get() == null;
+        }
+        final Window currentWindow = window.get();
+        currentWindow.bucket(time, bucketNanos).add(failed, slow);
+        // only a failed or slow call can push a rate over its threshold
+        if ((failed || slow) && isTripped(currentWindow.count(time, bucketNanos))
+                && trial.compareAndSet(null, new Trial(time))) {
+            changeState(State.OPEN);
+        }
+        return trial.get() == null;
+    }
+
+    // opens again on a bad probe call, closes after enough good ones
+    private void recordProbe(final Trial current, final boolean bad, final long time) {
+        if (bad) {
+            trial.compareAndSet(current, new Trial(time));
+        } else if (current.successes.incrementAndGet() == probeCalls) {
+            // an empty window before closing so that closed calls are not counted in the old one
+            window.set(new Window(time, bucketCount));
+            if (trial.compareAndSet(current, null)) {
+                changeState(State.CLOSED);
+            }
+        }
+    }
+
+    private boolean isTripped(final long[] counts) {
+        final long calls = counts[0];
+        return calls >= minimumCalls && calls > 0
+                && (counts[1] >= failureRateThreshold * calls || counts[2] >= slowCallRateThreshold * calls);
+    }
+
+    /**
+     * The ring of buckets of the sliding window. A bucket is replaced by an empty one
+     * when it is used again for a later part of the window.
+     */
+    private static final class Window {
+        private final long startTime;
+        private final AtomicReferenceArray<Bucket> buckets;
+
+        Window(final long startTime, final int bucketCount) {
+            this.startTime = startTime;
+            this.buckets = new AtomicReferenceArray<>(bucketCount);
+        }
+
+        long index(final long time, final long bucketNanos) {
+            return Math.max(0, time - startTime) / bucketNanos;
+        }
+
+        Bucket bucket(final long time, final long bucketNanos) {
+            final long index = index(time, bucketNanos);
+            final int slot = (int) (index % buckets.length());
+            for (;;) {
+                final Bucket bucket = buckets.get(slot);
+                // a thread that read the clock earlier may find a later bucket already started
+                if (bucket != null && bucket.index >= index) {
+                    return bucket;
+                }
+                final Bucket next = new Bucket(index);
+                if (buckets.compareAndSet(slot, bucket, next)) {
+                    return next;
+                }
+            }
+        }
+
+        // the calls, failed calls and slow calls of the buckets within the window
+        long[] count(final long time, final long bucketNanos) {
+            final long index = index(time, bucketNanos);
+            long calls = 0;
+            long failures = 0;
+            long slowCalls = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                final Bucket bucket = buckets.get(i);
+                if (bucket != null && index - bucket.index < buckets.length()) {
+                    final long packed = bucket.calls.get();
+                    calls += packed & CALL_MASK;
+                    failures += packed >>> FAILURE_SHIFT;
+                    slowCalls += bucket.slowCalls.get();
+                }
+            }
+            return new long[] {calls, failures, slowCalls};
+        }
+    }
+
+    /**
+     * The calls of one part of the window. The calls and failed calls are packed into
+     * one long so that a call is counted with a single atomic add.
+     */
+    private static final class Bucket {
+        final long index;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong slowCalls = new AtomicLong();
+
+        Bucket(final long index) {
+            this.index = index;
+        }
+
+        void add(final boolean failed, final boolean slow) {
+            calls.getAndAdd(failed ? (1L << FAILURE_SHIFT) + 1 : 1);
+            if (slow) {
+                slowCalls.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The time the breaker opened, with the probe calls let through, reported and
+     * succeeded since it became half open.
+     */
+    private static final class Trial {
+        final long openTime;
+        final AtomicInteger probes = new AtomicInteger();
+        final AtomicInteger outcomes = new AtomicInteger();
+        final AtomicInteger successes = new AtomicInteger();
+        // the time the last probe call was let through
+        volatile long probeTime;
+
+        Trial(final long openTime) {
+            this.openTime = openTime;
+        }
+
+        // takes an outcome as that of a probe call, if one is still to report
+        boolean claimOutcome() {
+            for (;;) {
+                final int reported = outcomes.get();
+                if (reported >= probes.get()) {
+                    return false;
+                }
+                if (outcomes.compareAndSet(reported, reported + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>A builder class for creating instances of {@code ErrorRateCircuitBreaker}.</p>
+     *
+     * <p>By default the window is a minute in 10 buckets, the breaker opens when half of
+     * at least 100 calls fail, no call is slow, and it stays open for a minute before
+     * letting 10 probe calls through.</p>
+     *
+     * @since 3.8
+     */
+    public static class Builder implements org.apache.commons.lang3.builder.Builder<ErrorRateCircuitBreaker> {
+
+        private long windowNanos;
+        private int buckets;
+        private double failureRateThreshold;
+        private int minimumCalls;
+        private long slowCallNanos;
+        private double slowCallRateThreshold;
+        private long openNanos;
+        private int probeCalls;
+
+        /**
+         * <p>Creates a new builder with the default settings.</p>
+         */
+        public Builder() {
+            reset();
+        }
+
+        /**
+         * <p>Sets the length of the sliding window.</p>
+         *
+         * @param window  the window, positive
+         * @param unit  the unit of the window, not null
+         * @return a reference to this {@code Builder}
+         * @throws IllegalArgumentException if the window is not positive
+         */
+        public Builder window(final long window, final TimeUnit unit) {
+            windowNanos = toNanos(window, unit, "Window must be greater than 0!");
+            return this;
+        }
+
+        /**
+         * <p>Sets the number of buckets the window is counted in. More buckets let calls
+         * drop out of the window more smoothly, but take longer to count.</p>
+         *
+         * @param buckets  the number of buckets, positive
+         * @return a reference to this {@code Builder}
+         * @throws IllegalArgumentException if the number of buckets is not positive
+         */
+        public Builder buckets(final int buckets) {
+            Validate.isTrue(buckets > 0, "Buckets must be greater than 0: %d", buckets);
+            this.buckets = buckets;
+            return this;
+        }
+
+        /**
+         * <p>Sets the rate of failed calls at which the breaker opens.</p>
+         *
+         * @param threshold  the failure rate threshold, greater than 0 and at most 1
+         * @return a reference to this {@code Builder}
+         * @throws IllegalArgumentException if the threshold is out of range
+         */
+        public Builder failureRateThreshold(final double threshold) {
+            failureRateThreshold = checkRate(threshold);
+            return this;
+        }
+
+        /**
+         * <p>Sets the number of calls the window must hold before the breaker can open.</p>
+         *
+         * @param calls  the minimum number of calls, positive
+         * @return a reference to this {@code Builder}
+         * @throws IllegalArgumentException if the number of calls is not positive
+         */
+        public Builder minimumCalls(final int calls) {
+            Validate.isTrue(calls > 0, "Minimum calls must be greater than 0: %d", calls);
+            minimumCalls = calls;
+            return this;
+        }
+
+        /**
+         * <p>Sets the duration from which a call is slow.</p>
+         *
+         * @param duration  the slow call duration, positive
+         * @param unit  the unit of the duration, not null
+         * @return a reference to this {@code Builder}
+         * @throws IllegalArgumentException if the duration is not positive
+         */
+        public Builder slowCallDuration(final long duration, final TimeUnit unit) {
+            slowCallNanos = toNanos(duration, unit, "Slow call duration must be greater than 0!");
+            return this;
+        }
+
+        /**
+         * <p>Sets the rate of slow calls at which the breaker opens, 1 by default.</p>
+         *
+         * @param threshold  the slow call rate threshold, greater than 0 and at most 1
+         * @return a reference to this {@code Builder}
+         * @throws IllegalArgumentException if the threshold is out of range
+         */
+        public Builder slowCallRateThreshold(final double threshold) {
+            slowCallRateThreshold = checkRate(threshold);
+            return this;
+        }
+
+        /**
+         * <p>Sets how long the breaker turns all calls away once open.</p>
+         *
+         * @param duration  the open duration, positive
+         * @param unit  the unit of the duration, not null
+         * @return a reference to this {@code Builder}
+         * @throws IllegalArgumentException if the duration is not positive
+         */
+        public Builder openDuration(final long duration, final TimeUnit unit) {
+            openNanos = toNanos(duration, unit, "Open duration must be greater than 0!");
+            return this;
+        }
+
+        /**
+         * <p>Sets the number of probe calls let through while half open, all of which
+         * have to succeed for the breaker to close.</p>
+         *
+         * @param calls  the number of probe calls, positive
+         * @return a reference to this {@code Builder}
+         * @throws IllegalArgumentException if the number of calls is not positive
+         */
+        public Builder probeCalls(final int calls) {
+            Validate.isTrue(calls > 0, "Probe calls must be greater than 0: %d", calls);
+            probeCalls = calls;
+            return this;
+        }
+
+        /**
+         * <p>Resets all settings to their defaults.</p>
+         */
+        public void reset() {
+            windowNanos = TimeUnit.MINUTES.toNanos(1);
+            buckets = 10;
+            failureRateThreshold = 0.5;
+            minimumCalls = 100;
+            slowCallNanos = Long.MAX_VALUE;
+            slowCallRateThreshold = 1.0;
+            openNanos = TimeUnit.MINUTES.toNanos(1);
+            probeCalls = 10;
+        }
+
+        /**
+         * <p>Creates a new {@code ErrorRateCircuitBreaker} with the settings of this
+         * builder, and resets it.</p>
+         *
+         * @return the new circuit breaker
+         * @throws IllegalArgumentException if the window is shorter than the number of
+         *  buckets in nanoseconds
+         */
+        @Override
+        public ErrorRateCircuitBreaker build() {
+            Validate.isTrue(windowNanos >= buckets, "Window must be at least a nanosecond per bucket");
+            final ErrorRateCircuitBreaker breaker = new ErrorRateCircuitBreaker(this);
+            reset();
+            return breaker;
+        }
+
+        private static long toNanos(final long duration, final TimeUnit unit, final String message) {
+            Validate.inclusiveBetween(1, Long.MAX_VALUE, duration, message);
+            Validate.notNull(unit, "Time unit must not be null!");
+            return unit.toNanos(duration);
+        }
+
+        private static double checkRate(final double rate) {
+            Validate.isTrue(rate > 0 && rate <= 1, "Rate threshold must be greater than 0 and at most 1: %f", rate);
+            return rate;
+        }
+    }
+}
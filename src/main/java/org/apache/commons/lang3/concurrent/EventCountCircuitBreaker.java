@@ -4,6 +4,8 @@
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 
 
@@ -15,6 +17,9 @@ public class EventCountCircuitBreaker extends AbstractCircuitBreaker<Integer> {
     
     private final AtomicReference<CheckIntervalData> checkIntervalData;
 
+    // the events of the current check interval counted in stripes, null if not striped
+    private final AtomicReference<StripedIntervalData> stripedIntervalData;
+
     
     private final int openingThreshold;
 
@@ -31,8 +36,17 @@ public class EventCountCircuitBreaker extends AbstractCircuitBreaker<Integer> {
     public EventCountCircuitBreaker(final int openingThreshold, final long openingInterval,
                                     final TimeUnit openingUnit, final int closingThreshold, final long closingInterval,
                                     final TimeUnit closingUnit) {
+        this(openingThreshold, openingInterval, openingUnit, closingThreshold, closingInterval, closingUnit,
+                false);
+    }
+
+    
+    public EventCountCircuitBreaker(final int openingThreshold, final long openingInterval,
+                                    final TimeUnit openingUnit, final int closingThreshold, final long closingInterval,
+                                    final TimeUnit closingUnit, final boolean striped) {
         super();
         checkIntervalData = new AtomicReference<>(new CheckIntervalData(0, 0));
+        stripedIntervalData = striped ? new AtomicReference<>(new StripedIntervalData(0, openingThreshold)) : null;
         this.openingThreshold = openingThreshold;
         this.openingInterval = openingUnit.toNanos(openingInterval);
         this.closingThreshold = closingThreshold;
@@ -72,6 +86,11 @@ public long getClosingInterval() {
     }
 
     
+    public boolean isStriped() {
+        return stripedIntervalData != null;
+    }
+
+    
     @Override
     public boolean checkState() {
         return performStateCheck(0);
@@ -93,18 +112,21 @@ public boolean incrementAndCheckState() {
     @Override
     public void open() {
         super.open();
-        checkIntervalData.set(new CheckIntervalData(0, now()));
+        startNewCheckInterval();
     }
 
     
     @Override
     public void close() {
         super.close();
-        checkIntervalData.set(new CheckIntervalData(0, now()));
+        startNewCheckInterval();
     }
 
     
     private boolean performStateCheck(final int increment) {
+        if (stripedIntervalData != null) {
+            return performStripedStateCheck(increment);
+        }
         CheckIntervalData currentData;
         CheckIntervalData nextData;
         State currentState;
@@ -125,6 +147,51 @@ private boolean performStateCheck(final int increment) {
         return !isOpen(currentState);
     }
 
+    // the state check counting the events in stripes: the data of the check interval is only
+    // replaced when the interval is finished, and the stripes are only summed where that can
+    // change the state, in the open state when the interval is finished, and in the closed
+    // state once the allowances of the stripes have used up the opening threshold
+    private boolean performStripedStateCheck(final int increment) {
+        for (;;) {
+            final long time = now();
+            final State currentState = state.get();
+            final StripedIntervalData currentData = stripedIntervalData.get();
+            if (time - currentData.getCheckIntervalStart() > stateStrategy(currentState).fetchCheckInterval(this)) {
+                final StripedIntervalData nextData = new StripedIntervalData(time, getOpeningThreshold());
+                if (!stripedIntervalData.compareAndSet(currentData, nextData)) {
+                    continue;
+                }
+                // the thread starting the interval decides on closing, as StateStrategyOpen
+                if (isOpen(currentState) && currentData.getEventCount() < getClosingThreshold()) {
+                    changeStateAndStartNewCheckInterval(State.CLOSED);
+                    return true;
+                }
+                return checkOpening(currentState, nextData, nextData.increment(increment));
+            }
+            if (increment == 0) {
+                return !isOpen(currentState);
+            }
+            final boolean overAllowance = currentData.increment(increment);
+            if (stripedIntervalData.get() != currentData) {
+                // the interval was finished meanwhile, count the events in the next one instead
+                currentData.increment(-increment);
+                continue;
+            }
+            return checkOpening(currentState, currentData, overAllowance);
+        }
+    }
+
+    // opens the circuit breaker if the events are over the threshold, as StateStrategyClosed,
+    // summing the stripes only once the events may be over it
+    private boolean checkOpening(final State currentState, final StripedIntervalData data,
+            final boolean overAllowance) {
+        if (!isOpen(currentState) && overAllowance && data.getEventCount() > getOpeningThreshold()) {
+            changeStateAndStartNewCheckInterval(State.OPEN);
+            return false;
+        }
+        return !isOpen(currentState);
+    }
+
     
     private boolean updateCheckIntervalData(final CheckIntervalData currentData,
             final CheckIntervalData nextData) {
@@ -135,7 +202,16 @@ private boolean updateCheckIntervalData(final CheckIntervalData currentData,
     
     private void changeStateAndStartNewCheckInterval(final State newState) {
         changeState(newState);
-        checkIntervalData.set(new CheckIntervalData(0, now()));
+        startNewCheckInterval();
+    }
+
+    // resets the counts of whichever check interval data is used
+    private void startNewCheckInterval() {
+        if (stripedIntervalData != null) {
+            stripedIntervalData.set(new StripedIntervalData(now(), getOpeningThreshold()));
+        } else {
+            checkIntervalData.set(new CheckIntervalData(0, now()));
+        }
     }
 
     
@@ -200,6 +276,79 @@ public CheckIntervalData increment(final int delta) {
     }
 
     
+    // the data of a check interval with the events counted in stripes a cache line apart,
+    // one for each thread as far as there are processors; each stripe takes an allowance of
+    // events from the opening threshold as it needs one, so the events cannot be over the
+    // threshold before the allowances have used it up, and from then on every event sums them
+    private static class StripedIntervalData {
+        // the number of longs from one stripe to the next
+        private static final int SPACING = 8;
+
+        // the number of stripes, a power of 2
+        private static final int STRIPES = Integer.highestOneBit(
+                Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+        // the count of each stripe, followed by its allowance
+        private final AtomicLongArray counts = new AtomicLongArray(STRIPES * SPACING);
+
+        // the part of the threshold not yet taken as allowances
+        private final AtomicLong unallowed;
+
+        // the least allowance a stripe takes at once
+        private final long allowanceStep;
+
+        private final long checkIntervalStart;
+
+        // whether the allowances have used up the threshold
+        private volatile boolean exhausted;
+
+        StripedIntervalData(final long intervalStart, final int threshold) {
+            checkIntervalStart = intervalStart;
+            unallowed = new AtomicLong(Math.max(0, threshold));
+            allowanceStep = Math.max(1, threshold / STRIPES / 4);
+        }
+
+        public long getEventCount() {
+            long count = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                count += counts.get(i * SPACING);
+            }
+            return count;
+        }
+
+        public long getCheckIntervalStart() {
+            return checkIntervalStart;
+        }
+
+        // adds to the stripe of the current thread, returning whether the events may be over the
+        // threshold, as the stripe is over an allowance that cannot be raised
+        public boolean increment(final int delta) {
+            final int index = ((int) Thread.currentThread().getId() & (STRIPES - 1)) * SPACING;
+            final long count = delta == 0 ? counts.get(index) : counts.addAndGet(index, delta);
+            if (exhausted) {
+                return true;
+            }
+            for (;;) {
+                final long allowance = counts.get(index + 1);
+                if (count <= allowance) {
+                    return false;
+                }
+                final long needed = count - allowance;
+                final long left = unallowed.get();
+                if (left < needed) {
+                    exhausted = true;
+                    return true;
+                }
+                final long taken = Math.min(left, Math.max(needed, allowanceStep));
+                if (unallowed.compareAndSet(left, left - taken)) {
+                    counts.addAndGet(index + 1, taken);
+                    return false;
+                }
+            }
+        }
+    }
+
+    
     private abstract static class StateStrategy {
         
         public boolean isCheckIntervalFinished(final EventCountCircuitBreaker breaker,
@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A token bucket for each of any number of keys, such as users or tenants, with the
+ * same rate and capacity as {@link TokenBucketRateLimiter}.</p>
+ *
+ * <p>The bucket of a key is created when the key is first used, as the single time at
+ * which it is full again. A bucket that has been full for the idle timeout is removed,
+ * which loses nothing as a missing bucket counts as full. Idle buckets are looked for
+ * once each idle timeout, a few buckets by each acquire from then on until all have been
+ * looked at, so that no acquire pays for a pass over all keys. They can also be removed
+ * at once by calling {@link #evictIdle()}. There are no threads or timers.</p>
+ *
+ * @param <K> the type of the keys
+ * @since 3.8
+ */
+public class KeyedRateLimiter<K> {
+
+    // the state of a bucket being removed
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    // the most buckets an acquire looks at for eviction
+    static final int SWEEP_STEP = 16;
+
+    private final int capacity;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final long idleNanos;
+
+    // the nanoTime at which each bucket is full again
+    private final ConcurrentMap<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    // the nanoTime after which idle buckets are looked for
+    private final AtomicLong evictTime;
+
+    // the rest of the current pass over the buckets, null if there is none or an acquire has it
+    private final AtomicReference<Iterator<Map.Entry<K, AtomicLong>>> sweep = new AtomicReference<>();
+
+    /**
+     * <p>Creates a new instance refilling a number of permits each period for each key.</p>
+     *
+     * @param permits  the number of permits refilled each period, positive
+     * @param period  the time period, positive
+     * @param unit  the unit of the period, not null
+     * @param capacity  the most permits a bucket holds, positive
+     * @param idleTimeout  how long a bucket is kept after it is full, positive
+     * @param idleUnit  the unit of the idle timeout, not null
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public KeyedRateLimiter(final int permits, final long period, final TimeUnit unit, final int capacity,
+            final long idleTimeout, final TimeUnit idleUnit) {
+        Validate.isTrue(permits > 0, "Permits must be greater than 0: %d", permits);
+        Validate.inclusiveBetween(1, Long.MAX_VALUE, period, "Time period must be greater than 0!");
+        Validate.notNull(unit, "Time unit must not be null!");
+        Validate.isTrue(capacity > 0, "Capacity must be greater than 0: %d", capacity);
+        Validate.inclusiveBetween(1, Long.MAX_VALUE, idleTimeout, "Idle timeout must be greater than 0!");
+        Validate.notNull(idleUnit, "Idle time unit must not be null!");
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, unit.toNanos(period) / permits);
+        Validate.isTrue(capacity <= Long.MAX_VALUE / 4 / intervalNanos, "The capacity takes too long to refill");
+        this.capacityNanos = capacity * intervalNanos;
+        this.idleNanos = Math.min(Long.MAX_VALUE / 4, idleUnit.toNanos(idleTimeout));
+        this.evictTime = new AtomicLong(nanoTime() + idleNanos);
+    }
+
+    /**
+     * <p>Acquires a permit for a key if it is available now, without waiting.</p>
+     *
+     * @param key  the key, not null
+     * @return {@code true} if the permit was acquired
+     * @throws NullPointerException if the key is null
+     */
+    public boolean tryAcquire(final K key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * <p>Acquires permits for a key if they are available now, without waiting.</p>
+     *
+     * @param key  the key, not null
+     * @param permits  the number of permits, positive
+     * @return {@code true} if the permits were acquired
+     * @throws NullPointerException if the key is null
+     * @throws IllegalArgumentException if the number of permits is not positive
+     */
+    public boolean tryAcquire(final K key, final int permits) {
+        return take(key, permits, false) >= 0;
+    }
+
+    /**
+     * <p>Reserves permits for a key, returning how long the caller has to wait before
+     * using them, as {@link RateLimiter#reserve(int)}.</p>
+     *
+     * @param key  the key, not null
+     * @param permits  the number of permits, positive
+     * @return the time to wait in nanoseconds, 0 if the permits can be used now
+     * @throws NullPointerException if the key is null
+     * @throws IllegalArgumentException if the number of permits is not positive
+     */
+    public long reserve(final K key, final int permits) {
+        return take(key, permits, true);
+    }
+
+    /**
+     * <p>Acquires permits for a key, waiting as long as it takes for them.</p>
+     *
+     * @param key  the key, not null
+     * @param permits  the number of permits, positive
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws NullPointerException if the key is null
+     * @throws IllegalArgumentException if the number of permits is not positive
+     */
+    public void acquire(final K key, final int permits) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(reserve(key, permits));
+    }
+
+    /**
+     * <p>Gets the number of permits in the bucket of a key now.</p>
+     *
+     * @param key  the key, not null
+     * @return the number of permits, negative if permits are reserved ahead
+     * @throws NullPointerException if the key is null
+     */
+    public long getAvailablePermits(final K key) {
+        Validate.notNull(key, "Key must not be null!");
+        final AtomicLong bucket = buckets.get(key);
+        final long full = bucket == null ? EVICTED : bucket.get();
+        final long due = full - nanoTime();
+        if (full == EVICTED || due <= 0) {
+            return capacity;
+        }
+        final long refilled = capacityNanos - due;
+        // rounded down, also when reserved ahead
+        return refilled >= 0 ? refilled / intervalNanos : -((intervalNanos - 1 - refilled) / intervalNanos);
+    }
+
+    /**
+     * <p>Gets the most permits a bucket holds.</p>
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * <p>Gets the number of keys with a bucket, including idle ones not yet removed.</p>
+     *
+     * @return the number of buckets
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * <p>Removes the buckets that have been full for the idle timeout now, rather than
+     * waiting for an acquire to do it.</p>
+     *
+     * @return the number of buckets removed
+     */
+    public int evictIdle() {
+        final long now = nanoTime();
+        evictTime.set(now + idleNanos);
+        return evict(now);
+    }
+
+    /**
+     * <p>Gets the current time in nanoseconds, {@link System#nanoTime()} but for tests.</p>
+     *
+     * @return the current time
+     */
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    // takes the permits, returning the wait, or -1 if they are not available and not forced
+    private long take(final K key, final int permits, final boolean force) {
+        Validate.notNull(key, "Key must not be null!");
+        AbstractRateLimiter.checkPermits(permits);
+        Validate.isTrue(permits <= Long.MAX_VALUE / 4 / intervalNanos, "Too many permits: %d", permits);
+        final long cost = permits * intervalNanos;
+        final long now = nanoTime();
+        final long evict = evictTime.get();
+        if (now - evict >= 0 && evictTime.compareAndSet(evict, now + idleNanos)) {
+            sweep.set(buckets.entrySet().iterator());
+        }
+        sweep(now);
+        for (;;) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                if (!force && cost > capacityNanos) {
+                    return -1;
+                }
+                bucket = buckets.putIfAbsent(key, new AtomicLong(now + cost));
+                if (bucket == null) {
+                    return Math.max(0, cost - capacityNanos);
+                }
+            }
+            final long full = bucket.get();
+            if (full == EVICTED) {
+                // help the eviction along so that the next round finds no bucket
+                buckets.remove(key, bucket);
+                continue;
+            }
+            final long next = (full - now > 0 ? full : now) + cost;
+            final long wait = next - now - capacityNanos;
+            if (!force && wait > 0) {
+                return -1;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    // goes on with the current pass, taking it so that no other acquire uses it meanwhile
+    private void sweep(final long now) {
+        final Iterator<Map.Entry<K, AtomicLong>> entries = sweep.getAndSet(null);
+        if (entries == null) {
+            return;
+        }
+        for (int i = 0; i < SWEEP_STEP; i++) {
+            if (!entries.hasNext()) {
+                return;
+            }
+            evict(entries.next(), now);
+        }
+        // a pass started meanwhile replaces this one
+        sweep.compareAndSet(null, entries);
+    }
+
+    private int evict(final long now) {
+        int evicted = 0;
+        for (final Map.Entry<K, AtomicLong> entry : buckets.entrySet()) {
+            if (evict(entry, now)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // marks an idle bucket first so that an acquire cannot update it while it is removed
+    private boolean evict(final Map.Entry<K, AtomicLong> entry, final long now) {
+        final AtomicLong bucket = entry.getValue();
+        final long full = bucket.get();
+        if (full != EVICTED && now - full >= idleNanos && bucket.compareAndSet(full, EVICTED)) {
+            buckets.remove(entry.getKey(), bucket);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>An interface describing a rate limiter, which hands out permits at a limited rate.</p>
+ *
+ * <p>Unlike {@link TimedSemaphore}, a rate limiter can tell a caller how long to wait
+ * rather than blocking it. Implementations are thread-safe.</p>
+ *
+ * @since 3.8
+ */
+public interface RateLimiter {
+
+    /**
+     * <p>Acquires permits if they are available now, without waiting.</p>
+     *
+     * @param permits  the number of permits, positive
+     * @return {@code true} if the permits were acquired
+     * @throws IllegalArgumentException if the number of permits is not positive
+     */
+    boolean tryAcquire(int permits);
+
+    /**
+     * <p>Acquires permits if they become available within a timeout, waiting for them
+     * if needed.</p>
+     *
+     * @param permits  the number of permits, positive
+     * @param timeout  the longest time to wait
+     * @param unit  the unit of the timeout, not null
+     * @return {@code true} if the permits were acquired, {@code false} if they would
+     *  not be available in time, in which case there is no waiting
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws IllegalArgumentException if the number of permits is not positive
+     */
+    boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * <p>Reserves permits, returning how long the caller has to wait before using them.
+     * The permits are taken at once, whatever the wait, so callers that reserve one after
+     * the other are spaced out at the rate.</p>
+     *
+     * @param permits  the number of permits, positive
+     * @return the time to wait in nanoseconds, 0 if the permits can be used now
+     * @throws IllegalArgumentException if the number of permits is not positive
+     */
+    long reserve(int permits);
+}
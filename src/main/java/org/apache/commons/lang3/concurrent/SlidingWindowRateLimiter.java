@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A {@link RateLimiter} allowing a number of permits in any window of time of a
+ * given length, not just in fixed periods.</p>
+ *
+ * <p>A {@link TimedSemaphore} lets its limit through at the end of one period and again
+ * at the start of the next, which is twice the limit in a short time. This limiter
+ * instead counts the permits of the last window as the permits of the current fixed
+ * window, plus those of the previous fixed window weighted by how much of it still
+ * overlaps the last window. That assumes the permits of the previous window were
+ * spread evenly over it, so the limit holds approximately, but it takes only two
+ * counts rather than a log of times.</p>
+ *
+ * <p>Permits that are reserved beyond the limit are counted in the fixed windows after
+ * the current one, a limit to each, and the caller is told to wait until the count of
+ * the last window, with them, is within the limit. So a backlog of reservations is let
+ * through at the rate of the limit a window however long it is. More permits than the
+ * limit at once never fit in a window and are rejected.</p>
+ *
+ * @since 3.8
+ */
+public class SlidingWindowRateLimiter extends AbstractRateLimiter {
+
+    private final int limit;
+    private final long windowNanos;
+
+    // the start of the first fixed window
+    private final long startTime;
+
+    private final AtomicReference<Window> window;
+
+    /**
+     * <p>Creates a new instance allowing a number of permits in any window.</p>
+     *
+     * @param limit  the number of permits allowed in a window, positive
+     * @param window  the length of the window, positive
+     * @param unit  the unit of the length, not null
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public SlidingWindowRateLimiter(final int limit, final long window, final TimeUnit unit) {
+        Validate.isTrue(limit > 0, "Limit must be greater than 0: %d", limit);
+        Validate.inclusiveBetween(1, Long.MAX_VALUE, window, "Time period must be greater than 0!");
+        Validate.notNull(unit, "Time unit must not be null!");
+        this.limit = limit;
+        this.windowNanos = Math.max(1, unit.toNanos(window));
+        this.startTime = nanoTime();
+        this.window = new AtomicReference<>(new Window(0, 1, new AtomicLong(), 0));
+    }
+
+    @Override
+    public boolean tryAcquire(final int permits) {
+        checkLimit(permits);
+        final long elapsed = elapsedNanos(nanoTime());
+        final Window current = currentWindow(elapsed);
+        final double faded = current.previous(limit) * overlap(current, elapsed) + current.carry(limit);
+        for (;;) {
+            final long count = current.count.get();
+            if (faded + count + permits > limit) {
+                return false;
+            }
+            if (current.count.compareAndSet(count, count + permits)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(final int permits, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        checkLimit(permits);
+        final long timeoutNanos = toNanos(timeout, unit);
+        final long start = nanoTime();
+        for (;;) {
+            if (tryAcquire(permits)) {
+                return true;
+            }
+            final long now = nanoTime();
+            final long elapsed = elapsedNanos(now);
+            final Window current = currentWindow(elapsed);
+            final long wait = waitNanos(current, elapsed, current.total(limit) + permits);
+            if (wait > timeoutNanos - (now - start)) {
+                return false;
+            }
+            sleepNanos(Math.max(1, wait));
+        }
+    }
+
+    @Override
+    public long reserve(final int permits) {
+        checkLimit(permits);
+        final long elapsed = elapsedNanos(nanoTime());
+        final Window current = currentWindow(elapsed);
+        current.count.addAndGet(permits);
+        return waitNanos(current, elapsed, current.total(limit));
+    }
+
+    /**
+     * <p>Gets the number of permits counted in the window that ends now.</p>
+     *
+     * @return the estimated number of permits, including those reserved ahead, rounded up
+     */
+    public long getCount() {
+        final long elapsed = elapsedNanos(nanoTime());
+        final Window current = currentWindow(elapsed);
+        return (long) Math.ceil(current.previous(limit) * overlap(current, elapsed) + current.total(limit));
+    }
+
+    /**
+     * <p>Gets the number of permits allowed in a window.</p>
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    private void checkLimit(final int permits) {
+        checkPermits(permits);
+        Validate.isTrue(permits <= limit, "Permits must not be greater than the limit: %d", permits);
+    }
+
+    private long elapsedNanos(final long now) {
+        return Math.max(0, now - startTime);
+    }
+
+    // the window the elapsed time is in, starting it if it is new
+    private Window currentWindow(final long elapsed) {
+        final long index = elapsed / windowNanos;
+        for (;;) {
+            final Window current = window.get();
+            // a thread that read the clock earlier may find a later window already started
+            if (current.index >= index) {
+                return current;
+            }
+            // no backlog reaches that far, so a longer gap need not be multiplied out
+            final long gap = Math.min(index - current.index, Long.MAX_VALUE / 4 / limit);
+            final Window next = new Window(index, gap, current.count, current.carry(limit));
+            if (window.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    // the part of the previous fixed window still in the window that ends now
+    private double overlap(final Window current, final long elapsed) {
+        final long into = elapsed - current.index * windowNanos;
+        return into >= windowNanos ? 0 : 1 - (double) Math.max(0, into) / windowNanos;
+    }
+
+    /**
+     * Works out how long it takes for a total to be within the limit: in the current
+     * fixed window as its previous count fades out, else in the first later one that
+     * the total reaches once the windows before it have taken a limit each.
+     *
+     * @param current the current window
+     * @param elapsed the elapsed time now
+     * @param total the total of the current window to fit, with the permits reserved ahead
+     * @return the time to wait in nanoseconds
+     */
+    private long waitNanos(final Window current, final long elapsed, final long total) {
+        final double overlap = overlap(current, elapsed);
+        final long previous = current.previous(limit);
+        if (previous * overlap + total <= limit) {
+            return 0;
+        }
+        final long untilNext = (current.index + 1) * windowNanos - elapsed;
+        if (total <= limit) {
+            // the overlap at which previous * overlap + total == limit
+            final double fitting = (double) (limit - total) / previous;
+            return Math.min(untilNext, (long) Math.ceil((overlap - fitting) * windowNanos));
+        }
+        // the first later window whose own count is within the limit, after a full one
+        final long ahead = (total + limit - 1) / limit - 1;
+        final double fitting = (double) (limit - (total - ahead * limit)) / limit;
+        return untilNext + (ahead - 1) * windowNanos + (long) Math.ceil((1 - fitting) * windowNanos);
+    }
+
+    /**
+     * A fixed window. It reads the count of the window it follows as that goes on, so
+     * that permits added late by threads that still hold that window are not lost, and
+     * takes the reservations carried into that window as they are when it starts.
+     */
+    private static final class Window {
+        final long index;
+        // the number of fixed windows since the one it follows
+        final long gap;
+        final AtomicLong before;
+        final long beforeCarry;
+        final AtomicLong count = new AtomicLong();
+
+        Window(final long index, final long gap, final AtomicLong before, final long beforeCarry) {
+            this.index = index;
+            this.gap = gap;
+            this.before = before;
+            this.beforeCarry = beforeCarry;
+        }
+
+        // the count of the previous fixed window, a limit at most
+        long previous(final int limit) {
+            final long total = beforeCarry + before.get() - (gap - 1) * limit;
+            return Math.max(0, Math.min(limit, total));
+        }
+
+        // the reservations carried over into this window from the ones before it
+        long carry(final int limit) {
+            return Math.max(0, beforeCarry + before.get() - gap * limit);
+        }
+
+        long total(final int limit) {
+            return carry(limit) + count.get();
+        }
+    }
+}
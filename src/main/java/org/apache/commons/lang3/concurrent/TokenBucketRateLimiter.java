@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A {@link RateLimiter} with a bucket of permits that refills at a steady rate.</p>
+ *
+ * <p>The bucket holds up to its capacity, and starts full, so bursts of up to the
+ * capacity go through at once while the long term rate stays at the given number of
+ * permits per period. The permits come back one at a time, spread evenly over the
+ * period, rather than all at once as with {@link TimedSemaphore}.</p>
+ *
+ * <p>The whole state is the time at which the bucket will be full again, in one
+ * {@code AtomicLong} that is updated by compare-and-set.</p>
+ *
+ * @since 3.8
+ */
+public class TokenBucketRateLimiter extends AbstractRateLimiter {
+
+    private final int capacity;
+
+    // the time it takes to refill one permit and the whole bucket
+    private final long intervalNanos;
+    private final long capacityNanos;
+
+    // the nanoTime at which the bucket is full again, full already if it is past
+    private final AtomicLong fullTime;
+
+    /**
+     * <p>Creates a new instance refilling a number of permits each period.</p>
+     *
+     * @param permits  the number of permits refilled each period, positive
+     * @param period  the time period, positive
+     * @param unit  the unit of the period, not null
+     * @param capacity  the most permits the bucket holds, positive
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public TokenBucketRateLimiter(final int permits, final long period, final TimeUnit unit, final int capacity) {
+        Validate.isTrue(permits > 0, "Permits must be greater than 0: %d", permits);
+        Validate.inclusiveBetween(1, Long.MAX_VALUE, period, "Time period must be greater than 0!");
+        Validate.notNull(unit, "Time unit must not be null!");
+        Validate.isTrue(capacity > 0, "Capacity must be greater than 0: %d", capacity);
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, unit.toNanos(period) / permits);
+        Validate.isTrue(capacity <= Long.MAX_VALUE / 4 / intervalNanos, "The capacity takes too long to refill");
+        this.capacityNanos = capacity * intervalNanos;
+        this.fullTime = new AtomicLong(nanoTime());
+    }
+
+    @Override
+    public boolean tryAcquire(final int permits) {
+        final long cost = costNanos(permits);
+        final long now = nanoTime();
+        for (;;) {
+            final long full = fullTime.get();
+            final long next = (full - now > 0 ? full : now) + cost;
+            if (next - now > capacityNanos) {
+                return false;
+            }
+            if (fullTime.compareAndSet(full, next)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(final int permits, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        final long timeoutNanos = toNanos(timeout, unit);
+        final long cost = costNanos(permits);
+        final long now = nanoTime();
+        for (;;) {
+            final long full = fullTime.get();
+            final long next = (full - now > 0 ? full : now) + cost;
+            final long wait = next - now - capacityNanos;
+            if (wait > timeoutNanos) {
+                return false;
+            }
+            if (fullTime.compareAndSet(full, next)) {
+                sleepNanos(wait);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long reserve(final int permits) {
+        final long cost = costNanos(permits);
+        final long now = nanoTime();
+        for (;;) {
+            final long full = fullTime.get();
+            final long next = (full - now > 0 ? full : now) + cost;
+            if (fullTime.compareAndSet(full, next)) {
+                return Math.max(0, next - now - capacityNanos);
+            }
+        }
+    }
+
+    /**
+     * <p>Gets the number of permits in the bucket now.</p>
+     *
+     * @return the number of permits, negative if permits are reserved ahead
+     */
+    public long getAvailablePermits() {
+        final long due = fullTime.get() - nanoTime();
+        if (due <= 0) {
+            return capacity;
+        }
+        final long refilled = capacityNanos - due;
+        // rounded down, also when reserved ahead
+        return refilled >= 0 ? refilled / intervalNanos : -((intervalNanos - 1 - refilled) / intervalNanos);
+    }
+
+    /**
+     * <p>Gets the most permits the bucket holds.</p>
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // the time it takes to refill the permits
+    private long costNanos(final int permits) {
+        checkPermits(permits);
+        Validate.isTrue(permits <= Long.MAX_VALUE / 4 / intervalNanos, "Too many permits: %d", permits);
+        return permits * intervalNanos;
+    }
+}
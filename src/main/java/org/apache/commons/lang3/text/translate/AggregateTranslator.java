@@ -3,6 +3,9 @@
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.lang3.ArrayUtils;
 
@@ -10,23 +13,98 @@
 @Deprecated
 public class AggregateTranslator extends CharSequenceTranslator {
 
+    // the size of the dispatch table, chars at or above it are dispatched by asking each translator
+    private static final int DISPATCH_TABLE_SIZE = 256;
+
+    private static final CharSequenceTranslator[] NO_TRANSLATORS = new CharSequenceTranslator[0];
+
     private final CharSequenceTranslator[] translators;
 
+    // for each leading char below DISPATCH_TABLE_SIZE, the translators that could match it, in order
+    private final CharSequenceTranslator[][] dispatch;
+
     
     public AggregateTranslator(final CharSequenceTranslator... translators) {
         this.translators = ArrayUtils.clone(translators);
+        this.dispatch = buildDispatchTable(this.translators);
     }
 
     
     @Override
     public int translate(final CharSequence input, final int index, final Writer out) throws IOException {
+        final char c = input.charAt(index);
+        if (c < DISPATCH_TABLE_SIZE) {
+            for (final CharSequenceTranslator translator : dispatch[c]) {
+                final int consumed = translator.translate(input, index, out);
+                if(consumed != 0) {
+                    return consumed;
+                }
+            }
+            return 0;
+        }
         for (final CharSequenceTranslator translator : translators) {
-            final int consumed = translator.translate(input, index, out);
-            if(consumed != 0) {
-                return consumed;
+            if (translator.isCandidate(c)) {
+                final int consumed = translator.translate(input, index, out);
+                if(consumed != 0) {
+                    return consumed;
+                }
             }
         }
         return 0;
     }
 
+    
+    @Override
+    int lookahead() {
+        int lookahead = 0;
+        if (translators != null) {
+            for (final CharSequenceTranslator translator : translators) {
+                final int childLookahead = translator.trustedLookahead();
+                if (childLookahead < 0) {
+                    return -1;
+                }
+                lookahead = Math.max(lookahead, childLookahead);
+            }
+        }
+        return lookahead;
+    }
+
+    
+    @Override
+    boolean canTranslate(final char c) {
+        if (c < DISPATCH_TABLE_SIZE) {
+            return dispatch[c].length > 0;
+        }
+        for (final CharSequenceTranslator translator : translators) {
+            if (translator.isCandidate(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // fuses the translators into one table keyed by leading char, so that translating a char
+    // only asks the translators that can match it
+    private static CharSequenceTranslator[][] buildDispatchTable(final CharSequenceTranslator[] translators) {
+        final CharSequenceTranslator[][] table = new CharSequenceTranslator[DISPATCH_TABLE_SIZE][];
+        final List<CharSequenceTranslator> candidates = new ArrayList<>();
+        CharSequenceTranslator[] previous = NO_TRANSLATORS;
+        for (char c = 0; c < DISPATCH_TABLE_SIZE; c++) {
+            candidates.clear();
+            if (translators != null) {
+                for (final CharSequenceTranslator translator : translators) {
+                    if (translator.isCandidate(c)) {
+                        candidates.add(translator);
+                    }
+                }
+            }
+            // neighbouring chars usually share their candidates, so share the arrays too
+            if (!candidates.equals(Arrays.asList(previous))) {
+                previous = candidates.toArray(new CharSequenceTranslator[candidates.size()]);
+            }
+            table[c] = previous;
+        }
+        return table;
+    }
+
 }
@@ -2,30 +2,86 @@
 package org.apache.commons.lang3.text.translate;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.Reader;
 import java.io.Writer;
-import java.util.Locale;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.text.StrBuilder;
 
 
 @Deprecated
 public abstract class CharSequenceTranslator {
 
+    // the size of the window used to translate a Reader
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
     static final char[] HEX_DIGITS = new char[] {'0','1','2','3','4','5','6','7','8','9','A','B','C','D','E','F'};
 
+    // whether the class of this translator belongs to this package or is a LazyTranslator, so its
+    // canTranslate can be trusted
+    private final boolean builtIn = isBuiltIn(getClass());
+
     
     public abstract int translate(CharSequence input, int index, Writer out) throws IOException;
 
+    // whether this translator could consume input starting with the char, used to skip translators
+    // that cannot match; implementations that cannot tell must return true
+    boolean canTranslate(final char c) {
+        return true;
+    }
+
+    // canTranslate, asked only if it is known to agree with translate; a subclass outside this
+    // package cannot override canTranslate, so it may translate chars its superclass rejects
+    final boolean isCandidate(final char c) {
+        return !builtIn || canTranslate(c);
+    }
+
+    // how many chars from the current position this translator needs to see to decide a match
+    // in the common case, sizing the window of translateStream; negative if it needs the whole input
+    int lookahead() {
+        return -1;
+    }
+
+    // lookahead, asked only if it is known to agree with translate; a subclass outside this
+    // package may look further ahead than its superclass, or at the length of the input
+    final int trustedLookahead() {
+        return builtIn ? lookahead() : -1;
+    }
+
+    // the translator that does the work of this one, for translators that delegate it; the
+    // translation loops run on it
+    CharSequenceTranslator resolve() {
+        return this;
+    }
+
     
     public final String translate(final CharSequence input) {
         if (input == null) {
             return null;
         }
+        final CharSequenceTranslator translator = resolve();
+        if (translator != this) {
+            return translator.translate(input);
+        }
+        // most inputs need no translation at all, so look for the first position before allocating
+        final int len = input.length();
+        final int first = indexOfCandidate(input, 0, len);
+        if (first == len) {
+            return input.toString();
+        }
         try {
-            final StringWriter writer = new StringWriter(input.length() * 2);
-            translate(input, writer);
-            return writer.toString();
+            final StringBuilder builder = new StringBuilder(len * 2);
+            builder.append(input, 0, first);
+            translate(input, first, len, new AppendableWriter(builder));
+            return builder.toString();
         } catch (final IOException ioe) {
-            // this should never ever happen while writing to a StringWriter
+            // this should never ever happen while writing to a StringBuilder
             throw new RuntimeException(ioe);
         }
     }
@@ -38,9 +94,139 @@ public final void translate(final CharSequence input, final Writer out) throws I
         if (input == null) {
             return;
         }
+        resolve().translate(input, 0, input.length(), out);
+    }
+
+    
+    public final void translate(final CharSequence input, final Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("The Appendable must not be null");
+        }
+        if (input == null) {
+            return;
+        }
+        final Writer writer;
+        if (out instanceof Writer) {
+            writer = (Writer) out;
+        } else if (out instanceof StrBuilder) {
+            writer = ((StrBuilder) out).asWriter();
+        } else {
+            writer = new AppendableWriter(out);
+        }
+        resolve().translate(input, 0, input.length(), writer);
+    }
+
+    
+    public final void translateStream(final Reader input, final Writer out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("The Writer must not be null");
+        }
+        if (input == null) {
+            return;
+        }
+        final CharSequenceTranslator translator = resolve();
+        final int lookahead = translator.trustedLookahead();
+        if (lookahead < 0) {
+            final StringBuilder builder = new StringBuilder(STREAM_BUFFER_SIZE);
+            final char[] chars = new char[STREAM_BUFFER_SIZE];
+            int n;
+            while ((n = input.read(chars)) != -1) {
+                builder.append(chars, 0, n);
+            }
+            translator.translate(builder, out);
+            return;
+        }
+        translator.translate(new ReaderWindow(input, Math.max(lookahead, 2)), out);
+    }
+
+    
+    public final void translateStream(final ReadableByteChannel input, final Charset charset, final Writer out)
+            throws IOException {
+        if (input == null) {
+            translateStream((Reader) null, out);
+            return;
+        }
+        final CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        translateStream(Channels.newReader(input, decoder, -1), out);
+    }
+
+    // translates a Reader through a window, keeping at least guard chars buffered ahead of each
+    // position that could be translated
+    private void translate(final ReaderWindow window, final Writer out) throws IOException {
+        final StringBuilder match = new StringBuilder();
+        final Writer matchWriter = new AppendableWriter(match);
         int pos = 0;
-        final int len = input.length();
+        while (true) {
+            if (window.remaining(pos) < window.guard) {
+                pos = window.refill(pos, false);
+            }
+            final int end = window.end;
+            if (pos >= end) {
+                return;
+            }
+            // positions at or after limit have fewer than guard chars after them
+            final int limit = window.eof ? end : end - window.guard + 1;
+            final int candidate = indexOfCandidate(window, pos, limit);
+            if (candidate > pos) {
+                out.write(window.buffer, pos, candidate - pos);
+                pos = candidate;
+            }
+            if (pos >= limit) {
+                continue;
+            }
+            match.setLength(0);
+            window.maxTouched = -1;
+            int consumed;
+            try {
+                consumed = translate(window, pos, matchWriter);
+            } catch (final RuntimeException e) {
+                if (window.eof || window.maxTouched < end - 1) {
+                    throw e;
+                }
+                // the translator failed at the last buffered char, so it may have lacked input
+                pos = window.refill(pos, true);
+                continue;
+            }
+            if (!window.eof && window.maxTouched >= end - 1) {
+                // the translator looked at the last buffered char, so more input could change the result
+                pos = window.refill(pos, true);
+                continue;
+            }
+            if (consumed == 0) {
+                final char c1 = window.buffer[pos];
+                out.write(c1);
+                pos++;
+                if (Character.isHighSurrogate(c1) && pos < end) {
+                    final char c2 = window.buffer[pos];
+                    if (Character.isLowSurrogate(c2)) {
+                      out.write(c2);
+                      pos++;
+                    }
+                }
+                continue;
+            }
+            out.append(match);
+            for (int pt = 0; pt < consumed; pt++) {
+                pos += Character.charCount(Character.codePointAt(window, pos));
+            }
+        }
+    }
+
+    // translates the input from the position to its end, copying runs of chars that no translator
+    // can start with in bulk
+    private void translate(final CharSequence input, final int start, final int len, final Writer out) throws IOException {
+        int pos = start;
         while (pos < len) {
+            final int candidate = indexOfCandidate(input, pos, len);
+            if (candidate > pos) {
+                write(input, pos, candidate, out);
+                pos = candidate;
+                if (pos == len) {
+                    break;
+                }
+            }
             final int consumed = translate(input, pos, out);
             if (consumed == 0) {
                 // inlined implementation of Character.toChars(Character.codePointAt(input, pos))
@@ -65,6 +251,41 @@ public final void translate(final CharSequence input, final Writer out) throws I
         }
     }
 
+    // the first position at or after start that this translator could translate, at or after limit
+    // if there is none, stepping over surrogate pairs as the translation loop does
+    private int indexOfCandidate(final CharSequence input, final int start, final int limit) {
+        int pos = start;
+        while (pos < limit) {
+            final char c1 = input.charAt(pos);
+            if (isCandidate(c1)) {
+                return pos;
+            }
+            pos++;
+            if (Character.isHighSurrogate(c1) && pos < input.length() && Character.isLowSurrogate(input.charAt(pos))) {
+                pos++;
+            }
+        }
+        return pos;
+    }
+
+    private static boolean isBuiltIn(final Class<?> cls) {
+        if (LazyTranslator.class.isAssignableFrom(cls)) {
+            return true;
+        }
+        final String name = cls.getName();
+        final String packageName = CharSequenceTranslator.class.getName();
+        final int dot = packageName.lastIndexOf('.');
+        return name.lastIndexOf('.') == dot && name.regionMatches(0, packageName, 0, dot);
+    }
+
+    private static void write(final CharSequence input, final int start, final int end, final Writer out) throws IOException {
+        if (input instanceof String) {
+            out.write((String) input, start, end - start);
+        } else {
+            out.append(input, start, end);
+        }
+    }
+
     
     public final CharSequenceTranslator with(final CharSequenceTranslator... translators) {
         final CharSequenceTranslator[] newArray = new CharSequenceTranslator[translators.length + 1];
@@ -75,7 +296,176 @@ public final CharSequenceTranslator with(final CharSequenceTranslator... transla
 
     
     public static String hex(final int codepoint) {
-        return Integer.toHexString(codepoint).toUpperCase(Locale.ENGLISH);
+        final char[] digits = new char[8];
+        int pos = digits.length;
+        int value = codepoint;
+        do {
+            digits[--pos] = HEX_DIGITS[value & 15];
+            value >>>= 4;
+        } while (value != 0);
+        return new String(digits, pos, digits.length - pos);
+    }
+
+    // writes the digits of hex(int) to the Writer without building a String
+    static void writeHex(final int codepoint, final Writer out) throws IOException {
+        int shift = 28;
+        while (shift > 0 && codepoint >>> shift == 0) {
+            shift -= 4;
+        }
+        for (; shift >= 0; shift -= 4) {
+            out.write(HEX_DIGITS[codepoint >>> shift & 15]);
+        }
+    }
+
+    // writes the digits of Integer.toString(codepoint) to the Writer without building a String
+    static void writeDecimal(final int codepoint, final Writer out) throws IOException {
+        long value = codepoint;
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= value) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.write(HEX_DIGITS[(int) (value / divisor % 10)]);
+        }
+    }
+
+    // sliding window over a Reader, exposed as a CharSequence to the translators; it records the
+    // highest index they read so that a decision made at the end of the buffered input can be
+    // retried once more input is available
+    private static final class ReaderWindow implements CharSequence {
+
+        private final Reader reader;
+        private final int guard;
+        private char[] buffer;
+        private int end;
+        private boolean eof;
+        private int maxTouched = -1;
+
+        ReaderWindow(final Reader reader, final int guard) {
+            this.reader = reader;
+            this.guard = guard;
+            this.buffer = new char[Math.max(STREAM_BUFFER_SIZE, guard * 2)];
+        }
+
+        int remaining(final int pos) {
+            return eof ? Integer.MAX_VALUE : end - pos;
+        }
+
+        // moves the chars from pos on to the start of the buffer and reads until the buffer is full
+        // or the input is exhausted, growing a full buffer if asked; returns the new index of pos
+        int refill(final int pos, final boolean grow) throws IOException {
+            final int kept = end - pos;
+            if (grow && pos == 0 && end == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            } else if (pos > 0) {
+                System.arraycopy(buffer, pos, buffer, 0, kept);
+            }
+            end = kept;
+            while (end < buffer.length) {
+                final int n = reader.read(buffer, end, buffer.length - end);
+                if (n == -1) {
+                    eof = true;
+                    break;
+                }
+                end += n;
+            }
+            return 0;
+        }
+
+        @Override
+        public int length() {
+            return end;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index >= end) {
+                throw new StringIndexOutOfBoundsException(index);
+            }
+            if (index > maxTouched) {
+                maxTouched = index;
+            }
+            return buffer[index];
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int stop) {
+            if (start < 0 || stop > end || start > stop) {
+                throw new StringIndexOutOfBoundsException(stop);
+            }
+            if (stop - 1 > maxTouched) {
+                maxTouched = stop - 1;
+            }
+            return new String(buffer, start, stop - start);
+        }
+
+        @Override
+        public String toString() {
+            maxTouched = end - 1;
+            return new String(buffer, 0, end);
+        }
+    }
+
+    // unsynchronized Writer appending to an Appendable, in bulk where the target allows it
+    private static final class AppendableWriter extends Writer {
+
+        private final Appendable appendable;
+        private final StringBuilder builder;
+
+        AppendableWriter(final Appendable appendable) {
+            this.appendable = appendable;
+            this.builder = appendable instanceof StringBuilder ? (StringBuilder) appendable : null;
+        }
+
+        @Override
+        public void write(final int c) throws IOException {
+            appendable.append((char) c);
+        }
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) throws IOException {
+            if (builder != null) {
+                builder.append(cbuf, off, len);
+            } else {
+                appendable.append(CharBuffer.wrap(cbuf, off, len));
+            }
+        }
+
+        @Override
+        public void write(final String str) throws IOException {
+            appendable.append(str);
+        }
+
+        @Override
+        public void write(final String str, final int off, final int len) throws IOException {
+            appendable.append(str, off, off + len);
+        }
+
+        @Override
+        public Writer append(final CharSequence csq) throws IOException {
+            appendable.append(csq);
+            return this;
+        }
+
+        @Override
+        public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+            appendable.append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
     }
 
 }
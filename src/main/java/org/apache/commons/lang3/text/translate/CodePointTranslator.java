@@ -17,6 +17,13 @@ public final int translate(final CharSequence input, final int index, final Writ
     }
 
     
+    @Override
+    int lookahead() {
+        // a surrogate pair
+        return 2;
+    }
+
+    
     public abstract boolean translate(int codepoint, Writer out) throws IOException;
 
 }
@@ -16,6 +16,9 @@
  */
 package org.apache.commons.lang3.text.translate;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * Translates codepoints to their Unicode escaped value suitable for Java source.
  *
@@ -114,4 +117,19 @@ protected String toUtf16Escape(final int codepoint) {
         return "\\u" + hex(surrogatePair[0]) + "\\u" + hex(surrogatePair[1]);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeUtf16Escape(final int codepoint, final Writer out) throws IOException {
+        if (getClass() == JavaUnicodeEscaper.class) {
+            out.write("\\u");
+            writeHex(Character.highSurrogate(codepoint), out);
+            out.write("\\u");
+            writeHex(Character.lowSurrogate(codepoint), out);
+        } else {
+            super.writeUtf16Escape(codepoint, out);
+        }
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.text.translate;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A translator that builds the translator it delegates to on first use, so that
+ * predefined translators cost nothing until they are needed.
+ *
+ * <p>The delegate is created at most once, with the double-check idiom of
+ * {@link org.apache.commons.lang3.concurrent.LazyInitializer}. The translation methods
+ * of {@link CharSequenceTranslator} run on the delegate directly, so translating
+ * costs the same as with the delegate itself.</p>
+ *
+ * @since 3.8
+ * @deprecated as of 3.8, like the rest of this package, use commons-text
+ * <a href="https://commons.apache.org/proper/commons-text/javadocs/api-release/org/apache/commons/text/translate/CharSequenceTranslator.html">
+ * CharSequenceTranslator</a> instead
+ */
+@Deprecated
+public abstract class LazyTranslator extends CharSequenceTranslator {
+
+    private volatile CharSequenceTranslator translator;
+
+    /**
+     * Creates the translator to delegate to. Called once, on first use.
+     *
+     * @return the translator to delegate to, not null
+     */
+    protected abstract CharSequenceTranslator initialize();
+
+    /**
+     * Returns the translator to delegate to, creating it on first use.
+     *
+     * @return the translator to delegate to
+     */
+    public final CharSequenceTranslator get() {
+        // use a temporary variable to reduce the number of reads of the
+        // volatile field
+        CharSequenceTranslator result = translator;
+        if (result == null) {
+            synchronized (this) {
+                result = translator;
+                if (result == null) {
+                    translator = result = initialize();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final int translate(final CharSequence input, final int index, final Writer out) throws IOException {
+        return get().translate(input, index, out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    CharSequenceTranslator resolve() {
+        return get().resolve();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean canTranslate(final char c) {
+        return get().isCandidate(c);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int lookahead() {
+        return get().trustedLookahead();
+    }
+}
@@ -18,8 +18,9 @@
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.ArrayUtils;
 
 /**
  * Translates a value using a lookup table.
@@ -32,9 +33,8 @@
 @Deprecated
 public class LookupTranslator extends CharSequenceTranslator {
 
-    private final HashMap<String, String> lookupMap;
-    private final HashSet<Character> prefixSet;
-    private final int shortest;
+    /** The root of the trie built from the keys of the lookup table. */
+    private final TrieNode root;
     private final int longest;
 
     /**
@@ -44,27 +44,23 @@ public class LookupTranslator extends CharSequenceTranslator {
      * java.lang.String. This is because we need the key to support hashCode and
      * equals(Object), allowing it to be the key for a HashMap. See LANG-882.
      *
+     * As of Lang 3.8 the keys are compiled into a character trie, so that matching
+     * walks the input once and does not allocate a String per candidate length.
+     *
      * @param lookup CharSequence[][] table of size [*][2]
      */
     public LookupTranslator(final CharSequence[]... lookup) {
-        lookupMap = new HashMap<>();
-        prefixSet = new HashSet<>();
-        int _shortest = Integer.MAX_VALUE;
+        root = new TrieNode();
         int _longest = 0;
         if (lookup != null) {
             for (final CharSequence[] seq : lookup) {
-                this.lookupMap.put(seq[0].toString(), seq[1].toString());
-                this.prefixSet.add(seq[0].charAt(0));
+                root.put(seq[0], seq[1].toString());
                 final int sz = seq[0].length();
-                if (sz < _shortest) {
-                    _shortest = sz;
-                }
                 if (sz > _longest) {
                     _longest = sz;
                 }
             }
         }
-        shortest = _shortest;
         longest = _longest;
     }
 
@@ -73,23 +69,107 @@ public LookupTranslator(final CharSequence[]... lookup) {
      */
     @Override
     public int translate(final CharSequence input, final int index, final Writer out) throws IOException {
-        // check if translation exists for the input at position index
-        if (prefixSet.contains(input.charAt(index))) {
-            int max = longest;
-            if (index + longest > input.length()) {
-                max = input.length() - index;
+        // implement greedy algorithm by remembering the longest key seen while walking the trie
+        int max = index + longest;
+        if (max > input.length()) {
+            max = input.length();
+        }
+        TrieNode node = root;
+        String result = null;
+        int consumed = 0;
+        for (int i = index; i < max; i++) {
+            node = node.child(input.charAt(i));
+            if (node == null) {
+                break;
             }
-            // implement greedy algorithm by trying maximum match first
-            for (int i = max; i >= shortest; i--) {
-                final CharSequence subSeq = input.subSequence(index, index + i);
-                final String result = lookupMap.get(subSeq.toString());
+            if (node.value != null) {
+                result = node.value;
+                consumed = i + 1 - index;
+            }
+        }
+        if (result != null) {
+            out.write(result);
+        }
+        return consumed;
+    }
 
-                if (result != null) {
-                    out.write(result);
-                    return i;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean canTranslate(final char c) {
+        return root.child(c) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int lookahead() {
+        return longest;
+    }
+
+    /**
+     * A node of the lookup trie. The outgoing edges are kept in a sorted {@code char[]}
+     * so that finding a child is a binary search without boxing.
+     */
+    private static final class TrieNode {
+        private char[] edges = ArrayUtils.EMPTY_CHAR_ARRAY;
+        private TrieNode[] children = new TrieNode[0];
+        private String value;
+
+        /**
+         * Adds a key to the trie rooted at this node, replacing any value already
+         * stored for an equal key.
+         *
+         * @param key the key to add, must not be empty
+         * @param translation the value to translate the key to
+         */
+        void put(final CharSequence key, final String translation) {
+            // fail on empty keys like the previous HashMap based implementation did
+            key.charAt(0);
+            TrieNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                final char c = key.charAt(i);
+                final int pos = Arrays.binarySearch(node.edges, c);
+                if (pos >= 0) {
+                    node = node.children[pos];
+                } else {
+                    final int insert = -pos - 1;
+                    final TrieNode child = new TrieNode();
+                    node.edges = insert(node.edges, insert, c);
+                    node.children = insert(node.children, insert, child);
+                    node = child;
                 }
             }
+            node.value = translation;
+        }
+
+        /**
+         * Returns the child reached by the given char.
+         *
+         * @param c the next char of the input
+         * @return the child node, or {@code null} if no key continues with {@code c}
+         */
+        TrieNode child(final char c) {
+            final int pos = Arrays.binarySearch(edges, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        private static char[] insert(final char[] array, final int index, final char c) {
+            final char[] result = new char[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            result[index] = c;
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            return result;
+        }
+
+        private static TrieNode[] insert(final TrieNode[] array, final int index, final TrieNode node) {
+            final TrieNode[] result = new TrieNode[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            result[index] = node;
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            return result;
         }
-        return 0;
     }
 }
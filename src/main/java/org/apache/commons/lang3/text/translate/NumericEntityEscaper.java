@@ -99,6 +99,18 @@ public static NumericEntityEscaper outsideOf(final int codepointLow, final int c
         return new NumericEntityEscaper(codepointLow, codepointHigh, false);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean canTranslate(final char c) {
+        if (Character.isSurrogate(c)) {
+            // the range check applies to the whole code point
+            return true;
+        }
+        return between == (c >= below && c <= above);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -115,7 +127,7 @@ public boolean translate(final int codepoint, final Writer out) throws IOExcepti
         }
 
         out.write("&#");
-        out.write(Integer.toString(codepoint, 10));
+        writeDecimal(codepoint, out);
         out.write(';');
         return true;
     }
@@ -74,6 +74,23 @@ public boolean isSet(final OPTION option) {
         return options != null && options.contains(option);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean canTranslate(final char c) {
+        return c == '&';
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int lookahead() {
+        // long enough for "&#x10FFFF;", longer zero padded entities are found by retrying
+        return 10;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -35,6 +35,23 @@
 @Deprecated
 public class OctalUnescaper extends CharSequenceTranslator {
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean canTranslate(final char c) {
+        return c == '\\';
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int lookahead() {
+        // a backslash and up to three octal digits
+        return 4;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -99,6 +99,18 @@ public static UnicodeEscaper between(final int codepointLow, final int codepoint
         return new UnicodeEscaper(codepointLow, codepointHigh, true);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean canTranslate(final char c) {
+        if (Character.isSurrogate(c)) {
+            // the range check applies to the whole code point
+            return true;
+        }
+        return between == (c >= below && c <= above);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -116,7 +128,7 @@ public boolean translate(final int codepoint, final Writer out) throws IOExcepti
 
         // TODO: Handle potential + sign per various Unicode escape implementations
         if (codepoint > 0xffff) {
-            out.write(toUtf16Escape(codepoint));
+            writeUtf16Escape(codepoint, out);
         } else {
           out.write("\\u");
           out.write(HEX_DIGITS[(codepoint >> 12) & 15]);
@@ -139,4 +151,22 @@ public boolean translate(final int codepoint, final Writer out) throws IOExcepti
     protected String toUtf16Escape(final int codepoint) {
         return "\\u" + hex(codepoint);
     }
+
+    /**
+     * Writes {@link #toUtf16Escape(int)} for a codepoint above 0xffff. Subclasses that
+     * may override {@code toUtf16Escape} get the String it returns, the others have the
+     * escape written digit by digit.
+     *
+     * @param codepoint a supplementary code point
+     * @param out the Writer to write to
+     * @throws IOException if and only if the Writer produces an IOException
+     */
+    void writeUtf16Escape(final int codepoint, final Writer out) throws IOException {
+        if (getClass() == UnicodeEscaper.class) {
+            out.write("\\u");
+            writeHex(codepoint, out);
+        } else {
+            out.write(toUtf16Escape(codepoint));
+        }
+    }
 }
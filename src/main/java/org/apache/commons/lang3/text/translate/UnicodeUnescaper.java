@@ -32,6 +32,23 @@
 @Deprecated
 public class UnicodeUnescaper extends CharSequenceTranslator {
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean canTranslate(final char c) {
+        return c == '\\';
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int lookahead() {
+        // a backslash, a 'u' and four hex digits
+        return 6;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -28,6 +28,14 @@
  */
 @Deprecated
 public class UnicodeUnpairedSurrogateRemover extends CodePointTranslator {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean canTranslate(final char c) {
+        return Character.isSurrogate(c);
+    }
+
     /**
      * Implementation of translate that throws out unpaired surrogates.
      * {@inheritDoc}
@@ -0,0 +1,667 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.text.translate;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Translates UTF-8 encoded bytes directly, with the same rules as the {@code String}
+ * based translators of {@link org.apache.commons.lang3.StringEscapeUtils}.
+ *
+ * <p>Translating bytes gives the same result as decoding them to a {@code String},
+ * translating that and encoding the result as UTF-8, malformed input being replaced
+ * by U+FFFD like the decoding would. Runs of ASCII bytes that need no translation
+ * are copied in bulk and multi-byte sequences are only decoded where a rule applies
+ * to them.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @since 3.8
+ * @deprecated as of 3.8, like the rest of this package, use commons-text
+ * <a href="https://commons.apache.org/proper/commons-text/javadocs/api-release/org/apache/commons/text/StringEscapeUtils.html">
+ * StringEscapeUtils</a> instead
+ */
+@Deprecated
+public abstract class Utf8Translator {
+
+    /**
+     * Escapes UTF-8 bytes like {@link org.apache.commons.lang3.StringEscapeUtils#ESCAPE_JSON}.
+     */
+    public static final Utf8Translator ESCAPE_JSON = new JsonEscaper();
+
+    /**
+     * Escapes UTF-8 bytes like {@link org.apache.commons.lang3.StringEscapeUtils#ESCAPE_XML10}.
+     */
+    public static final Utf8Translator ESCAPE_XML10 = new Xml10Escaper();
+
+    /**
+     * Unescapes UTF-8 bytes like {@link org.apache.commons.lang3.StringEscapeUtils#UNESCAPE_JAVA}.
+     */
+    public static final Utf8Translator UNESCAPE_JAVA = new JavaUnescaper();
+
+    /**
+     * Unescapes UTF-8 bytes like {@link org.apache.commons.lang3.StringEscapeUtils#UNESCAPE_JSON}.
+     */
+    public static final Utf8Translator UNESCAPE_JSON = UNESCAPE_JAVA;
+
+    private static final byte[] HEX_DIGITS = new byte[] {
+        '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+
+    /** U+FFFD, the replacement for malformed input. */
+    private static final byte[] REPLACEMENT = new byte[] {(byte) 0xEF, (byte) 0xBF, (byte) 0xBD};
+
+    /** The most bytes one input byte can be translated to. */
+    private final int maxExpansion;
+
+    Utf8Translator(final int maxExpansion) {
+        this.maxExpansion = maxExpansion;
+    }
+
+    /**
+     * Translates a UTF-8 encoded byte array.
+     *
+     * @param input the bytes to translate, may be null
+     * @return the translated bytes, {@code null} if null input
+     */
+    public final byte[] translate(final byte[] input) {
+        if (input == null) {
+            return null;
+        }
+        final Output out = new Output(new byte[input.length + 16], 0, Integer.MAX_VALUE);
+        translate(input, 0, input.length, out);
+        return Arrays.copyOf(out.buffer, out.position);
+    }
+
+    /**
+     * Translates the remaining bytes of a buffer onto another buffer. On success the input
+     * is fully consumed and the output position is advanced past the translated bytes.
+     * Heap buffers are read and written in place, direct buffers go through a copy.
+     *
+     * @param input the UTF-8 bytes to translate, not null
+     * @param out the buffer to write the translated bytes to, not null
+     * @throws BufferOverflowException if the translation does not fit in {@code out}, in
+     *  which case the positions of both buffers are left unchanged
+     * @see #maxTranslatedLength(int)
+     */
+    public final void translate(final ByteBuffer input, final ByteBuffer out) {
+        if (input == null || out == null) {
+            throw new IllegalArgumentException("The buffers must not be null");
+        }
+        final byte[] in;
+        final int start;
+        final int end;
+        if (input.hasArray()) {
+            in = input.array();
+            start = input.arrayOffset() + input.position();
+            end = input.arrayOffset() + input.limit();
+        } else {
+            in = new byte[input.remaining()];
+            input.duplicate().get(in);
+            start = 0;
+            end = in.length;
+        }
+        if (out.hasArray()) {
+            final int offset = out.arrayOffset();
+            final Output output = new Output(out.array(), offset + out.position(), offset + out.limit());
+            translate(in, start, end, output);
+            out.position(output.position - offset);
+        } else {
+            final Output output = new Output(new byte[end - start + 16], 0, Integer.MAX_VALUE);
+            translate(in, start, end, output);
+            out.put(output.buffer, 0, output.position);
+        }
+        input.position(input.limit());
+    }
+
+    /**
+     * Returns the most bytes that translating the given number of bytes can produce, so
+     * that an output buffer for {@link #translate(ByteBuffer, ByteBuffer)} can be sized.
+     *
+     * @param length the number of bytes to translate
+     * @return the upper bound of the translated length
+     */
+    public final int maxTranslatedLength(final int length) {
+        return length * maxExpansion;
+    }
+
+    /**
+     * Translates a range of bytes.
+     *
+     * @param in the bytes to translate
+     * @param start the index of the first byte to translate
+     * @param end the index after the last byte to translate
+     * @param out where to write the translated bytes
+     */
+    abstract void translate(byte[] in, int start, int end, Output out);
+
+    /**
+     * Returns the length of the UTF-8 sequence starting at the given index. Malformed
+     * sequences are delimited as {@code new String(bytes, UTF_8)} does, so that each one
+     * is replaced by a single U+FFFD like it is there.
+     *
+     * @param in the bytes to decode
+     * @param pos the index of the first byte of the sequence
+     * @param end the index after the last byte of the input
+     * @return the length of the well-formed sequence, or the negated length of the
+     *  malformed sequence
+     */
+    static int sequenceLength(final byte[] in, final int pos, final int end) {
+        final int b1 = in[pos];
+        if (b1 >= 0) {
+            return 1;
+        }
+        if (b1 >> 5 == -2 && (b1 & 0x1e) != 0) {
+            // C2..DF
+            return pos + 1 < end && isContinuation(in[pos + 1]) ? 2 : -1;
+        }
+        if (b1 >> 4 == -2) {
+            // E0..EF
+            if (pos + 2 < end) {
+                final int b2 = in[pos + 1];
+                final int b3 = in[pos + 2];
+                if (isOverlong3(b1, b2) || !isContinuation(b2)) {
+                    return -1;
+                }
+                if (!isContinuation(b3)) {
+                    return -2;
+                }
+                // encoded surrogates are malformed as a whole
+                return b1 == (byte) 0xED && (b2 & 0xFF) >= 0xA0 ? -3 : 3;
+            }
+            if (pos + 1 < end && (isOverlong3(b1, in[pos + 1]) || !isContinuation(in[pos + 1]))) {
+                return -1;
+            }
+            return pos - end;
+        }
+        if (b1 >> 3 == -2) {
+            // F0..F7
+            final int lead = b1 & 0xFF;
+            if (pos + 3 < end) {
+                final int b2 = in[pos + 1] & 0xFF;
+                if (lead > 0xF4 || lead == 0xF0 && (b2 < 0x90 || b2 > 0xBF) || lead == 0xF4 && (b2 & 0xF0) != 0x80
+                        || !isContinuation(b2)) {
+                    return -1;
+                }
+                if (!isContinuation(in[pos + 2])) {
+                    return -2;
+                }
+                return isContinuation(in[pos + 3]) ? 4 : -3;
+            }
+            if (lead > 0xF4 || pos + 1 < end && isMalformed4(lead, in[pos + 1] & 0xFF)) {
+                return -1;
+            }
+            if (pos + 2 < end && !isContinuation(in[pos + 2])) {
+                return -2;
+            }
+            return pos - end;
+        }
+        return -1;
+    }
+
+    private static boolean isContinuation(final int b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private static boolean isOverlong3(final int b1, final int b2) {
+        return b1 == (byte) 0xE0 && (b2 & 0xE0) == 0x80;
+    }
+
+    private static boolean isMalformed4(final int lead, final int b2) {
+        return lead == 0xF0 && (b2 < 0x90 || b2 > 0xBF) || lead == 0xF4 && (b2 & 0xF0) != 0x80 || !isContinuation(b2);
+    }
+
+    /**
+     * Decodes the well-formed UTF-8 sequence starting at the given index.
+     *
+     * @param in the bytes to decode
+     * @param pos the index of the first byte of the sequence
+     * @param length the length of the sequence, as returned by {@link #sequenceLength(byte[], int, int)}
+     * @return the code point
+     */
+    static int decode(final byte[] in, final int pos, final int length) {
+        switch (length) {
+        case 1:
+            return in[pos];
+        case 2:
+            return (in[pos] & 0x1F) << 6 | in[pos + 1] & 0x3F;
+        case 3:
+            return (in[pos] & 0x0F) << 12 | (in[pos + 1] & 0x3F) << 6 | in[pos + 2] & 0x3F;
+        default:
+            return (in[pos] & 0x07) << 18 | (in[pos + 1] & 0x3F) << 12 | (in[pos + 2] & 0x3F) << 6 | in[pos + 3] & 0x3F;
+        }
+    }
+
+    /**
+     * Translated output written to a byte array, growing it as needed unless it is the
+     * backing array of a caller's buffer.
+     */
+    static final class Output {
+
+        private byte[] buffer;
+        private int position;
+        private final int limit;
+        /** A high surrogate written by {@link #writeChar(char)} and waiting for its low surrogate. */
+        private char pendingHigh;
+
+        Output(final byte[] buffer, final int position, final int limit) {
+            this.buffer = buffer;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        private void ensure(final int length) {
+            if (length > limit - position) {
+                throw new BufferOverflowException();
+            }
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+            }
+        }
+
+        void write(final byte b) {
+            flushPending();
+            ensure(1);
+            buffer[position++] = b;
+        }
+
+        void write(final byte[] bytes) {
+            write(bytes, 0, bytes.length);
+        }
+
+        void write(final byte[] bytes, final int offset, final int length) {
+            flushPending();
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        /**
+         * Writes {@code prefix} followed by the four upper case hex digits of {@code c}.
+         *
+         * @param prefix the first byte
+         * @param c the char to write the hex digits of
+         */
+        void writeHex(final byte prefix, final char c) {
+            ensure(6);
+            buffer[position++] = '\\';
+            buffer[position++] = prefix;
+            buffer[position++] = HEX_DIGITS[(c >> 12) & 15];
+            buffer[position++] = HEX_DIGITS[(c >> 8) & 15];
+            buffer[position++] = HEX_DIGITS[(c >> 4) & 15];
+            buffer[position++] = HEX_DIGITS[c & 15];
+        }
+
+        /**
+         * Writes a char encoded as UTF-8, pairing surrogates written one after the other
+         * and writing '?' for unpaired ones, as {@code String.getBytes} does.
+         *
+         * @param c the char to write
+         */
+        void writeChar(final char c) {
+            if (pendingHigh != 0) {
+                final char high = pendingHigh;
+                pendingHigh = 0;
+                if (Character.isLowSurrogate(c)) {
+                    writeCodePoint(Character.toCodePoint(high, c));
+                    return;
+                }
+                write((byte) '?');
+            }
+            if (Character.isHighSurrogate(c)) {
+                pendingHigh = c;
+            } else if (Character.isLowSurrogate(c)) {
+                write((byte) '?');
+            } else {
+                writeCodePoint(c);
+            }
+        }
+
+        private void writeCodePoint(final int codepoint) {
+            if (codepoint < 0x80) {
+                ensure(1);
+                buffer[position++] = (byte) codepoint;
+            } else if (codepoint < 0x800) {
+                ensure(2);
+                buffer[position++] = (byte) (0xC0 | codepoint >> 6);
+                buffer[position++] = (byte) (0x80 | codepoint & 0x3F);
+            } else if (codepoint < 0x10000) {
+                ensure(3);
+                buffer[position++] = (byte) (0xE0 | codepoint >> 12);
+                buffer[position++] = (byte) (0x80 | codepoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codepoint & 0x3F);
+            } else {
+                ensure(4);
+                buffer[position++] = (byte) (0xF0 | codepoint >> 18);
+                buffer[position++] = (byte) (0x80 | codepoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codepoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codepoint & 0x3F);
+            }
+        }
+
+        void flushPending() {
+            if (pendingHigh != 0) {
+                pendingHigh = 0;
+                ensure(1);
+                buffer[position++] = '?';
+            }
+        }
+    }
+
+    /**
+     * Base class of the escapers, which look up ASCII bytes in a table of replacements
+     * and leave multi-byte sequences to the subclass.
+     */
+    abstract static class Escaper extends Utf8Translator {
+
+        /** The replacement of each ASCII byte, {@code null} for bytes copied as is. */
+        private final byte[][] asciiReplacements;
+
+        Escaper(final byte[][] asciiReplacements) {
+            super(6);
+            this.asciiReplacements = asciiReplacements;
+        }
+
+        @Override
+        void translate(final byte[] in, final int start, final int end, final Output out) {
+            final byte[][] replacements = asciiReplacements;
+            int pos = start;
+            while (pos < end) {
+                int run = pos;
+                byte b;
+                while (run < end && (b = in[run]) >= 0 && replacements[b] == null) {
+                    run++;
+                }
+                if (run > pos) {
+                    out.write(in, pos, run - pos);
+                    pos = run;
+                    if (pos == end) {
+                        break;
+                    }
+                }
+                b = in[pos];
+                if (b >= 0) {
+                    out.write(replacements[b]);
+                    pos++;
+                } else {
+                    final int length = sequenceLength(in, pos, end);
+                    if (length < 0) {
+                        translate(0xFFFD, REPLACEMENT, 0, REPLACEMENT.length, out);
+                        pos -= length;
+                    } else {
+                        translate(decode(in, pos, length), in, pos, length, out);
+                        pos += length;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Translates a non-ASCII code point.
+         *
+         * @param codepoint the code point
+         * @param bytes the array holding its UTF-8 encoding
+         * @param offset the offset of the encoding
+         * @param length the length of the encoding
+         * @param out where to write the translated bytes
+         */
+        abstract void translate(int codepoint, byte[] bytes, int offset, int length, Output out);
+
+        static byte[] ascii(final String s) {
+            return s.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Escapes like {@code ESCAPE_JSON}: quotes, backslashes, slashes and control chars are
+     * escaped with a backslash and everything outside of ASCII as {@code \\uXXXX}.
+     */
+    static final class JsonEscaper extends Escaper {
+
+        JsonEscaper() {
+            super(replacements());
+        }
+
+        private static byte[][] replacements() {
+            final byte[][] replacements = new byte[128][];
+            for (int c = 0; c < 32; c++) {
+                replacements[c] = ascii(String.format("\\u%04X", c));
+            }
+            replacements['"'] = ascii("\\\"");
+            replacements['\\'] = ascii("\\\\");
+            replacements['/'] = ascii("\\/");
+            for (final String[] seq : EntityArrays.JAVA_CTRL_CHARS_ESCAPE()) {
+                replacements[seq[0].charAt(0)] = ascii(seq[1]);
+            }
+            return replacements;
+        }
+
+        @Override
+        void translate(final int codepoint, final byte[] bytes, final int offset, final int length, final Output out) {
+            if (codepoint > 0xFFFF) {
+                out.writeHex((byte) 'u', Character.highSurrogate(codepoint));
+                out.writeHex((byte) 'u', Character.lowSurrogate(codepoint));
+            } else {
+                out.writeHex((byte) 'u', (char) codepoint);
+            }
+        }
+    }
+
+    /**
+     * Escapes like {@code ESCAPE_XML10}: markup chars become entities, chars that are not
+     * allowed in XML 1.0 are removed and discouraged C1 controls become numeric entities.
+     */
+    static final class Xml10Escaper extends Escaper {
+
+        private static final byte[] EMPTY = new byte[0];
+
+        /** The numeric entities of the C1 controls, except NEL which is allowed. */
+        private static final byte[][] C1_ENTITIES = new byte[0xa0][];
+
+        static {
+            for (int c = 0x80; c <= 0x9f; c++) {
+                if (c != 0x85) {
+                    C1_ENTITIES[c] = ascii("&#" + c + ";");
+                }
+            }
+        }
+
+        Xml10Escaper() {
+            super(replacements());
+        }
+
+        private static byte[][] replacements() {
+            final byte[][] replacements = new byte[128][];
+            for (int c = 0; c < 32; c++) {
+                if (c != '\t' && c != '\n' && c != '\r') {
+                    replacements[c] = EMPTY;
+                }
+            }
+            for (final String[] seq : EntityArrays.BASIC_ESCAPE()) {
+                replacements[seq[0].charAt(0)] = ascii(seq[1]);
+            }
+            for (final String[] seq : EntityArrays.APOS_ESCAPE()) {
+                replacements[seq[0].charAt(0)] = ascii(seq[1]);
+            }
+            replacements[0x7f] = ascii("&#127;");
+            return replacements;
+        }
+
+        @Override
+        void translate(final int codepoint, final byte[] bytes, final int offset, final int length, final Output out) {
+            if (codepoint < C1_ENTITIES.length && C1_ENTITIES[codepoint] != null) {
+                out.write(C1_ENTITIES[codepoint]);
+            } else if (codepoint != 0xfffe && codepoint != 0xffff) {
+                out.write(bytes, offset, length);
+            }
+        }
+    }
+
+    /**
+     * Unescapes like {@code UNESCAPE_JAVA}: octal and unicode escapes, control char
+     * escapes and escaped backslashes and quotes. A backslash that starts none of these
+     * is dropped.
+     */
+    static final class JavaUnescaper extends Utf8Translator {
+
+        JavaUnescaper() {
+            // a malformed byte becomes a three byte U+FFFD
+            super(3);
+        }
+
+        @Override
+        void translate(final byte[] in, final int start, final int end, final Output out) {
+            int pos = start;
+            while (pos < end) {
+                int run = pos;
+                int malformed = 0;
+                while (run < end) {
+                    final byte b = in[run];
+                    if (b == '\\') {
+                        break;
+                    }
+                    if (b >= 0) {
+                        run++;
+                        continue;
+                    }
+                    final int length = sequenceLength(in, run, end);
+                    if (length < 0) {
+                        malformed = -length;
+                        break;
+                    }
+                    run += length;
+                }
+                if (run > pos) {
+                    out.write(in, pos, run - pos);
+                    pos = run;
+                }
+                if (malformed > 0) {
+                    out.write(REPLACEMENT);
+                    pos += malformed;
+                } else if (pos < end) {
+                    pos = unescape(in, pos, end, out);
+                }
+            }
+            out.flushPending();
+        }
+
+        /**
+         * Unescapes the escape sequence starting with the backslash at {@code pos}.
+         *
+         * @param in the bytes to translate
+         * @param pos the index of the backslash
+         * @param end the index after the last byte of the input
+         * @param out where to write the unescaped char
+         * @return the index after the escape sequence
+         */
+        private static int unescape(final byte[] in, final int pos, final int end, final Output out) {
+            if (pos + 1 == end) {
+                return end;
+            }
+            final byte next = in[pos + 1];
+            if (isOctalDigit(next)) {
+                int value = next - '0';
+                int length = 2;
+                if (pos + 2 < end && isOctalDigit(in[pos + 2])) {
+                    value = value * 8 + in[pos + 2] - '0';
+                    length++;
+                    if (pos + 3 < end && next <= '3' && isOctalDigit(in[pos + 3])) {
+                        value = value * 8 + in[pos + 3] - '0';
+                        length++;
+                    }
+                }
+                out.writeChar((char) value);
+                return pos + length;
+            }
+            switch (next) {
+            case 'u':
+                return unescapeUnicode(in, pos, end, out);
+            case 'b':
+                out.writeChar('\b');
+                return pos + 2;
+            case 'n':
+                out.writeChar('\n');
+                return pos + 2;
+            case 't':
+                out.writeChar('\t');
+                return pos + 2;
+            case 'f':
+                out.writeChar('\f');
+                return pos + 2;
+            case 'r':
+                out.writeChar('\r');
+                return pos + 2;
+            case '\\':
+            case '"':
+            case '\'':
+                out.writeChar((char) next);
+                return pos + 2;
+            default:
+                // a lone backslash is dropped
+                return pos + 1;
+            }
+        }
+
+        private static int unescapeUnicode(final byte[] in, final int pos, final int end, final Output out) {
+            int i = pos + 2;
+            while (i < end && in[i] == 'u') {
+                i++;
+            }
+            if (i < end && in[i] == '+') {
+                i++;
+            }
+            // the value is the next four chars, which are plain hex digits unless the input is broken
+            final char[] chars = new char[4];
+            int count = 0;
+            while (count < 4 && i < end) {
+                final int length = sequenceLength(in, i, end);
+                if (length < 0) {
+                    chars[count++] = '\uFFFD';
+                    i -= length;
+                } else {
+                    final int codepoint = decode(in, i, length);
+                    if (Character.isSupplementaryCodePoint(codepoint)) {
+                        chars[count++] = Character.highSurrogate(codepoint);
+                        if (count < 4) {
+                            chars[count++] = Character.lowSurrogate(codepoint);
+                        }
+                    } else {
+                        chars[count++] = (char) codepoint;
+                    }
+                    i += length;
+                }
+            }
+            if (count < 4) {
+                throw new IllegalArgumentException("Less than 4 hex digits in unicode value: '"
+                        + new String(in, pos, end - pos, StandardCharsets.UTF_8) + "' due to end of CharSequence");
+            }
+            final String unicode = new String(chars);
+            try {
+                out.writeChar((char) Integer.parseInt(unicode, 16));
+            } catch (final NumberFormatException nfe) {
+                throw new IllegalArgumentException("Unable to parse unicode value: " + unicode, nfe);
+            }
+            return i;
+        }
+
+        private static boolean isOctalDigit(final byte b) {
+            return b >= '0' && b <= '7';
+        }
+    }
+}
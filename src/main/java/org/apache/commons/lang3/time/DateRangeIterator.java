@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+
+/**
+ * <p>A lazy iterator over the dates of a range, given in milliseconds since the epoch.</p>
+ *
+ * <p>The dates are the start of the range and each date found by adding a multiple of
+ * the step to it in the time zone, up to but excluding the end of the range. The k-th date
+ * is always computed from the start, as by {@link Calendar#add(int, int)} with
+ * {@code k * amount}, so stepping a month from January 31st gives the last day of each
+ * following month. Steps of a fixed length are computed without a {@code Calendar}.</p>
+ *
+ * <p>The remaining dates can be split with {@link #trySplit()}, in the manner of a
+ * spliterator, so that the range can be processed in parallel. An iterator is not
+ * thread-safe, but the iterators created by splitting are independent of each other.</p>
+ *
+ * @see DateUtils#iterator(long, long, TimeZone, int, int)
+ * @since 3.8
+ */
+public class DateRangeIterator implements Iterator<Long> {
+
+    private final long start;
+    private final TimeZone timeZone;
+    private final int field;
+    private final int amount;
+
+    // the length of a step in milliseconds, or 0 if steps need a Calendar
+    private final long step;
+
+    // the index of the next date and the index after the last date
+    private long index;
+    private final long fence;
+
+    // created lazily, for steps that need it
+    private Calendar calendar;
+
+    DateRangeIterator(final long startMillis, final long endMillis, final TimeZone timeZone,
+            final int field, final int amount) {
+        if (timeZone == null) {
+            throw new IllegalArgumentException("The time zone must not be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("The amount must be positive: " + amount);
+        }
+        this.start = startMillis;
+        this.timeZone = timeZone;
+        this.field = field;
+        this.amount = amount;
+        this.step = fieldMillis(field, timeZone) * amount;
+        this.index = 0;
+        this.fence = count(endMillis);
+    }
+
+    private DateRangeIterator(final DateRangeIterator other, final long index, final long fence) {
+        this.start = other.start;
+        this.timeZone = other.timeZone;
+        this.field = other.field;
+        this.amount = other.amount;
+        this.step = other.step;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    // the fixed length of the field in the time zone, 0 if it has none
+    private static long fieldMillis(final int field, final TimeZone timeZone) {
+        switch (field) {
+            case Calendar.MILLISECOND:
+                return 1;
+            case Calendar.SECOND:
+                return DateUtils.MILLIS_PER_SECOND;
+            case Calendar.MINUTE:
+                return DateUtils.MILLIS_PER_MINUTE;
+            case Calendar.HOUR:
+            case Calendar.HOUR_OF_DAY:
+                return DateUtils.MILLIS_PER_HOUR;
+            case Calendar.DATE:
+            case Calendar.DAY_OF_YEAR:
+            case Calendar.DAY_OF_WEEK:
+                return FastTimeZone.isFixedOffset(timeZone) ? DateUtils.MILLIS_PER_DAY : 0;
+            case Calendar.WEEK_OF_YEAR:
+            case Calendar.WEEK_OF_MONTH:
+                return FastTimeZone.isFixedOffset(timeZone) ? 7 * DateUtils.MILLIS_PER_DAY : 0;
+            case Calendar.MONTH:
+            case Calendar.YEAR:
+                return 0;
+            default:
+                throw new IllegalArgumentException("The field " + field + " is not supported");
+        }
+    }
+
+    // the number of dates before the end, found by search for steps that need a Calendar
+    private long count(final long endMillis) {
+        if (endMillis <= start) {
+            return 0;
+        }
+        if (step != 0) {
+            final long span = endMillis - start;
+            if (span < 0) {
+                throw new IllegalArgumentException("The range is too long: " + start + " to " + endMillis);
+            }
+            return (span - 1) / step + 1;
+        }
+        long low = 0;
+        long high = 1;
+        while (millisAt(high) < endMillis) {
+            low = high;
+            high <<= 1;
+            if (high * amount > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The range is too long: " + start + " to " + endMillis);
+            }
+        }
+        // millisAt(low) < endMillis <= millisAt(high)
+        while (high - low > 1) {
+            final long mid = (low + high) >>> 1;
+            if (millisAt(mid) < endMillis) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    private long millisAt(final long k) {
+        if (step != 0) {
+            return start + k * step;
+        }
+        if (calendar == null) {
+            calendar = new GregorianCalendar(timeZone);
+        }
+        calendar.setTimeInMillis(start);
+        calendar.add(field, (int) (k * amount));
+        return calendar.getTimeInMillis();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return index < fence;
+    }
+
+    /**
+     * <p>Returns the next date, without boxing it.</p>
+     *
+     * @return the next date, in milliseconds since the epoch
+     * @throws NoSuchElementException if there are no more dates
+     */
+    public long nextMillis() {
+        if (index >= fence) {
+            throw new NoSuchElementException();
+        }
+        return millisAt(index++);
+    }
+
+    @Override
+    public Long next() {
+        return Long.valueOf(nextMillis());
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * <p>Gets the number of dates left.</p>
+     *
+     * @return the number of dates that {@link #nextMillis()} has still to return
+     */
+    public long remaining() {
+        return fence - index;
+    }
+
+    /**
+     * <p>Splits off the first half of the remaining dates.</p>
+     *
+     * <p>The returned iterator covers the first half, and this iterator goes on
+     * with the second half.</p>
+     *
+     * @return an iterator over the first half of the remaining dates, or
+     *  {@code null} if fewer than two dates remain
+     */
+    public DateRangeIterator trySplit() {
+        final long mid = index + (fence - index) / 2;
+        if (mid == index) {
+            return null;
+        }
+        final DateRangeIterator prefix = new DateRangeIterator(this, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+}
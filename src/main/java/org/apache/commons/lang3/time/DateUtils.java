@@ -20,11 +20,16 @@
 import java.text.ParsePosition;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.commons.lang3.Validate;
 
@@ -424,6 +429,305 @@ public static Date ceiling(final Object date, final int field) {
 
     //-----------------------------------------------------------------------
     
+    public static long truncate(final long millis, final TimeZone timeZone, final int field) {
+        return modify(millis, timeZone, field, ModifyType.TRUNCATE);
+    }
+
+    
+    public static long round(final long millis, final TimeZone timeZone, final int field) {
+        return modify(millis, timeZone, field, ModifyType.ROUND);
+    }
+
+    
+    public static long ceiling(final long millis, final TimeZone timeZone, final int field) {
+        return modify(millis, timeZone, field, ModifyType.CEILING);
+    }
+
+    //-----------------------------------------------------------------------
+    // the start of 1583, the first year a GregorianCalendar keeps whole with its default cutover
+    private static final long YEAR_1583_MILLIS = -12212553600000L;
+    // the start of 10000
+    private static final long YEAR_10000_MILLIS = 253402300800000L;
+    // days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar
+    private static final long DAYS_0000_TO_1970 = 719468;
+    // marks a date that cannot be modified without a Calendar
+    private static final long NOT_COMPUTED = Long.MIN_VALUE;
+    // how far from an offset change a modified date and all the dates between it and the original
+    // must be, so that none of them is a local time the change skips or repeats
+    private static final long TRANSITION_MARGIN = 2 * MILLIS_PER_DAY;
+
+    private static long modify(final long millis, final TimeZone timeZone, final int field, final ModifyType modType) {
+        Validate.isTrue(timeZone != null, "The time zone must not be null");
+        final long modified = modifyWithoutCalendar(millis, timeZone, field, modType);
+        if (modified != NOT_COMPUTED) {
+            return modified;
+        }
+        final Calendar calendar = new GregorianCalendar(timeZone);
+        calendar.setTimeInMillis(millis);
+        modify(calendar, field, modType);
+        return calendar.getTimeInMillis();
+    }
+
+    // modifies the date with arithmetic on its local time, or returns NOT_COMPUTED
+    private static long modifyWithoutCalendar(final long millis, final TimeZone timeZone, final int field,
+            final ModifyType modType) {
+        if (millis < YEAR_1583_MILLIS + MILLIS_PER_DAY || millis >= YEAR_10000_MILLIS - MILLIS_PER_DAY) {
+            return NOT_COMPUTED;
+        }
+        final int offset;
+        final long start;
+        final long end;
+        if (FastTimeZone.isFixedOffset(timeZone)) {
+            offset = timeZone.getRawOffset();
+            start = Long.MIN_VALUE;
+            end = Long.MAX_VALUE;
+        } else if (FastTimeZone.isJdkZone(timeZone)) {
+            final OffsetWindow window = OffsetWindow.of(timeZone, millis);
+            if (window == null) {
+                return NOT_COMPUTED;
+            }
+            offset = window.offset;
+            start = window.start + TRANSITION_MARGIN;
+            end = window.end - TRANSITION_MARGIN;
+        } else {
+            return NOT_COMPUTED;
+        }
+
+        final long local = millis + offset;
+        final long days = floorDiv(local, MILLIS_PER_DAY);
+        final int timeOfDay = (int) (local - days * MILLIS_PER_DAY);
+        final int hour = timeOfDay / (int) MILLIS_PER_HOUR;
+        // the local start of the truncated field and of the one after it
+        final long floor;
+        final long next;
+        final boolean roundUp;
+        // the earliest local time the Calendar passes through
+        long earliest = Long.MAX_VALUE;
+        switch (field) {
+            case Calendar.MILLISECOND:
+                return millis;
+            case Calendar.SECOND:
+                floor = local - timeOfDay % MILLIS_PER_SECOND;
+                next = floor + MILLIS_PER_SECOND;
+                roundUp = timeOfDay % MILLIS_PER_SECOND >= 500;
+                break;
+            case Calendar.MINUTE:
+                floor = local - timeOfDay % MILLIS_PER_MINUTE;
+                next = floor + MILLIS_PER_MINUTE;
+                roundUp = timeOfDay % MILLIS_PER_MINUTE / MILLIS_PER_SECOND >= 30;
+                break;
+            case Calendar.HOUR_OF_DAY:
+            case Calendar.HOUR:
+                floor = local - timeOfDay % MILLIS_PER_HOUR;
+                next = floor + MILLIS_PER_HOUR;
+                roundUp = timeOfDay % MILLIS_PER_HOUR / MILLIS_PER_MINUTE >= 30;
+                break;
+            case Calendar.AM_PM:
+                floor = days * MILLIS_PER_DAY + (hour >= 12 ? 12 * MILLIS_PER_HOUR : 0);
+                next = floor + 12 * MILLIS_PER_HOUR;
+                roundUp = hour % 12 >= 6;
+                break;
+            case Calendar.DATE:
+                floor = days * MILLIS_PER_DAY;
+                next = floor + MILLIS_PER_DAY;
+                roundUp = hour >= 12;
+                break;
+            case DateUtils.SEMI_MONTH:
+            case Calendar.MONTH:
+            case Calendar.YEAR:
+                // Howard Hinnant's civil_from_days, on years starting in March
+                final long z = days + DAYS_0000_TO_1970;
+                final long era = z / 146097;
+                final int dayOfEra = (int) (z - era * 146097);
+                final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+                final int dayOfMarchYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+                final int marchMonth = (5 * dayOfMarchYear + 2) / 153;
+                final int month = marchMonth < 10 ? marchMonth + 2 : marchMonth - 10;
+                final int year = (int) (era * 400) + yearOfEra + (month < Calendar.MARCH ? 1 : 0);
+                final int dayOfMonth = dayOfMarchYear - (153 * marchMonth + 2) / 5 + 1;
+                if (field == Calendar.YEAR) {
+                    floor = daysFromCivil(year, Calendar.JANUARY, 1) * MILLIS_PER_DAY;
+                    next = daysFromCivil(year + 1, Calendar.JANUARY, 1) * MILLIS_PER_DAY;
+                    roundUp = month > 5;
+                } else {
+                    final long firstOfMonth = days - dayOfMonth + 1;
+                    final long firstOfNextMonth = daysFromCivil(year, month + 1, 1);
+                    if (field == Calendar.MONTH) {
+                        floor = firstOfMonth * MILLIS_PER_DAY;
+                        next = firstOfNextMonth * MILLIS_PER_DAY;
+                        roundUp = dayOfMonth - 1 > (int) (firstOfNextMonth - firstOfMonth - 1) / 2;
+                    } else if (dayOfMonth < 16) {
+                        floor = firstOfMonth * MILLIS_PER_DAY;
+                        next = (firstOfMonth + 15) * MILLIS_PER_DAY;
+                        roundUp = dayOfMonth - 1 > 7;
+                    } else {
+                        floor = (firstOfMonth + 15) * MILLIS_PER_DAY;
+                        next = firstOfNextMonth * MILLIS_PER_DAY;
+                        roundUp = dayOfMonth - 16 > 7;
+                        // which goes back to the first of the month on its way to the next
+                        earliest = firstOfMonth * MILLIS_PER_DAY;
+                    }
+                }
+                break;
+            case Calendar.ERA:
+                return NOT_COMPUTED;
+            default:
+                throw new IllegalArgumentException("The field " + field + " is not supported");
+        }
+        if (Math.min(floor, earliest) - offset < start || next - offset >= end) {
+            return NOT_COMPUTED;
+        }
+        if (modType == ModifyType.CEILING || modType == ModifyType.ROUND && roundUp) {
+            return next - offset;
+        }
+        return floor - offset;
+    }
+
+    // days since the epoch of a proleptic Gregorian date, with a month from 0 to 12
+    private static long daysFromCivil(final int year, final int month, final int dayOfMonth) {
+        // Howard Hinnant's days_from_civil, on years starting in March
+        final int y = month < Calendar.MARCH ? year - 1 : year;
+        final int era = y / 400;
+        final int yearOfEra = y - era * 400;
+        final int marchMonth = month < Calendar.MARCH ? month + 10 : month - 2;
+        final int dayOfYear = (153 * marchMonth + 2) / 5 + dayOfMonth - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static long floorDiv(final long dividend, final long divisor) {
+        final long quotient = dividend / divisor;
+        return dividend % divisor < 0 ? quotient - 1 : quotient;
+    }
+
+    // A span of time over which a zone keeps one offset, found by probing the zone hourly
+    // and bisecting at the first change. A few are kept per zone, as dates tend to stay
+    // close or to come back to the same seasons. Probing costs about as much as a hundred
+    // Calendar computations, so once they are all taken only a few misses probe for a
+    // window to replace one with, and the others go through a Calendar.
+    private static final class OffsetWindow {
+        // how far the probing goes each way
+        private static final long HORIZON = 64 * MILLIS_PER_DAY;
+        // the probing step; offset changes that revert within it are not seen
+        private static final long STEP = MILLIS_PER_HOUR;
+        // how many windows are kept per zone, a power of 2
+        private static final int WINDOWS_PER_ZONE = 16;
+        // one in how many misses probes once the windows of a zone are all taken, a power of 2
+        private static final int PROBE_RATE = 256;
+
+        private static final ConcurrentMap<TimeZone, ZoneWindows> WINDOWS = new ConcurrentHashMap<>();
+
+        // the first millisecond with the offset
+        final long start;
+        // the first millisecond after the window
+        final long end;
+        final int offset;
+        // whether the window ends at an offset change rather than the horizon
+        final boolean changeAtStart;
+        final boolean changeAtEnd;
+
+        private OffsetWindow(final long start, final long end, final int offset, final boolean changeAtStart,
+                final boolean changeAtEnd) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+            this.changeAtStart = changeAtStart;
+            this.changeAtEnd = changeAtEnd;
+        }
+
+        // the window around the millis, or null if the date is better modified with a Calendar
+        static OffsetWindow of(final TimeZone timeZone, final long millis) {
+            ZoneWindows zoneWindows = WINDOWS.get(timeZone);
+            if (zoneWindows == null) {
+                // zones are mutable, so key on a copy
+                final ZoneWindows created = new ZoneWindows();
+                zoneWindows = WINDOWS.putIfAbsent((TimeZone) timeZone.clone(), created);
+                if (zoneWindows == null) {
+                    zoneWindows = created;
+                }
+            }
+            final AtomicReferenceArray<OffsetWindow> windows = zoneWindows.windows;
+            int slot = -1;
+            for (int i = 0; i < WINDOWS_PER_ZONE; i++) {
+                final OffsetWindow window = windows.get(i);
+                if (window == null) {
+                    slot = i;
+                    break;
+                }
+                if (window.covers(millis)) {
+                    return window;
+                }
+            }
+            if (slot < 0) {
+                if ((zoneWindows.misses.incrementAndGet() & (PROBE_RATE - 1)) != 0) {
+                    return null;
+                }
+                // replace a window picked by the date so that the windows of other seasons tend to stay
+                slot = (int) (floorDiv(millis, HORIZON) & (WINDOWS_PER_ZONE - 1));
+            }
+            final OffsetWindow window = find(timeZone, millis);
+            windows.set(slot, window);
+            return window;
+        }
+
+        // whether the millis are in the window and, where it stops at the horizon, well inside it
+        private boolean covers(final long millis) {
+            return millis >= (changeAtStart ? start : start + HORIZON / 2)
+                    && millis < (changeAtEnd ? end : end - HORIZON / 2);
+        }
+
+        private static OffsetWindow find(final TimeZone timeZone, final long millis) {
+            final int offset = timeZone.getOffset(millis);
+            long start = millis - HORIZON;
+            boolean changeAtStart = false;
+            for (long probe = millis; probe > millis - HORIZON; probe -= STEP) {
+                if (timeZone.getOffset(probe - STEP) != offset) {
+                    long before = probe - STEP;
+                    long after = probe;
+                    while (after - before > 1) {
+                        final long middle = before + (after - before) / 2;
+                        if (timeZone.getOffset(middle) == offset) {
+                            after = middle;
+                        } else {
+                            before = middle;
+                        }
+                    }
+                    start = after;
+                    changeAtStart = true;
+                    break;
+                }
+            }
+            long end = millis + HORIZON;
+            boolean changeAtEnd = false;
+            for (long probe = millis; probe < millis + HORIZON; probe += STEP) {
+                if (timeZone.getOffset(probe + STEP) != offset) {
+                    long before = probe;
+                    long after = probe + STEP;
+                    while (after - before > 1) {
+                        final long middle = before + (after - before) / 2;
+                        if (timeZone.getOffset(middle) == offset) {
+                            before = middle;
+                        } else {
+                            after = middle;
+                        }
+                    }
+                    end = after;
+                    changeAtEnd = true;
+                    break;
+                }
+            }
+            return new OffsetWindow(start, end, offset, changeAtStart, changeAtEnd);
+        }
+    }
+
+    // the offset windows kept for a zone, with the number of times none of them covered a date
+    private static final class ZoneWindows {
+        final AtomicReferenceArray<OffsetWindow> windows = new AtomicReferenceArray<>(OffsetWindow.WINDOWS_PER_ZONE);
+        final AtomicInteger misses = new AtomicInteger();
+    }
+
+    //-----------------------------------------------------------------------
+    
     private static void modify(final Calendar val, final int field, final ModifyType modType) {
         if (val.get(Calendar.YEAR) > 280000000) {
             throw new ArithmeticException("Calendar value too large for accurate calculations");
@@ -663,6 +967,12 @@ public static Iterator<?> iterator(final Object focus, final int rangeStyle) {
     }
 
     
+    public static DateRangeIterator iterator(final long startMillis, final long endMillis,
+            final TimeZone timeZone, final int field, final int amount) {
+        return new DateRangeIterator(startMillis, endMillis, timeZone, field, amount);
+    }
+
+    
     public static long getFragmentInMilliseconds(final Date date, final int fragment) {
         return getFragment(date, fragment, TimeUnit.MILLISECONDS);
     }
@@ -790,6 +1100,18 @@ public static int truncatedCompareTo(final Date date1, final Date date2, final i
         return truncatedDate1.compareTo(truncatedDate2);
     }
 
+    
+    public static boolean truncatedEquals(final long millis1, final long millis2, final TimeZone timeZone, final int field) {
+        return truncatedCompareTo(millis1, millis2, timeZone, field) == 0;
+    }
+
+    
+    public static int truncatedCompareTo(final long millis1, final long millis2, final TimeZone timeZone, final int field) {
+        final long truncated1 = truncate(millis1, timeZone, field);
+        final long truncated2 = truncate(millis2, timeZone, field);
+        return truncated1 < truncated2 ? -1 : truncated1 == truncated2 ? 0 : 1;
+    }
+
     private static void validateDateNotNull(final Date date) {
         Validate.isTrue(date != null, "The date must not be null");
     }
@@ -39,12 +39,12 @@ public DurationFormatUtils() {
     //-----------------------------------------------------------------------
     
     public static String formatDurationHMS(final long durationMillis) {
-        return formatDuration(durationMillis, "HH:mm:ss.SSS");
+        return DurationFormatter.HMS.format(durationMillis);
     }
 
     
     public static String formatDurationISO(final long durationMillis) {
-        return formatDuration(durationMillis, ISO_EXTENDED_FORMAT_PATTERN, false);
+        return DurationFormatter.ISO_EXTENDED.format(durationMillis);
     }
 
     
@@ -56,32 +56,7 @@ public static String formatDuration(final long durationMillis, final String form
     public static String formatDuration(final long durationMillis, final String format, final boolean padWithZeros) {
         Validate.inclusiveBetween(0, Long.MAX_VALUE, durationMillis, "durationMillis must not be negative");
 
-        final Token[] tokens = lexx(format);
-
-        long days         = 0;
-        long hours        = 0;
-        long minutes      = 0;
-        long seconds      = 0;
-        long milliseconds = durationMillis;
-
-        if (Token.containsTokenWithValue(tokens, d) ) {
-            days = milliseconds / DateUtils.MILLIS_PER_DAY;
-            milliseconds = milliseconds - (days * DateUtils.MILLIS_PER_DAY);
-        }
-        if (Token.containsTokenWithValue(tokens, H) ) {
-            hours = milliseconds / DateUtils.MILLIS_PER_HOUR;
-            milliseconds = milliseconds - (hours * DateUtils.MILLIS_PER_HOUR);
-        }
-        if (Token.containsTokenWithValue(tokens, m) ) {
-            minutes = milliseconds / DateUtils.MILLIS_PER_MINUTE;
-            milliseconds = milliseconds - (minutes * DateUtils.MILLIS_PER_MINUTE);
-        }
-        if (Token.containsTokenWithValue(tokens, s) ) {
-            seconds = milliseconds / DateUtils.MILLIS_PER_SECOND;
-            milliseconds = milliseconds - (seconds * DateUtils.MILLIS_PER_SECOND);
-        }
-
-        return format(tokens, 0, 0, days, hours, minutes, seconds, milliseconds, padWithZeros);
+        return new DurationFormatter(format, padWithZeros).format(durationMillis);
     }
 
     
@@ -90,54 +65,49 @@ public static String formatDurationWords(
         final boolean suppressLeadingZeroElements,
         final boolean suppressTrailingZeroElements) {
 
-        // This method is generally replaceable by the format method, but
-        // there are a series of tweaks and special cases that require
-        // trickery to replicate.
-        String duration = formatDuration(durationMillis, "d' days 'H' hours 'm' minutes 's' seconds'");
+        Validate.inclusiveBetween(0, Long.MAX_VALUE, durationMillis, "durationMillis must not be negative");
+
+        final long[] values = new long[WORD_UNITS.length];
+        long milliseconds = durationMillis;
+        values[0] = milliseconds / DateUtils.MILLIS_PER_DAY;
+        milliseconds -= values[0] * DateUtils.MILLIS_PER_DAY;
+        values[1] = milliseconds / DateUtils.MILLIS_PER_HOUR;
+        milliseconds -= values[1] * DateUtils.MILLIS_PER_HOUR;
+        values[2] = milliseconds / DateUtils.MILLIS_PER_MINUTE;
+        milliseconds -= values[2] * DateUtils.MILLIS_PER_MINUTE;
+        values[3] = milliseconds / DateUtils.MILLIS_PER_SECOND;
+
+        // Leading zero days, hours and minutes may be dropped, but the seconds
+        // always stay. Trailing zero elements may be dropped back to, but not
+        // including, the first element that is left.
+        int first = 0;
         if (suppressLeadingZeroElements) {
-            // this is a temporary marker on the front. Like ^ in regexp.
-            duration = " " + duration;
-            String tmp = StringUtils.replaceOnce(duration, " 0 days", StringUtils.EMPTY);
-            if (tmp.length() != duration.length()) {
-                duration = tmp;
-                tmp = StringUtils.replaceOnce(duration, " 0 hours", StringUtils.EMPTY);
-                if (tmp.length() != duration.length()) {
-                    duration = tmp;
-                    tmp = StringUtils.replaceOnce(duration, " 0 minutes", StringUtils.EMPTY);
-                    duration = tmp;
-                    if (tmp.length() != duration.length()) {
-                        duration = StringUtils.replaceOnce(tmp, " 0 seconds", StringUtils.EMPTY);
-                    }
-                }
-            }
-            if (duration.length() != 0) {
-                // strip the space off again
-                duration = duration.substring(1);
+            while (first < values.length - 1 && values[first] == 0) {
+                first++;
             }
         }
+        int last = values.length - 1;
         if (suppressTrailingZeroElements) {
-            String tmp = StringUtils.replaceOnce(duration, " 0 seconds", StringUtils.EMPTY);
-            if (tmp.length() != duration.length()) {
-                duration = tmp;
-                tmp = StringUtils.replaceOnce(duration, " 0 minutes", StringUtils.EMPTY);
-                if (tmp.length() != duration.length()) {
-                    duration = tmp;
-                    tmp = StringUtils.replaceOnce(duration, " 0 hours", StringUtils.EMPTY);
-                    if (tmp.length() != duration.length()) {
-                        duration = StringUtils.replaceOnce(tmp, " 0 days", StringUtils.EMPTY);
-                    }
-                }
+            while (last > first && values[last] == 0) {
+                last--;
             }
         }
-        // handle plurals
-        duration = " " + duration;
-        duration = StringUtils.replaceOnce(duration, " 1 seconds", " 1 second");
-        duration = StringUtils.replaceOnce(duration, " 1 minutes", " 1 minute");
-        duration = StringUtils.replaceOnce(duration, " 1 hours", " 1 hour");
-        duration = StringUtils.replaceOnce(duration, " 1 days", " 1 day");
-        return duration.trim();
+
+        final StringBuilder buffer = new StringBuilder(48);
+        for (int i = first; i <= last; i++) {
+            if (i > first) {
+                buffer.append(' ');
+            }
+            buffer.append(values[i]).append(' ').append(WORD_UNITS[i]);
+            if (values[i] != 1) {
+                buffer.append('s');
+            }
+        }
+        return buffer.toString();
     }
 
+    private static final String[] WORD_UNITS = {"day", "hour", "minute", "second"};
+
     //-----------------------------------------------------------------------
     
     public static String formatPeriodISO(final long startMillis, final long endMillis) {
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A formatter of durations, with the format compiled once.</p>
+ *
+ * <p>The format is that of {@link DurationFormatUtils#formatDuration(long, String, boolean)},
+ * and formatting gives the same text. Instances are immutable and thread-safe, so a
+ * formatter can be kept in a constant and shared.</p>
+ *
+ * @since 3.8
+ */
+public class DurationFormatter {
+
+    // the kinds of rule, the fields in the order of the format letters
+    private static final int YEARS = 0;
+    private static final int MONTHS = 1;
+    private static final int DAYS = 2;
+    private static final int HOURS = 3;
+    private static final int MINUTES = 4;
+    private static final int SECONDS = 5;
+    private static final int MILLIS = 6;
+    // milliseconds straight after seconds, which always show at least 3 digits
+    private static final int MILLIS_AFTER_SECONDS = 7;
+    private static final int LITERAL = 8;
+
+    static final DurationFormatter HMS = new DurationFormatter("HH:mm:ss.SSS", true);
+    static final DurationFormatter ISO_EXTENDED =
+            new DurationFormatter(DurationFormatUtils.ISO_EXTENDED_FORMAT_PATTERN, false);
+
+    private final String format;
+    private final boolean padWithZeros;
+
+    private final int[] kinds;
+    private final int[] counts;
+    private final String[] literals;
+
+    // which of the fields the duration is divided into
+    private final boolean hasDays;
+    private final boolean hasHours;
+    private final boolean hasMinutes;
+    private final boolean hasSeconds;
+
+    private final int estimatedLength;
+
+    DurationFormatter(final String format, final boolean padWithZeros) {
+        Validate.notNull(format, "format must not be null");
+        this.format = format;
+        this.padWithZeros = padWithZeros;
+        final DurationFormatUtils.Token[] tokens = DurationFormatUtils.lexx(format);
+        kinds = new int[tokens.length];
+        counts = new int[tokens.length];
+        literals = new String[tokens.length];
+        boolean lastSeconds = false;
+        int length = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            final Object value = tokens[i].getValue();
+            counts[i] = tokens[i].getCount();
+            if (value instanceof StringBuilder) {
+                kinds[i] = LITERAL;
+                literals[i] = value.toString();
+                length += literals[i].length();
+                continue;
+            }
+            final int kind = kindOf(value);
+            kinds[i] = kind == MILLIS && lastSeconds ? MILLIS_AFTER_SECONDS : kind;
+            lastSeconds = kind == SECONDS;
+            length += Math.max(counts[i], 3);
+        }
+        hasDays = DurationFormatUtils.Token.containsTokenWithValue(tokens, DurationFormatUtils.d);
+        hasHours = DurationFormatUtils.Token.containsTokenWithValue(tokens, DurationFormatUtils.H);
+        hasMinutes = DurationFormatUtils.Token.containsTokenWithValue(tokens, DurationFormatUtils.m);
+        hasSeconds = DurationFormatUtils.Token.containsTokenWithValue(tokens, DurationFormatUtils.s);
+        estimatedLength = length;
+    }
+
+    private static int kindOf(final Object value) {
+        if (value == DurationFormatUtils.y) {
+            return YEARS;
+        } else if (value == DurationFormatUtils.M) {
+            return MONTHS;
+        } else if (value == DurationFormatUtils.d) {
+            return DAYS;
+        } else if (value == DurationFormatUtils.H) {
+            return HOURS;
+        } else if (value == DurationFormatUtils.m) {
+            return MINUTES;
+        } else if (value == DurationFormatUtils.s) {
+            return SECONDS;
+        }
+        return MILLIS;
+    }
+
+    /**
+     * <p>Gets a formatter for the format, padding values with zeros.</p>
+     *
+     * @param format  the format to use, as for {@link DurationFormatUtils#formatDuration(long, String)}
+     * @return the formatter, not null
+     * @throws NullPointerException if the format is null
+     * @throws IllegalArgumentException if the format has an unmatched quote
+     */
+    public static DurationFormatter getInstance(final String format) {
+        return new DurationFormatter(format, true);
+    }
+
+    /**
+     * <p>Gets a formatter for the format.</p>
+     *
+     * @param format  the format to use, as for {@link DurationFormatUtils#formatDuration(long, String)}
+     * @param padWithZeros  whether to pad the left hand side of numbers with 0's
+     * @return the formatter, not null
+     * @throws NullPointerException if the format is null
+     * @throws IllegalArgumentException if the format has an unmatched quote
+     */
+    public static DurationFormatter getInstance(final String format, final boolean padWithZeros) {
+        return new DurationFormatter(format, padWithZeros);
+    }
+
+    /**
+     * <p>Formats a duration.</p>
+     *
+     * @param durationMillis  the duration to format, in milliseconds
+     * @return the formatted duration, not null
+     * @throws IllegalArgumentException if the duration is negative
+     */
+    public String format(final long durationMillis) {
+        return format(durationMillis, new StringBuilder(estimatedLength)).toString();
+    }
+
+    /**
+     * <p>Formats a duration into a {@code StringBuilder}.</p>
+     *
+     * @param durationMillis  the duration to format, in milliseconds
+     * @param buffer  the buffer to append to, not null
+     * @return the buffer
+     * @throws IllegalArgumentException if the duration is negative
+     */
+    public StringBuilder format(final long durationMillis, final StringBuilder buffer) {
+        Validate.inclusiveBetween(0, Long.MAX_VALUE, durationMillis, "durationMillis must not be negative");
+
+        long days = 0;
+        long hours = 0;
+        long minutes = 0;
+        long seconds = 0;
+        long milliseconds = durationMillis;
+
+        if (hasDays) {
+            days = milliseconds / DateUtils.MILLIS_PER_DAY;
+            milliseconds -= days * DateUtils.MILLIS_PER_DAY;
+        }
+        if (hasHours) {
+            hours = milliseconds / DateUtils.MILLIS_PER_HOUR;
+            milliseconds -= hours * DateUtils.MILLIS_PER_HOUR;
+        }
+        if (hasMinutes) {
+            minutes = milliseconds / DateUtils.MILLIS_PER_MINUTE;
+            milliseconds -= minutes * DateUtils.MILLIS_PER_MINUTE;
+        }
+        if (hasSeconds) {
+            seconds = milliseconds / DateUtils.MILLIS_PER_SECOND;
+            milliseconds -= seconds * DateUtils.MILLIS_PER_SECOND;
+        }
+
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case YEARS:
+                case MONTHS:
+                    appendPadded(buffer, 0, padWithZeros, counts[i]);
+                    break;
+                case DAYS:
+                    appendPadded(buffer, days, padWithZeros, counts[i]);
+                    break;
+                case HOURS:
+                    appendPadded(buffer, hours, padWithZeros, counts[i]);
+                    break;
+                case MINUTES:
+                    appendPadded(buffer, minutes, padWithZeros, counts[i]);
+                    break;
+                case SECONDS:
+                    appendPadded(buffer, seconds, padWithZeros, counts[i]);
+                    break;
+                case MILLIS:
+                    appendPadded(buffer, milliseconds, padWithZeros, counts[i]);
+                    break;
+                case MILLIS_AFTER_SECONDS:
+                    appendPadded(buffer, milliseconds, true, padWithZeros ? Math.max(3, counts[i]) : 3);
+                    break;
+                default:
+                    buffer.append(literals[i]);
+                    break;
+            }
+        }
+        return buffer;
+    }
+
+    // appends the value, padded as by StringUtils.leftPad(Long.toString(value), count, '0')
+    private static void appendPadded(final StringBuilder buffer, final long value, final boolean padWithZeros,
+            final int count) {
+        if (padWithZeros) {
+            for (int digits = stringSize(value); digits < count; digits++) {
+                buffer.append('0');
+            }
+        }
+        buffer.append(value);
+    }
+
+    // the length of Long.toString(value)
+    private static int stringSize(final long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int size = 1;
+        long rest = value;
+        if (rest < 0) {
+            size++;
+            rest = -rest;
+        }
+        while (rest >= 10) {
+            rest /= 10;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * <p>Gets the format of this formatter.</p>
+     *
+     * @return the format
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * <p>Gets whether this formatter pads numbers with zeros.</p>
+     *
+     * @return {@code true} if numbers are padded
+     */
+    public boolean isPadWithZeros() {
+        return padWithZeros;
+    }
+
+    @Override
+    public String toString() {
+        return "DurationFormatter[" + format + "]";
+    }
+
+}
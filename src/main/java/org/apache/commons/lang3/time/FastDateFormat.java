@@ -52,6 +52,15 @@ protected FastDateFormat createInstance(final String pattern, final TimeZone tim
         }
     };
 
+    // the instances of getCachingInstance, kept apart from the others; each of the two caches is bounded
+    // by the maximum size, and the cache statistics are those of both
+    private static final FormatCache<FastDateFormat> cachingCache = new FormatCache<FastDateFormat>() {
+        @Override
+        protected FastDateFormat createInstance(final String pattern, final TimeZone timeZone, final Locale locale) {
+            return new FastDateFormat(pattern, timeZone, locale, null, true);
+        }
+    };
+
     private final FastDatePrinter printer;
     private final FastDateParser parser;
 
@@ -81,6 +90,11 @@ public static FastDateFormat getInstance(final String pattern, final TimeZone ti
         return cache.getInstance(pattern, timeZone, locale);
     }
 
+    
+    public static FastDateFormat getCachingInstance(final String pattern, final TimeZone timeZone, final Locale locale) {
+        return cachingCache.getInstance(pattern, timeZone, locale);
+    }
+
     //-----------------------------------------------------------------------
     
     public static FastDateFormat getDateInstance(final int style) {
@@ -144,6 +158,38 @@ public static FastDateFormat getDateTimeInstance(
         return cache.getDateTimeInstance(dateStyle, timeStyle, timeZone, locale);
     }
 
+    //-----------------------------------------------------------------------
+    
+    public static void setCacheMaximumSize(final int maximumSize) {
+        cache.setMaximumSize(maximumSize);
+        cachingCache.setMaximumSize(maximumSize);
+    }
+
+    
+    public static int getCacheMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    
+    public static int getCacheSize() {
+        return cache.size() + cachingCache.size();
+    }
+
+    
+    public static long getCacheHitCount() {
+        return cache.getHitCount() + cachingCache.getHitCount();
+    }
+
+    
+    public static long getCacheMissCount() {
+        return cache.getMissCount() + cachingCache.getMissCount();
+    }
+
+    
+    public static long getCacheEvictionCount() {
+        return cache.getEvictionCount() + cachingCache.getEvictionCount();
+    }
+
     // Constructor
     //-----------------------------------------------------------------------
     
@@ -155,7 +201,13 @@ protected FastDateFormat(final String pattern, final TimeZone timeZone, final Lo
     //-----------------------------------------------------------------------
     
     protected FastDateFormat(final String pattern, final TimeZone timeZone, final Locale locale, final Date centuryStart) {
-        printer= new FastDatePrinter(pattern, timeZone, locale);
+        this(pattern, timeZone, locale, centuryStart, false);
+    }
+
+    
+    protected FastDateFormat(final String pattern, final TimeZone timeZone, final Locale locale, final Date centuryStart,
+            final boolean cacheSeconds) {
+        printer= new FastDatePrinter(pattern, timeZone, locale, cacheSeconds);
         parser= new FastDateParser(pattern, timeZone, locale, centuryStart);
     }
 
@@ -224,6 +276,11 @@ public <B extends Appendable> B format(final Calendar calendar, final B buf) {
         return printer.format(calendar, buf);
     }
 
+    
+    public int format(final long millis, final char[] buffer, final int offset) {
+        return printer.format(millis, buffer, offset);
+    }
+
     // Parsing
     //-----------------------------------------------------------------------
 
@@ -247,6 +304,31 @@ public boolean parse(final String source, final ParsePosition pos, final Calenda
     }
 
     
+    public boolean parse(final CharSequence source, final ParsePosition pos, final Calendar calendar) {
+        return parser.parse(source, pos, calendar);
+    }
+
+    
+    public boolean parse(final CharSequence source, final int offset, final int length, final Calendar calendar) {
+        return parser.parse(source, offset, length, calendar);
+    }
+
+    
+    public boolean parse(final char[] source, final int offset, final int length, final Calendar calendar) {
+        return parser.parse(source, offset, length, calendar);
+    }
+
+    
+    public long parseMillis(final CharSequence source, final int offset, final int length) throws ParseException {
+        return parser.parseMillis(source, offset, length);
+    }
+
+    
+    public long parseMillis(final char[] source, final int offset, final int length) throws ParseException {
+        return parser.parseMillis(source, offset, length);
+    }
+
+    
     @Override
     public Object parseObject(final String source, final ParsePosition pos) {
         return parser.parseObject(source, pos);
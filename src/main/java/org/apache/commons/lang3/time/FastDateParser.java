@@ -19,25 +19,24 @@
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.CharBuffer;
 import java.text.DateFormatSymbols;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 import java.util.TimeZone;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 public class FastDateParser implements DateParser, Serializable {
@@ -47,6 +46,14 @@ public class FastDateParser implements DateParser, Serializable {
 
     static final Locale JAPANESE_IMPERIAL = new Locale("ja","JP","JP");
 
+    private static final int EPOCH_YEAR = 1970;
+    // years up to this one may be Julian in a default GregorianCalendar
+    private static final int GREGORIAN_CUTOVER_YEAR = 1582;
+    private static final int MAX_ARITHMETIC_YEAR = 1000000;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    // days from March 1, 0000 to January 1, 1970 in the proleptic Gregorian calendar
+    private static final long DAYS_0000_TO_1970 = 719468;
+
     // defining fields
     private final String pattern;
     private final TimeZone timeZone;
@@ -56,16 +63,8 @@ public class FastDateParser implements DateParser, Serializable {
 
     // derived fields
     private transient List<StrategyAndWidth> patterns;
-
-    // comparator used to sort regex alternatives
-    // alternatives should be ordered longer first, and shorter last. ('february' before 'feb')
-    // all entries must be lowercase by locale.
-    private static final Comparator<String> LONGER_FIRST_LOWERCASE = new Comparator<String>() {
-        @Override
-        public int compare(final String left, final String right) {
-            return right.compareTo(left);
-        }
-    };
+    // whether the time can be computed from the parsed fields without a Calendar
+    private transient boolean arithmetic;
 
     
     protected FastDateParser(final String pattern, final TimeZone timeZone, final Locale locale) {
@@ -109,6 +108,23 @@ private void init(final Calendar definingCalendar) {
             }
             patterns.add(field);
         }
+        arithmetic = isArithmetic(definingCalendar);
+    }
+
+    
+    private boolean isArithmetic(final Calendar definingCalendar) {
+        if (definingCalendar.getClass() != GregorianCalendar.class) {
+            return false;
+        }
+        boolean fixedOffset = FastTimeZone.isFixedOffset(timeZone);
+        for (final StrategyAndWidth strategyAndWidth : patterns) {
+            if (!strategyAndWidth.strategy.isArithmetic()) {
+                return false;
+            }
+            // a parsed ISO 8601 offset replaces the time zone
+            fixedOffset |= strategyAndWidth.strategy instanceof ISO8601TimeZoneStrategy;
+        }
+        return fixedOffset;
     }
 
     // helper classes to parse the format string
@@ -265,18 +281,23 @@ public Date parse(final String source) throws ParseException {
         final ParsePosition pp = new ParsePosition(0);
         final Date date= parse(source, pp);
         if (date == null) {
-            // Add a note re supported date range
-            if (locale.equals(JAPANESE_IMPERIAL)) {
-                throw new ParseException(
-                        "(The " +locale + " locale does not support dates before 1868 AD)\n" +
-                                "Unparseable date: \""+source, pp.getErrorIndex());
-            }
-            throw new ParseException("Unparseable date: "+source, pp.getErrorIndex());
+            throw parseException(source, pp.getErrorIndex());
         }
         return date;
     }
 
     
+    private ParseException parseException(final CharSequence source, final int errorIndex) {
+        // Add a note re supported date range
+        if (locale.equals(JAPANESE_IMPERIAL)) {
+            return new ParseException(
+                    "(The " +locale + " locale does not support dates before 1868 AD)\n" +
+                            "Unparseable date: \""+source, errorIndex);
+        }
+        return new ParseException("Unparseable date: "+source, errorIndex);
+    }
+
+    
     @Override
     public Object parseObject(final String source, final ParsePosition pos) {
         return parse(source, pos);
@@ -285,6 +306,11 @@ public Object parseObject(final String source, final ParsePosition pos) {
     
     @Override
     public Date parse(final String source, final ParsePosition pos) {
+        if (arithmetic) {
+            final int start = pos.getIndex();
+            final int[] fields = newFields();
+            return parse(source, source.length(), pos, fields) ? new Date(getMillis(fields, source, source.length(), start)) : null;
+        }
         // timing tests indicate getting new instance is 19% faster than cloning
         final Calendar cal= Calendar.getInstance(timeZone, locale);
         cal.clear();
@@ -295,62 +321,314 @@ public Date parse(final String source, final ParsePosition pos) {
     
     @Override
     public boolean parse(final String source, final ParsePosition pos, final Calendar calendar) {
+        return parse(source, source.length(), pos, calendar);
+    }
+
+    
+    public boolean parse(final CharSequence source, final ParsePosition pos, final Calendar calendar) {
+        return parse(source, source.length(), pos, calendar);
+    }
+
+    
+    public boolean parse(final CharSequence source, final int offset, final int length, final Calendar calendar) {
+        return parse(source, offset + length, new ParsePosition(offset), calendar);
+    }
+
+    
+    public boolean parse(final char[] source, final int offset, final int length, final Calendar calendar) {
+        return parse(CharBuffer.wrap(source), offset, length, calendar);
+    }
+
+    
+    public long parseMillis(final CharSequence source, final int offset, final int length) throws ParseException {
+        final int limit = offset + length;
+        final ParsePosition pos = new ParsePosition(offset);
+        if (arithmetic) {
+            final int[] fields = newFields();
+            if (!parse(source, limit, pos, fields)) {
+                throw parseException(source.subSequence(offset, limit), pos.getErrorIndex());
+            }
+            return getMillis(fields, source, limit, offset);
+        }
+        final Calendar cal = Calendar.getInstance(timeZone, locale);
+        cal.clear();
+        if (!parse(source, limit, pos, cal)) {
+            throw parseException(source.subSequence(offset, limit), pos.getErrorIndex());
+        }
+        return cal.getTimeInMillis();
+    }
+
+    
+    public long parseMillis(final char[] source, final int offset, final int length) throws ParseException {
+        return parseMillis(CharBuffer.wrap(source), offset, length);
+    }
+
+    
+    private boolean parse(final CharSequence source, final int limit, final ParsePosition pos, final Calendar calendar) {
         final ListIterator<StrategyAndWidth> lt = patterns.listIterator();
         while (lt.hasNext()) {
             final StrategyAndWidth strategyAndWidth = lt.next();
             final int maxWidth = strategyAndWidth.getMaxWidth(lt);
-            if (!strategyAndWidth.strategy.parse(this, calendar, source, pos, maxWidth)) {
+            if (!strategyAndWidth.strategy.parse(this, calendar, source, limit, pos, maxWidth)) {
                 return false;
             }
         }
         return true;
     }
 
-    // Support for strategies
+    
+    private boolean parse(final CharSequence source, final int limit, final ParsePosition pos, final int[] fields) {
+        final ListIterator<StrategyAndWidth> lt = patterns.listIterator();
+        while (lt.hasNext()) {
+            final StrategyAndWidth strategyAndWidth = lt.next();
+            final int maxWidth = strategyAndWidth.getMaxWidth(lt);
+            // only arithmetic strategies are parsed into fields
+            if (!((ArithmeticStrategy) strategyAndWidth.strategy).parse(this, fields, source, limit, pos, maxWidth)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Support for parsing without a Calendar
     //-----------------------------------------------------------------------
 
-    private static StringBuilder simpleQuote(final StringBuilder sb, final String value) {
-        for (int i = 0; i < value.length(); ++i) {
-            final char c = value.charAt(i);
-            switch (c) {
-            case '\\':
-            case '^':
-            case '$':
-            case '.':
-            case '|':
-            case '?':
-            case '*':
-            case '+':
-            case '(':
-            case ')':
-            case '[':
-            case '{':
-                sb.append('\\');
-            default:
-                sb.append(c);
-            }
+    // the fields of a cleared Calendar, in the time zone of this parser
+    private int[] newFields() {
+        final int[] fields = new int[Calendar.FIELD_COUNT];
+        fields[Calendar.YEAR] = EPOCH_YEAR;
+        fields[Calendar.DAY_OF_MONTH] = 1;
+        fields[Calendar.ZONE_OFFSET] = timeZone.getRawOffset();
+        return fields;
+    }
+
+    
+    private long getMillis(final int[] fields, final CharSequence source, final int limit, final int start) {
+        final int year = fields[Calendar.YEAR];
+        if (year <= GREGORIAN_CUTOVER_YEAR || year > MAX_ARITHMETIC_YEAR) {
+            // Julian dates and years far enough out to overflow are left to Calendar
+            final Calendar cal = Calendar.getInstance(timeZone, locale);
+            cal.clear();
+            parse(source, limit, new ParsePosition(start), cal);
+            return cal.getTimeInMillis();
         }
-        return sb;
+        // lenient, like Calendar: months, days and hours out of range carry over
+        int month = fields[Calendar.MONTH];
+        long y = year + month / 12;
+        month %= 12;
+        if (month < 0) {
+            month += 12;
+            --y;
+        }
+        final long days = daysSinceEpoch(y, month) + fields[Calendar.DAY_OF_MONTH] - 1;
+        final long timeOfDay = ((fields[Calendar.HOUR_OF_DAY] * 60L + fields[Calendar.MINUTE]) * 60L
+                + fields[Calendar.SECOND]) * 1000L + fields[Calendar.MILLISECOND];
+        return days * MILLIS_PER_DAY + timeOfDay - fields[Calendar.ZONE_OFFSET];
     }
 
     
-    private static Map<String, Integer> appendDisplayNames(final Calendar cal, final Locale locale, final int field, final StringBuilder regex) {
+    private static long daysSinceEpoch(final long year, final int month) {
+        // count from March so that the leap day ends the year
+        final long y = month < Calendar.MARCH ? year - 1 : year;
+        final int m = month < Calendar.MARCH ? month + 10 : month - 2;
+        final long era = y / 400;
+        final long yearOfEra = y - era * 400;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + (153 * m + 2) / 5;
+        return era * 146097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    // Support for strategies
+    //-----------------------------------------------------------------------
+
+    
+    private static Map<String, Integer> getDisplayNames(final Calendar cal, final Locale locale, final int field) {
         final Map<String, Integer> values = new HashMap<>();
 
         final Map<String, Integer> displayNames = cal.getDisplayNames(field, Calendar.ALL_STYLES, locale);
-        final TreeSet<String> sorted = new TreeSet<>(LONGER_FIRST_LOWERCASE);
         for (final Map.Entry<String, Integer> displayName : displayNames.entrySet()) {
             final String key = displayName.getKey().toLowerCase(locale);
-            if (sorted.add(key)) {
+            if (!values.containsKey(key)) {
                 values.put(key, displayName.getValue());
             }
         }
-        for (final String symbol : sorted) {
-            simpleQuote(regex, symbol).append('|');
-        }
         return values;
     }
 
+    // matches the input against a set of names, all lower case by locale, ignoring case; chars are
+    // compared after folding them to upper and then to lower case, the same as a (?iu) regex, and
+    // when several names match the greatest one by String.compareTo wins, so that "february" is
+    // preferred to "feb"
+    private static class CaseInsensitiveTrie {
+        private static final int[] NO_CODE_POINTS = new int[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final String[] NO_KEYS = new String[0];
+
+        private final Node root = new Node();
+        private final Locale locale;
+        // whether String.toLowerCase(locale) lower cases char by char for this locale
+        private final boolean lowerCaseByChar;
+
+        private static class Node {
+            // folded code points of the children, ascending
+            int[] codePoints = NO_CODE_POINTS;
+            Node[] children = NO_CHILDREN;
+            // the names ending here, descending
+            String[] keys = NO_KEYS;
+            // for each name, the only code point it matches, or -1 if it matches ignoring case
+            int[] exact = NO_CODE_POINTS;
+
+            Node getChild(final int codePoint) {
+                final int i = Arrays.binarySearch(codePoints, codePoint);
+                return i >= 0 ? children[i] : null;
+            }
+
+            Node addChild(final int codePoint) {
+                final int i = Arrays.binarySearch(codePoints, codePoint);
+                if (i >= 0) {
+                    return children[i];
+                }
+                final int insert = -i - 1;
+                final Node child = new Node();
+                codePoints = insert(codePoints, insert, codePoint);
+                final Node[] grown = new Node[children.length + 1];
+                System.arraycopy(children, 0, grown, 0, insert);
+                grown[insert] = child;
+                System.arraycopy(children, insert, grown, insert + 1, children.length - insert);
+                children = grown;
+                return child;
+            }
+
+            void addKey(final String key, final int exactCodePoint) {
+                int insert = 0;
+                while (insert < keys.length && keys[insert].compareTo(key) > 0) {
+                    ++insert;
+                }
+                final String[] grown = new String[keys.length + 1];
+                System.arraycopy(keys, 0, grown, 0, insert);
+                grown[insert] = key;
+                System.arraycopy(keys, insert, grown, insert + 1, keys.length - insert);
+                keys = grown;
+                exact = insert(exact, insert, exactCodePoint);
+            }
+
+            private static int[] insert(final int[] array, final int index, final int value) {
+                final int[] grown = new int[array.length + 1];
+                System.arraycopy(array, 0, grown, 0, index);
+                grown[index] = value;
+                System.arraycopy(array, index, grown, index + 1, array.length - index);
+                return grown;
+            }
+        }
+
+        CaseInsensitiveTrie(final Collection<String> keys, final Locale locale) {
+            this.locale = locale;
+            final String language = locale.getLanguage();
+            lowerCaseByChar = !("tr".equals(language) || "az".equals(language) || "lt".equals(language));
+            for (final String key : keys) {
+                Node node = root;
+                for (int i = 0; i < key.length(); i += Character.charCount(key.codePointAt(i))) {
+                    node = node.addChild(fold(key.codePointAt(i)));
+                }
+                node.addKey(key, exactCodePoint(key));
+            }
+        }
+
+        private static int fold(final int codePoint) {
+            return Character.toLowerCase(Character.toUpperCase(codePoint));
+        }
+
+        // a single uncased code point is matched as is, like a single char regex
+        private static int exactCodePoint(final String key) {
+            if (key.isEmpty() || key.codePointCount(0, key.length()) != 1) {
+                return -1;
+            }
+            final int codePoint = key.codePointAt(0);
+            final int upper = Character.toUpperCase(codePoint);
+            return upper == Character.toLowerCase(upper) ? codePoint : -1;
+        }
+
+        
+        String match(final CharSequence source, final int limit, final ParsePosition pos) {
+            final int start = pos.getIndex();
+            final String key = match(root, source, limit, start, start, null);
+            if (key == null) {
+                pos.setErrorIndex(start);
+                return null;
+            }
+            // each code point of the key matched one code point of the source
+            int end = start;
+            for (int i = key.codePointCount(0, key.length()); i > 0; --i) {
+                end += Character.charCount(codePointAt(source, limit, end));
+            }
+            pos.setIndex(end);
+            return key;
+        }
+
+        // Character.codePointAt, without looking for a low surrogate at or beyond the limit
+        private static int codePointAt(final CharSequence source, final int limit, final int index) {
+            final char high = source.charAt(index);
+            if (Character.isHighSurrogate(high) && index + 1 < limit) {
+                final char low = source.charAt(index + 1);
+                if (Character.isLowSurrogate(low)) {
+                    return Character.toCodePoint(high, low);
+                }
+            }
+            return high;
+        }
+
+        private static String match(final Node node, final CharSequence source, final int limit, final int start, final int index, String best) {
+            for (int i = 0; i < node.keys.length; ++i) {
+                final String key = node.keys[i];
+                if (best != null && key.compareTo(best) <= 0) {
+                    break;
+                }
+                if (node.exact[i] < 0 || node.exact[i] == codePointAt(source, limit, start)) {
+                    best = key;
+                    break;
+                }
+            }
+            if (index < limit && node.children.length > 0) {
+                final int codePoint = codePointAt(source, limit, index);
+                final int next = index + Character.charCount(codePoint);
+                Node child = node.getChild(codePoint);
+                if (child != null) {
+                    best = match(child, source, limit, start, next, best);
+                }
+                final int folded = fold(codePoint);
+                if (folded != codePoint) {
+                    child = node.getChild(folded);
+                    if (child != null) {
+                        best = match(child, source, limit, start, next, best);
+                    }
+                }
+            }
+            return best;
+        }
+
+        
+        <V> V get(final Map<String, V> values, final String key, final CharSequence source, final int start, final int end) {
+            if (isLowerCase(key, source, start, end)) {
+                return values.get(key);
+            }
+            return values.get(source.subSequence(start, end).toString().toLowerCase(locale));
+        }
+
+        // true if the region lower cases to the key without needing String.toLowerCase
+        private boolean isLowerCase(final String key, final CharSequence source, final int start, final int end) {
+            if (!lowerCaseByChar || end - start != key.length()) {
+                return false;
+            }
+            for (int i = start; i < end; ++i) {
+                final char c = source.charAt(i);
+                if (Character.isSurrogate(c) || c == '\u03A3' || c == '\u0130'
+                        || Character.toLowerCase(c) != key.charAt(i - start)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     
     private int adjustYear(final int twoDigitYear) {
         final int trial = century + twoDigitYear;
@@ -364,41 +642,24 @@ boolean isNumber() {
             return false;
         }
 
-        abstract boolean parse(FastDateParser parser, Calendar calendar, String source, ParsePosition pos, int maxWidth);
-    }
+        abstract boolean parse(FastDateParser parser, Calendar calendar, CharSequence source, int limit, ParsePosition pos, int maxWidth);
 
-    
-    private abstract static class PatternStrategy extends Strategy {
-
-        private Pattern pattern;
-
-        void createPattern(final StringBuilder regex) {
-            createPattern(regex.toString());
-        }
-
-        void createPattern(final String regex) {
-            this.pattern = Pattern.compile(regex);
-        }
-
-        
-        @Override
-        boolean isNumber() {
+        // whether the strategy can parse into the fields array used instead of a Calendar
+        boolean isArithmetic() {
             return false;
         }
+    }
+
+    // a strategy that can also parse into the fields array used instead of a Calendar
+    private abstract static class ArithmeticStrategy extends Strategy {
 
         @Override
-        boolean parse(final FastDateParser parser, final Calendar calendar, final String source, final ParsePosition pos, final int maxWidth) {
-            final Matcher matcher = pattern.matcher(source.substring(pos.getIndex()));
-            if (!matcher.lookingAt()) {
-                pos.setErrorIndex(pos.getIndex());
-                return false;
-            }
-            pos.setIndex(pos.getIndex() + matcher.end(1));
-            setCalendar(parser, calendar, matcher.group(1));
+        boolean isArithmetic() {
             return true;
         }
 
-        abstract void setCalendar(FastDateParser parser, Calendar cal, String value);
+        // parses into an array indexed by Calendar field, holding the zone offset in ZONE_OFFSET
+        abstract boolean parse(FastDateParser parser, int[] fields, CharSequence source, int limit, ParsePosition pos, int maxWidth);
     }
 
     
@@ -485,7 +746,7 @@ private Strategy getLocaleSpecificStrategy(final int field, final Calendar defin
     }
 
     
-    private static class CopyQuotedStrategy extends Strategy {
+    private static class CopyQuotedStrategy extends ArithmeticStrategy {
 
         private final String formatField;
 
@@ -501,10 +762,19 @@ boolean isNumber() {
         }
 
         @Override
-        boolean parse(final FastDateParser parser, final Calendar calendar, final String source, final ParsePosition pos, final int maxWidth) {
+        boolean parse(final FastDateParser parser, final Calendar calendar, final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
+            return parse(source, limit, pos);
+        }
+
+        @Override
+        boolean parse(final FastDateParser parser, final int[] fields, final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
+            return parse(source, limit, pos);
+        }
+
+        private boolean parse(final CharSequence source, final int limit, final ParsePosition pos) {
             for (int idx = 0; idx < formatField.length(); ++idx) {
                 final int sIdx = idx + pos.getIndex();
-                if (sIdx == source.length()) {
+                if (sIdx == limit) {
                     pos.setErrorIndex(sIdx);
                     return false;
                 }
@@ -519,35 +789,36 @@ boolean parse(final FastDateParser parser, final Calendar calendar, final String
     }
 
     
-     private static class CaseInsensitiveTextStrategy extends PatternStrategy {
+     private static class CaseInsensitiveTextStrategy extends Strategy {
         private final int field;
         final Locale locale;
         private final Map<String, Integer> lKeyValues;
+        private final CaseInsensitiveTrie names;
 
         
         CaseInsensitiveTextStrategy(final int field, final Calendar definingCalendar, final Locale locale) {
             this.field = field;
             this.locale = locale;
-
-            final StringBuilder regex = new StringBuilder();
-            regex.append("((?iu)");
-            lKeyValues = appendDisplayNames(definingCalendar, locale, field, regex);
-            regex.setLength(regex.length()-1);
-            regex.append(")");
-            createPattern(regex);
+            lKeyValues = getDisplayNames(definingCalendar, locale, field);
+            names = new CaseInsensitiveTrie(lKeyValues.keySet(), locale);
         }
 
-        
         @Override
-        void setCalendar(final FastDateParser parser, final Calendar cal, final String value) {
-            final Integer iVal = lKeyValues.get(value.toLowerCase(locale));
-            cal.set(field, iVal.intValue());
+        boolean parse(final FastDateParser parser, final Calendar calendar, final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
+            final int start = pos.getIndex();
+            final String name = names.match(source, limit, pos);
+            if (name == null) {
+                return false;
+            }
+            final Integer iVal = names.get(lKeyValues, name, source, start, pos.getIndex());
+            calendar.set(field, iVal.intValue());
+            return true;
         }
     }
 
 
     
-    private static class NumberStrategy extends Strategy {
+    private static class NumberStrategy extends ArithmeticStrategy {
         private final int field;
 
         
@@ -562,9 +833,45 @@ boolean isNumber() {
         }
 
         @Override
-        boolean parse(final FastDateParser parser, final Calendar calendar, final String source, final ParsePosition pos, final int maxWidth) {
+        boolean isArithmetic() {
+            switch (field) {
+            case Calendar.YEAR:
+            case Calendar.MONTH:
+            case Calendar.DAY_OF_MONTH:
+            case Calendar.HOUR_OF_DAY:
+            case Calendar.MINUTE:
+            case Calendar.SECOND:
+            case Calendar.MILLISECOND:
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        boolean parse(final FastDateParser parser, final Calendar calendar, final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
+            final int value = parse(source, limit, pos, maxWidth);
+            if (value < 0) {
+                return false;
+            }
+            calendar.set(field, modify(parser, value));
+            return true;
+        }
+
+        @Override
+        boolean parse(final FastDateParser parser, final int[] fields, final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
+            final int value = parse(source, limit, pos, maxWidth);
+            if (value < 0) {
+                return false;
+            }
+            fields[field] = modify(parser, value);
+            return true;
+        }
+
+        // the digits as parsed, or -1 if there are none
+        private static int parse(final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
             int idx = pos.getIndex();
-            int last = source.length();
+            int last = limit;
 
             if (maxWidth == 0) {
                 // if no maxWidth, strip leading white space
@@ -591,14 +898,12 @@ boolean parse(final FastDateParser parser, final Calendar calendar, final String
 
             if (pos.getIndex() == idx) {
                 pos.setErrorIndex(idx);
-                return false;
+                return -1;
             }
 
-            final int value = Integer.parseInt(source.substring(pos.getIndex(), idx));
+            final int value = parseInt(source, pos.getIndex(), idx);
             pos.setIndex(idx);
-
-            calendar.set(field, modify(parser, value));
-            return true;
+            return value;
         }
 
         
@@ -606,6 +911,18 @@ int modify(final FastDateParser parser, final int iValue) {
             return iValue;
         }
 
+        // same as Integer.parseInt, without the substring while the value cannot overflow
+        private static int parseInt(final CharSequence source, final int start, final int end) {
+            if (end - start > 9) {
+                return Integer.parseInt(source.subSequence(start, end).toString());
+            }
+            int value = 0;
+            for (int i = start; i < end; ++i) {
+                value = value * 10 + Character.digit(source.charAt(i), 10);
+            }
+            return value;
+        }
+
     }
 
     private static final Strategy ABBREVIATED_YEAR_STRATEGY = new NumberStrategy(Calendar.YEAR) {
@@ -617,12 +934,10 @@ int modify(final FastDateParser parser, final int iValue) {
     };
 
     
-    static class TimeZoneStrategy extends PatternStrategy {
-        private static final String RFC_822_TIME_ZONE = "[+-]\\d{4}";
-        private static final String GMT_OPTION = TimeZones.GMT_ID + "[+-]\\d{1,2}:\\d{2}";
-
+    static class TimeZoneStrategy extends Strategy {
         private final Locale locale;
         private final Map<String, TzInfo> tzNames= new HashMap<>();
+        private final CaseInsensitiveTrie names;
 
         private static class TzInfo {
             TimeZone zone;
@@ -641,11 +956,6 @@ private static class TzInfo {
         TimeZoneStrategy(final Locale locale) {
             this.locale = locale;
 
-            final StringBuilder sb = new StringBuilder();
-            sb.append("((?iu)" + RFC_822_TIME_ZONE + "|" + GMT_OPTION );
-
-            final Set<String> sorted = new TreeSet<>(LONGER_FIRST_LOWERCASE);
-
             final String[][] zones = DateFormatSymbols.getInstance(locale).getZoneStrings();
             for (final String[] zoneNames : zones) {
                 // offset 0 is the time zone ID and is not localized
@@ -674,52 +984,155 @@ private static class TzInfo {
                         final String key = zoneNames[i].toLowerCase(locale);
                         // ignore the data associated with duplicates supplied in
                         // the additional names
-                        if (sorted.add(key)) {
+                        if (!tzNames.containsKey(key)) {
                             tzNames.put(key, tzInfo);
                         }
                     }
                 }
             }
-            // order the regex alternatives with longer strings first, greedy
-            // match will ensure longest string will be consumed
-            for (final String zoneName : sorted) {
-                simpleQuote(sb.append('|'), zoneName);
-            }
-            sb.append(")");
-            createPattern(sb);
+            names = new CaseInsensitiveTrie(tzNames.keySet(), locale);
         }
 
-        
         @Override
-        void setCalendar(final FastDateParser parser, final Calendar cal, final String timeZone) {
-            final TimeZone tz = FastTimeZone.getGmtTimeZone(timeZone);
+        boolean parse(final FastDateParser parser, final Calendar calendar, final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
+            final int start = pos.getIndex();
+            // RFC 822 offsets and GMT offsets take precedence over zone names
+            if (parseRfc822(calendar, source, limit, pos) || parseGmt(calendar, source, limit, pos)) {
+                return true;
+            }
+            final String name = names.match(source, limit, pos);
+            if (name == null) {
+                return false;
+            }
+            final int end = pos.getIndex();
+            final TimeZone tz = FastTimeZone.getGmtTimeZone(source, start, end);
             if (tz != null) {
-                cal.setTimeZone(tz);
+                calendar.setTimeZone(tz);
             } else {
-                final TzInfo tzInfo = tzNames.get(timeZone.toLowerCase(locale));
-                cal.set(Calendar.DST_OFFSET, tzInfo.dstOffset);
-                cal.set(Calendar.ZONE_OFFSET, tzInfo.zone.getRawOffset());
+                final TzInfo tzInfo = names.get(tzNames, name, source, start, end);
+                calendar.set(Calendar.DST_OFFSET, tzInfo.dstOffset);
+                calendar.set(Calendar.ZONE_OFFSET, tzInfo.zone.getRawOffset());
             }
+            return true;
+        }
+
+        // [+-]hhmm
+        private static boolean parseRfc822(final Calendar calendar, final CharSequence source, final int limit, final ParsePosition pos) {
+            final int index = pos.getIndex();
+            if (!isSign(source, limit, index) || !isDigits(source, limit, index + 1, index + 5)) {
+                return false;
+            }
+            pos.setIndex(index + 5);
+            calendar.setTimeZone(FastTimeZone.getGmtTimeZone(source.charAt(index) == '-',
+                    parseDigits(source, index + 1, index + 3), parseDigits(source, index + 3, index + 5)));
+            return true;
+        }
+
+        // GMT[+-]h:mm or GMT[+-]hh:mm, with GMT in any case
+        private static boolean parseGmt(final Calendar calendar, final CharSequence source, final int limit, final ParsePosition pos) {
+            final int index = pos.getIndex();
+            if (index + 3 > limit || !foldsTo(source.charAt(index), 'g')
+                    || !foldsTo(source.charAt(index + 1), 'm') || !foldsTo(source.charAt(index + 2), 't')
+                    || !isSign(source, limit, index + 3)) {
+                return false;
+            }
+            int colon = index + 4;
+            while (colon < index + 6 && isDigits(source, limit, colon, colon + 1)) {
+                ++colon;
+            }
+            if (colon == index + 4 || colon >= limit || source.charAt(colon) != ':'
+                    || !isDigits(source, limit, colon + 1, colon + 3)) {
+                return false;
+            }
+            pos.setIndex(colon + 3);
+            calendar.setTimeZone(FastTimeZone.getGmtTimeZone(source.charAt(index + 3) == '-',
+                    parseDigits(source, index + 4, colon), parseDigits(source, colon + 1, colon + 3)));
+            return true;
+        }
+
+        private static boolean foldsTo(final char c, final char lowerCase) {
+            return c == lowerCase || Character.toLowerCase(Character.toUpperCase(c)) == lowerCase;
         }
     }
 
-    private static class ISO8601TimeZoneStrategy extends PatternStrategy {
+    private static boolean isSign(final CharSequence source, final int limit, final int index) {
+        return index < limit && (source.charAt(index) == '+' || source.charAt(index) == '-');
+    }
+
+    // true if the region exists and is all ASCII digits
+    private static boolean isDigits(final CharSequence source, final int limit, final int start, final int end) {
+        if (end > limit) {
+            return false;
+        }
+        for (int i = start; i < end; ++i) {
+            final char c = source.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseDigits(final CharSequence source, final int start, final int end) {
+        int value = 0;
+        for (int i = start; i < end; ++i) {
+            value = value * 10 + source.charAt(i) - '0';
+        }
+        return value;
+    }
+
+    private static class ISO8601TimeZoneStrategy extends ArithmeticStrategy {
         // Z, +hh, -hh, +hhmm, -hhmm, +hh:mm or -hh:mm
+        private final int tokenLen;
 
         
-        ISO8601TimeZoneStrategy(final String pattern) {
-            createPattern(pattern);
+        ISO8601TimeZoneStrategy(final int tokenLen) {
+            this.tokenLen = tokenLen;
         }
 
-        
         @Override
-        void setCalendar(final FastDateParser parser, final Calendar cal, final String value) {
-            cal.setTimeZone(FastTimeZone.getGmtTimeZone(value));
+        boolean parse(final FastDateParser parser, final Calendar calendar, final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
+            final TimeZone tz = parse(source, limit, pos);
+            if (tz == null) {
+                return false;
+            }
+            calendar.setTimeZone(tz);
+            return true;
+        }
+
+        @Override
+        boolean parse(final FastDateParser parser, final int[] fields, final CharSequence source, final int limit, final ParsePosition pos, final int maxWidth) {
+            final TimeZone tz = parse(source, limit, pos);
+            if (tz == null) {
+                return false;
+            }
+            fields[Calendar.ZONE_OFFSET] = tz.getRawOffset();
+            return true;
+        }
+
+        private TimeZone parse(final CharSequence source, final int limit, final ParsePosition pos) {
+            final int index = pos.getIndex();
+            if (index < limit && source.charAt(index) == 'Z') {
+                pos.setIndex(index + 1);
+                return FastTimeZone.getGmtTimeZone();
+            }
+            // the minutes start after the sign, the hours and, for +hh:mm, the colon
+            final int minutes = tokenLen == 3 ? index + 4 : index + 3;
+            final int end = tokenLen == 1 ? minutes : minutes + 2;
+            if (!isSign(source, limit, index) || !isDigits(source, limit, index + 1, index + 3)
+                    || tokenLen == 3 && (minutes > limit || source.charAt(index + 3) != ':')
+                    || !isDigits(source, limit, minutes, end)) {
+                pos.setErrorIndex(index);
+                return null;
+            }
+            pos.setIndex(end);
+            return FastTimeZone.getGmtTimeZone(source.charAt(index) == '-',
+                    parseDigits(source, index + 1, index + 3), parseDigits(source, minutes, end));
         }
 
-        private static final Strategy ISO_8601_1_STRATEGY = new ISO8601TimeZoneStrategy("(Z|(?:[+-]\\d{2}))");
-        private static final Strategy ISO_8601_2_STRATEGY = new ISO8601TimeZoneStrategy("(Z|(?:[+-]\\d{2}\\d{2}))");
-        private static final Strategy ISO_8601_3_STRATEGY = new ISO8601TimeZoneStrategy("(Z|(?:[+-]\\d{2}(?::)\\d{2}))");
+        private static final Strategy ISO_8601_1_STRATEGY = new ISO8601TimeZoneStrategy(1);
+        private static final Strategy ISO_8601_2_STRATEGY = new ISO8601TimeZoneStrategy(2);
+        private static final Strategy ISO_8601_3_STRATEGY = new ISO8601TimeZoneStrategy(3);
 
         
         static Strategy getStrategy(final int tokenLen) {
@@ -19,14 +19,17 @@
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.CharBuffer;
 import java.text.DateFormat;
 import java.text.DateFormatSymbols;
 import java.text.FieldPosition;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Locale;
+import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -65,18 +68,35 @@ public class FastDatePrinter implements DatePrinter, Serializable {
     private final TimeZone mTimeZone;
     
     private final Locale mLocale;
+    // whether the output of the last second formatted is kept
+    private final boolean mCacheSeconds;
     
     private transient Rule[] mRules;
     
     private transient int mMaxLengthEstimate;
+    // the rules compiled for formatting millis without a Calendar, null if they cannot be
+    private transient CompiledRule[] mCompiledRules;
+    // the most chars the compiled rules write
+    private transient int mCompiledLength;
+    // the widths of the millisecond fields of the compiled rules, null unless seconds are cached
+    private transient int[] mMillisWidths;
+    // the output of the last second formatted, if seconds are cached
+    private transient volatile CachedSecond mCachedSecond;
 
     // Constructor
     //-----------------------------------------------------------------------
     
     protected FastDatePrinter(final String pattern, final TimeZone timeZone, final Locale locale) {
+        this(pattern, timeZone, locale, false);
+    }
+
+    
+    protected FastDatePrinter(final String pattern, final TimeZone timeZone, final Locale locale,
+            final boolean cacheSeconds) {
         mPattern = pattern;
         mTimeZone = timeZone;
         mLocale = locale;
+        mCacheSeconds = cacheSeconds;
 
         init();
     }
@@ -92,6 +112,19 @@ private void init() {
         }
 
         mMaxLengthEstimate = len;
+
+        mCompiledRules = compileRules();
+        if (mCompiledRules != null) {
+            len = 0;
+            for (final CompiledRule rule : mCompiledRules) {
+                len += rule.length;
+            }
+            mCompiledLength = len;
+            // the transitions of a SimpleTimeZone need not fall on whole seconds
+            if (mCacheSeconds && !(mTimeZone instanceof SimpleTimeZone)) {
+                mMillisWidths = millisWidths(mCompiledRules);
+            }
+        }
     }
 
     // Parse the pattern
@@ -332,11 +365,70 @@ String format(final Object obj) {
     
     @Override
     public String format(final long millis) {
+        if (mCompiledRules != null) {
+            if (mMillisWidths != null && mMillisWidths.length == 0) {
+                final CachedSecond cached = cachedSecond(millis);
+                if (cached != null) {
+                    return cached.text;
+                }
+            }
+            final char[] buffer = scratchBuffer();
+            final int end = formatCompiled(millis, buffer, 0);
+            if (end >= 0) {
+                return new String(buffer, 0, end);
+            }
+        }
         final Calendar c = newCalendar();
         c.setTimeInMillis(millis);
         return applyRulesToString(c);
     }
 
+    // the calling thread's scratch array, large enough for the compiled rules
+    private char[] scratchBuffer() {
+        char[] buffer = SCRATCH_BUFFER.get();
+        if (buffer == null || buffer.length < mCompiledLength) {
+            buffer = new char[Math.max(mCompiledLength, 64)];
+            SCRATCH_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    
+    public int format(final long millis, final char[] buffer, final int offset) {
+        if (offset < 0 || offset > buffer.length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is out of range for length " + buffer.length);
+        }
+        if (mCompiledRules != null) {
+            if (buffer.length - offset >= mCompiledLength) {
+                final int end = formatCompiled(millis, buffer, offset);
+                if (end >= 0) {
+                    return end;
+                }
+            } else {
+                // format aside so that a date that does not fit leaves the array alone
+                final char[] work = new char[mCompiledLength];
+                final int end = formatCompiled(millis, work, 0);
+                if (end >= 0) {
+                    return copy(work, end, buffer, offset);
+                }
+            }
+        }
+        final Calendar c = newCalendar();
+        c.setTimeInMillis(millis);
+        final char[] work = applyRulesToString(c).toCharArray();
+        return copy(work, work.length, buffer, offset);
+    }
+
+    // copies the first length chars of work into the buffer at the offset
+    private static int copy(final char[] work, final int length, final char[] buffer, final int offset) {
+        if (length > buffer.length - offset) {
+            throw new IndexOutOfBoundsException("Formatted date of length " + length
+                    + " does not fit at offset " + offset + " of length " + buffer.length);
+        }
+        System.arraycopy(work, 0, buffer, offset, length);
+        return offset + length;
+    }
+
     
     private String applyRulesToString(final Calendar c) {
         return applyRules(c, new StringBuilder(mMaxLengthEstimate)).toString();
@@ -350,6 +442,9 @@ private Calendar newCalendar() {
     
     @Override
     public String format(final Date date) {
+        if (mCompiledRules != null) {
+            return format(date.getTime());
+        }
         final Calendar c = newCalendar();
         c.setTime(date);
         return applyRulesToString(c);
@@ -364,17 +459,13 @@ public String format(final Calendar calendar) {
     
     @Override
     public StringBuffer format(final long millis, final StringBuffer buf) {
-        final Calendar c = newCalendar();
-        c.setTimeInMillis(millis);
-        return (StringBuffer) applyRules(c, (Appendable)buf);
+        return (StringBuffer) applyRules(millis, (Appendable)buf);
     }
 
     
     @Override
     public StringBuffer format(final Date date, final StringBuffer buf) {
-        final Calendar c = newCalendar();
-        c.setTime(date);
-        return (StringBuffer) applyRules(c, (Appendable)buf);
+        return (StringBuffer) applyRules(date.getTime(), (Appendable)buf);
     }
 
     
@@ -387,17 +478,13 @@ public StringBuffer format(final Calendar calendar, final StringBuffer buf) {
     
     @Override
     public <B extends Appendable> B format(final long millis, final B buf) {
-        final Calendar c = newCalendar();
-        c.setTimeInMillis(millis);
-        return applyRules(c, buf);
+        return applyRules(millis, buf);
     }
 
     
     @Override
     public <B extends Appendable> B format(final Date date, final B buf) {
-        final Calendar c = newCalendar();
-        c.setTime(date);
-        return applyRules(c, buf);
+        return applyRules(date.getTime(), buf);
     }
 
     
@@ -429,6 +516,39 @@ private <B extends Appendable> B applyRules(final Calendar calendar, final B buf
         return buf;
     }
 
+    // appends the millis through the compiled rules when possible, else through a Calendar
+    private <B extends Appendable> B applyRules(final long millis, final B buf) {
+        if (mCompiledRules != null) {
+            if (buf instanceof StringBuilder || buf instanceof StringBuffer) {
+                final char[] buffer = scratchBuffer();
+                final int end = formatCompiled(millis, buffer, 0);
+                if (end >= 0) {
+                    if (buf instanceof StringBuilder) {
+                        ((StringBuilder) buf).append(buffer, 0, end);
+                    } else {
+                        ((StringBuffer) buf).append(buffer, 0, end);
+                    }
+                    return buf;
+                }
+            } else {
+                // other appendables may hold on to the chars, so give them their own
+                final char[] buffer = new char[mCompiledLength];
+                final int end = formatCompiled(millis, buffer, 0);
+                if (end >= 0) {
+                    try {
+                        buf.append(CharBuffer.wrap(buffer, 0, end));
+                    } catch (final IOException ioe) {
+                        ExceptionUtils.rethrow(ioe);
+                    }
+                    return buf;
+                }
+            }
+        }
+        final Calendar c = newCalendar();
+        c.setTimeInMillis(millis);
+        return applyRules(c, buf);
+    }
+
     // Accessors
     //-----------------------------------------------------------------------
     
@@ -563,6 +683,423 @@ private static void appendFullDigits(final Appendable buffer, int value, int min
         }
     }
 
+    // Compiled rules
+    //-----------------------------------------------------------------------
+    // Most patterns need nothing from the Calendar but the Gregorian fields and the zone offset,
+    // both of which are cheap to compute from the millis. Such patterns are compiled into an
+    // array of operations that one loop runs, writing straight into a char array.
+
+    private static final int OP_LITERAL = 0;
+    private static final int OP_TEXT = 1;
+    private static final int OP_YEAR = 2;
+    private static final int OP_TWO_DIGIT_YEAR = 3;
+    private static final int OP_MONTH = 4;
+    private static final int OP_DAY_OF_MONTH = 5;
+    private static final int OP_DAY_OF_YEAR = 6;
+    private static final int OP_DAY_OF_WEEK_IN_MONTH = 7;
+    private static final int OP_DAY_IN_WEEK = 8;
+    private static final int OP_HOUR_OF_DAY = 9;
+    private static final int OP_TWENTY_FOUR_HOUR = 10;
+    private static final int OP_HOUR = 11;
+    private static final int OP_TWELVE_HOUR = 12;
+    private static final int OP_MINUTE = 13;
+    private static final int OP_SECOND = 14;
+    private static final int OP_MILLISECOND = 15;
+    private static final int OP_ZONE_NUMBER = 16;
+    private static final int OP_ISO8601 = 17;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    // days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar
+    private static final long DAYS_0000_TO_1970 = 719468;
+    // 1583-01-01, the first year GregorianCalendar, with its default cutover of 1582-10-15, keeps whole
+    private static final long YEAR_1583_MILLIS = -12212553600000L;
+    // 10000-01-01, which keeps years to the four digits the compiled rules are sized for
+    private static final long YEAR_10000_MILLIS = 253402300800000L;
+    // scratch space for formatting into Strings and builders
+    private static final ThreadLocal<char[]> SCRATCH_BUFFER = new ThreadLocal<>();
+
+    
+    private static class CompiledRule {
+        final int op;
+        // the minimum number of digits, the ISO 8601 length or the text field
+        final int width;
+        // the most chars the rule writes
+        final int length;
+        final String text;
+        final String[] values;
+
+        
+        CompiledRule(final int op, final int width, final int length, final String text, final String[] values) {
+            this.op = op;
+            this.width = width;
+            this.length = length;
+            this.text = text;
+            this.values = values;
+        }
+    }
+
+    
+    private static class CachedSecond {
+        final long second;
+        final char[] chars;
+        final int length;
+        // where the millisecond fields go in the chars
+        final int[] millisIndexes;
+        // the chars as a String, for patterns without milliseconds
+        final String text;
+
+        
+        CachedSecond(final long second, final char[] chars, final int length, final int[] millisIndexes) {
+            this.second = second;
+            this.chars = chars;
+            this.length = length;
+            this.millisIndexes = millisIndexes;
+            this.text = millisIndexes.length == 0 ? new String(chars, 0, length) : null;
+        }
+
+        
+        int format(final int milli, final int[] widths, final char[] buffer, int index) {
+            int from = 0;
+            for (int i = 0; i < millisIndexes.length; i++) {
+                final int to = millisIndexes[i];
+                System.arraycopy(chars, from, buffer, index, to - from);
+                index = putDigits(buffer, index + to - from, milli, widths[i]);
+                from = to;
+            }
+            System.arraycopy(chars, from, buffer, index, length - from);
+            return index + length - from;
+        }
+    }
+
+    
+    private CompiledRule[] compileRules() {
+        if (!isCompilable(mTimeZone) || Calendar.getInstance(mTimeZone, mLocale).getClass() != GregorianCalendar.class) {
+            return null;
+        }
+        final CompiledRule[] compiled = new CompiledRule[mRules.length];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compileRule(mRules[i]);
+            if (compiled[i] == null) {
+                return null;
+            }
+        }
+        return compiled;
+    }
+
+    // whether a GregorianCalendar computes its fields with the offset TimeZone.getOffset(long) returns
+    private static boolean isCompilable(final TimeZone timeZone) {
+        final Class<?> type = timeZone.getClass();
+        return FastTimeZone.isJdkZone(timeZone) || type == GmtTimeZone.class || type == SimpleTimeZone.class;
+    }
+
+    
+    private CompiledRule compileRule(final Rule rule) {
+        if (rule instanceof CharacterLiteral) {
+            return literal(String.valueOf(((CharacterLiteral) rule).mValue));
+        } else if (rule instanceof StringLiteral) {
+            return literal(((StringLiteral) rule).mValue);
+        } else if (rule instanceof TextField) {
+            final TextField textField = (TextField) rule;
+            return new CompiledRule(OP_TEXT, textField.mField, textField.estimateLength(), null, textField.mValues);
+        } else if (rule instanceof TwoDigitYearField) {
+            return new CompiledRule(OP_TWO_DIGIT_YEAR, 2, 2, null, null);
+        } else if (rule instanceof TwoDigitMonthField) {
+            return new CompiledRule(OP_MONTH, 2, 2, null, null);
+        } else if (rule instanceof UnpaddedMonthField) {
+            return new CompiledRule(OP_MONTH, 1, 2, null, null);
+        } else if (rule instanceof TwelveHourField) {
+            return compileNumber(OP_TWELVE_HOUR, 2, ((TwelveHourField) rule).mRule);
+        } else if (rule instanceof TwentyFourHourField) {
+            return compileNumber(OP_TWENTY_FOUR_HOUR, 2, ((TwentyFourHourField) rule).mRule);
+        } else if (rule instanceof DayInWeekField) {
+            return compileNumber(OP_DAY_IN_WEEK, 1, ((DayInWeekField) rule).mRule);
+        } else if (rule instanceof NumberRule) {
+            switch (numberField((NumberRule) rule)) {
+            case Calendar.YEAR:
+                return compileNumber(OP_YEAR, 4, (NumberRule) rule);
+            case Calendar.DAY_OF_MONTH:
+                return compileNumber(OP_DAY_OF_MONTH, 2, (NumberRule) rule);
+            case Calendar.DAY_OF_YEAR:
+                return compileNumber(OP_DAY_OF_YEAR, 3, (NumberRule) rule);
+            case Calendar.DAY_OF_WEEK_IN_MONTH:
+                return compileNumber(OP_DAY_OF_WEEK_IN_MONTH, 1, (NumberRule) rule);
+            case Calendar.HOUR_OF_DAY:
+                return compileNumber(OP_HOUR_OF_DAY, 2, (NumberRule) rule);
+            case Calendar.HOUR:
+                return compileNumber(OP_HOUR, 2, (NumberRule) rule);
+            case Calendar.MINUTE:
+                return compileNumber(OP_MINUTE, 2, (NumberRule) rule);
+            case Calendar.SECOND:
+                return compileNumber(OP_SECOND, 2, (NumberRule) rule);
+            case Calendar.MILLISECOND:
+                return compileNumber(OP_MILLISECOND, 3, (NumberRule) rule);
+            default:
+                // week fields depend on the locale's week definition
+                return null;
+            }
+        } else if (rule instanceof TimeZoneNumberRule) {
+            return new CompiledRule(OP_ZONE_NUMBER, 0, ((TimeZoneNumberRule) rule).mColon ? 6 : 5, null, null);
+        } else if (rule instanceof Iso8601_Rule) {
+            final int length = ((Iso8601_Rule) rule).length;
+            return new CompiledRule(OP_ISO8601, length, length, null, null);
+        } else if (rule instanceof TimeZoneNameRule && FastTimeZone.isFixedOffset(mTimeZone)) {
+            // without daylight saving time the name never changes
+            return literal(((TimeZoneNameRule) rule).mStandard);
+        }
+        return null;
+    }
+
+    
+    private static CompiledRule literal(final String text) {
+        return new CompiledRule(OP_LITERAL, 0, text.length(), text, null);
+    }
+
+    
+    private static CompiledRule compileNumber(final int op, final int maxDigits, final NumberRule rule) {
+        final int width = numberWidth(rule);
+        if (width == 0) {
+            return null;
+        }
+        return new CompiledRule(op, width, Math.max(width, maxDigits), null, null);
+    }
+
+    // the field of a plain number rule, or -1
+    private static int numberField(final NumberRule rule) {
+        if (rule instanceof UnpaddedNumberField) {
+            return ((UnpaddedNumberField) rule).mField;
+        } else if (rule instanceof TwoDigitNumberField) {
+            return ((TwoDigitNumberField) rule).mField;
+        } else if (rule instanceof PaddedNumberField) {
+            return ((PaddedNumberField) rule).mField;
+        }
+        return -1;
+    }
+
+    // the minimum number of digits of a plain number rule, or 0
+    private static int numberWidth(final NumberRule rule) {
+        if (rule instanceof UnpaddedNumberField) {
+            return 1;
+        } else if (rule instanceof TwoDigitNumberField) {
+            return 2;
+        } else if (rule instanceof PaddedNumberField) {
+            return ((PaddedNumberField) rule).mSize;
+        }
+        return 0;
+    }
+
+    
+    private int formatCompiled(final long millis, final char[] buffer, final int index) {
+        if (mMillisWidths == null) {
+            return applyCompiledRules(millis, buffer, index, null);
+        }
+        final CachedSecond cached = cachedSecond(millis);
+        if (cached == null) {
+            return -1;
+        }
+        final int milli = (int) (millis % 1000);
+        return cached.format(milli < 0 ? milli + 1000 : milli, mMillisWidths, buffer, index);
+    }
+
+    // the cached output for the second of the millis, or null if the rules cannot format it; it is
+    // keyed by the UTC second, which offset changes and the JDK's leap second free time scale never
+    // split, and replaced as a whole so that the printer stays thread-safe
+    private CachedSecond cachedSecond(final long millis) {
+        final long second = millis % 1000 < 0 ? millis / 1000 - 1 : millis / 1000;
+        CachedSecond cached = mCachedSecond;
+        if (cached == null || cached.second != second) {
+            final char[] chars = new char[mCompiledLength];
+            final int[] millisIndexes = new int[mMillisWidths.length];
+            final int length = applyCompiledRules(second * 1000, chars, 0, millisIndexes);
+            if (length < 0) {
+                return null;
+            }
+            cached = new CachedSecond(second, chars, length, millisIndexes);
+            mCachedSecond = cached;
+        }
+        return cached;
+    }
+
+    // the widths of the millisecond fields
+    private static int[] millisWidths(final CompiledRule[] rules) {
+        int count = 0;
+        for (final CompiledRule rule : rules) {
+            if (rule.op == OP_MILLISECOND) {
+                count++;
+            }
+        }
+        final int[] widths = new int[count];
+        count = 0;
+        for (final CompiledRule rule : rules) {
+            if (rule.op == OP_MILLISECOND) {
+                widths[count++] = rule.width;
+            }
+        }
+        return widths;
+    }
+
+    // Runs the compiled rules, returning -1 for dates they do not cover. With millisIndexes,
+    // the millisecond fields are left out and the indexes they go at are stored instead.
+    private int applyCompiledRules(final long millis, final char[] buffer, int index, final int[] millisIndexes) {
+        int millisCount = 0;
+        final int zoneOffset = mTimeZone.getOffset(millis);
+        final long local = millis + zoneOffset;
+        if (local < YEAR_1583_MILLIS || local >= YEAR_10000_MILLIS) {
+            return -1;
+        }
+        long days = local / MILLIS_PER_DAY;
+        int timeOfDay = (int) (local % MILLIS_PER_DAY);
+        if (timeOfDay < 0) {
+            timeOfDay += MILLIS_PER_DAY;
+            days--;
+        }
+
+        // Howard Hinnant's civil_from_days, on years starting in March
+        final long z = days + DAYS_0000_TO_1970;
+        final long era = z / 146097;
+        final int dayOfEra = (int) (z - era * 146097);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfMarchYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int marchMonth = (5 * dayOfMarchYear + 2) / 153;
+        final int month = marchMonth < 10 ? marchMonth + 2 : marchMonth - 10;
+        final int year = (int) (era * 400) + yearOfEra + (month < Calendar.MARCH ? 1 : 0);
+        final int dayOfMonth = dayOfMarchYear - (153 * marchMonth + 2) / 5 + 1;
+        final int dayOfYear;
+        if (month < Calendar.MARCH) {
+            dayOfYear = dayOfMarchYear - 305;
+        } else {
+            final boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+            dayOfYear = dayOfMarchYear + (leap ? 61 : 60);
+        }
+        final int dayOfWeek = (int) ((days % 7 + 11) % 7) + Calendar.SUNDAY;
+        final int hourOfDay = timeOfDay / (60 * 60 * 1000);
+
+        for (final CompiledRule rule : mCompiledRules) {
+            final int value;
+            switch (rule.op) {
+            case OP_LITERAL:
+                rule.text.getChars(0, rule.text.length(), buffer, index);
+                index += rule.text.length();
+                continue;
+            case OP_TEXT:
+                final String text = rule.values[textIndex(rule.width, month, dayOfWeek, hourOfDay)];
+                text.getChars(0, text.length(), buffer, index);
+                index += text.length();
+                continue;
+            case OP_ZONE_NUMBER:
+                index = putOffset(buffer, index, zoneOffset, rule.length == 6, true);
+                continue;
+            case OP_ISO8601:
+                if (zoneOffset == 0) {
+                    buffer[index++] = 'Z';
+                } else {
+                    index = putOffset(buffer, index, zoneOffset, rule.width == 6, rule.width >= 5);
+                }
+                continue;
+            case OP_YEAR:
+                value = year;
+                break;
+            case OP_TWO_DIGIT_YEAR:
+                value = year % 100;
+                break;
+            case OP_MONTH:
+                value = month + 1;
+                break;
+            case OP_DAY_OF_MONTH:
+                value = dayOfMonth;
+                break;
+            case OP_DAY_OF_YEAR:
+                value = dayOfYear;
+                break;
+            case OP_DAY_OF_WEEK_IN_MONTH:
+                value = (dayOfMonth - 1) / 7 + 1;
+                break;
+            case OP_DAY_IN_WEEK:
+                value = dayOfWeek != Calendar.SUNDAY ? dayOfWeek - 1 : 7;
+                break;
+            case OP_HOUR_OF_DAY:
+                value = hourOfDay;
+                break;
+            case OP_TWENTY_FOUR_HOUR:
+                value = hourOfDay != 0 ? hourOfDay : 24;
+                break;
+            case OP_HOUR:
+                value = hourOfDay % 12;
+                break;
+            case OP_TWELVE_HOUR:
+                value = hourOfDay % 12 != 0 ? hourOfDay % 12 : 12;
+                break;
+            case OP_MINUTE:
+                value = timeOfDay / (60 * 1000) % 60;
+                break;
+            case OP_SECOND:
+                value = timeOfDay / 1000 % 60;
+                break;
+            case OP_MILLISECOND:
+                if (millisIndexes != null) {
+                    millisIndexes[millisCount++] = index;
+                    continue;
+                }
+                value = timeOfDay % 1000;
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation " + rule.op);
+            }
+            index = putDigits(buffer, index, value, rule.width);
+        }
+        return index;
+    }
+
+    // the index into the values of a text field
+    private static int textIndex(final int field, final int month, final int dayOfWeek, final int hourOfDay) {
+        switch (field) {
+        case Calendar.MONTH:
+            return month;
+        case Calendar.DAY_OF_WEEK:
+            return dayOfWeek;
+        case Calendar.AM_PM:
+            return hourOfDay < 12 ? Calendar.AM : Calendar.PM;
+        default:
+            // the compiled dates all follow the Gregorian cutover
+            return GregorianCalendar.AD;
+        }
+    }
+
+    // writes a non-negative value with at least width digits
+    private static int putDigits(final char[] buffer, final int index, int value, final int width) {
+        int digits = 1;
+        for (int rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        final int end = index + Math.max(digits, width);
+        for (int i = end - 1; i >= index; i--) {
+            buffer[i] = (char) (value % 10 + '0');
+            value /= 10;
+        }
+        return end;
+    }
+
+    // writes the offset as a sign, two digit hours and, optionally, a colon and two digit minutes
+    private static int putOffset(final char[] buffer, int index, int offset, final boolean colon, final boolean minutes) {
+        if (offset < 0) {
+            buffer[index++] = '-';
+            offset = -offset;
+        } else {
+            buffer[index++] = '+';
+        }
+        final int hours = offset / (60 * 60 * 1000);
+        buffer[index++] = (char) (hours / 10 + '0');
+        buffer[index++] = (char) (hours % 10 + '0');
+        if (minutes) {
+            if (colon) {
+                buffer[index++] = ':';
+            }
+            final int minute = offset / (60 * 1000) - 60 * hours;
+            buffer[index++] = (char) (minute / 10 + '0');
+            buffer[index++] = (char) (minute % 10 + '0');
+        }
+        return index;
+    }
+
     // Rules
     //-----------------------------------------------------------------------
     
@@ -17,16 +17,27 @@
 package org.apache.commons.lang3.time;
 
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 
 public class FastTimeZone {
 
-    private static final Pattern GMT_PATTERN = Pattern.compile("^(?:(?i)GMT)?([+-])?(\\d\\d?)?(:?(\\d\\d?))?$");
-
     private static final TimeZone GREENWICH = new GmtTimeZone(false, 0, 0);
 
+    // the class of the zones of TimeZone.getTimeZone(String)
+    private static final Class<?> JDK_ZONE_CLASS = TimeZone.getTimeZone(TimeZones.GMT_ID).getClass();
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // the GMT zones by offset, created as they are first asked for, as GmtTimeZone is immutable
+    private static final AtomicReferenceArray<TimeZone> GMT_ZONES = new AtomicReferenceArray<>(2 * MINUTES_PER_DAY);
+
+    private static final int ZONE_CACHE_SIZE = 1000;
+
+    // the zones of TimeZone.getTimeZone(String) by ID, never handed out as they are mutable
+    private static final FormatCache.ClockCache<String, TimeZone> JDK_ZONES =
+            new FormatCache.ClockCache<>(ZONE_CACHE_SIZE);
+
     
     public static TimeZone getGmtTimeZone() {
         return GREENWICH;
@@ -34,20 +45,81 @@ public static TimeZone getGmtTimeZone() {
 
     
     public static TimeZone getGmtTimeZone(final String pattern) {
-        if ("Z".equals(pattern) || "UTC".equals(pattern)) {
+        return getGmtTimeZone(pattern, 0, pattern.length());
+    }
+
+    // the GMT time zone for a region of a char sequence, accepting the same input as
+    // getGmtTimeZone(String), or null if the region is not a GMT offset
+    static TimeZone getGmtTimeZone(final CharSequence pattern, final int start, final int end) {
+        final int length = end - start;
+        if (length == 1 && pattern.charAt(start) == 'Z'
+                || length == 3 && pattern.charAt(start) == 'U' && pattern.charAt(start + 1) == 'T'
+                && pattern.charAt(start + 2) == 'C') {
             return GREENWICH;
         }
 
-        final Matcher m = GMT_PATTERN.matcher(pattern);
-        if (m.matches()) {
-            final int hours = parseInt(m.group(2));
-            final int minutes = parseInt(m.group(4));
-            if (hours == 0 && minutes == 0) {
-                return GREENWICH;
+        int index = start;
+        if (length >= 3 && toUpperCaseAscii(pattern.charAt(index)) == 'G'
+                && toUpperCaseAscii(pattern.charAt(index + 1)) == 'M'
+                && toUpperCaseAscii(pattern.charAt(index + 2)) == 'T') {
+            index += 3;
+        }
+        boolean negate = false;
+        if (index < end && (pattern.charAt(index) == '+' || pattern.charAt(index) == '-')) {
+            negate = pattern.charAt(index) == '-';
+            ++index;
+        }
+
+        int digits = 0;
+        while (index + digits < end && isDigitAscii(pattern.charAt(index + digits))) {
+            ++digits;
+        }
+        final int hours;
+        final int minutes;
+        if (index + digits == end) {
+            // hours take the first two digits, minutes whatever remains
+            if (digits > 4) {
+                return null;
+            }
+            final int hourDigits = Math.min(digits, 2);
+            hours = parseInt(pattern, index, index + hourDigits);
+            minutes = parseInt(pattern, index + hourDigits, end);
+        } else {
+            final int colon = index + digits;
+            if (digits > 2 || pattern.charAt(colon) != ':') {
+                return null;
+            }
+            final int minuteDigits = end - colon - 1;
+            if (minuteDigits < 1 || minuteDigits > 2) {
+                return null;
+            }
+            for (int i = colon + 1; i < end; ++i) {
+                if (!isDigitAscii(pattern.charAt(i))) {
+                    return null;
+                }
             }
-            return new GmtTimeZone(parseSign(m.group(1)), hours, minutes);
+            hours = parseInt(pattern, index, colon);
+            minutes = parseInt(pattern, colon + 1, end);
         }
-        return null;
+        return getGmtTimeZone(negate, hours, minutes);
+    }
+
+    // the GMT time zone for an offset, west of Greenwich if negated
+    static TimeZone getGmtTimeZone(final boolean negate, final int hours, final int minutes) {
+        if (hours == 0 && minutes == 0) {
+            return GREENWICH;
+        }
+        if (hours >= 24 || minutes >= 60) {
+            // let the constructor reject it
+            return new GmtTimeZone(negate, hours, minutes);
+        }
+        final int index = (negate ? MINUTES_PER_DAY : 0) + hours * 60 + minutes;
+        final TimeZone zone = GMT_ZONES.get(index);
+        if (zone != null) {
+            return zone;
+        }
+        GMT_ZONES.compareAndSet(index, null, new GmtTimeZone(negate, hours, minutes));
+        return GMT_ZONES.get(index);
     }
 
     
@@ -56,15 +128,60 @@ public static TimeZone getTimeZone(final String id) {
         if (tz != null) {
             return tz;
         }
-        return TimeZone.getTimeZone(id);
+        return (TimeZone) getJdkZone(id).clone();
+    }
+
+    
+    public static void preloadTimeZones(final String... ids) {
+        for (final String id : ids) {
+            if (getGmtTimeZone(id) == null) {
+                getJdkZone(id);
+            }
+        }
+    }
+
+    // the cached zone of TimeZone.getTimeZone(String), which is synchronized in older JDKs
+    private static TimeZone getJdkZone(final String id) {
+        final TimeZone zone = JDK_ZONES.get(id);
+        if (zone != null) {
+            return zone;
+        }
+        final TimeZone created = TimeZone.getTimeZone(id);
+        final TimeZone previous = JDK_ZONES.putIfAbsent(id, created);
+        return previous != null ? previous : created;
+    }
+
+    // whether a time zone always has the same offset, as the GMT zones and the GMT and UTC zones
+    // of the JDK do
+    static boolean isFixedOffset(final TimeZone timeZone) {
+        if (timeZone instanceof GmtTimeZone) {
+            return true;
+        }
+        final String id = timeZone.getID();
+        return (TimeZones.GMT_ID.equals(id) || "UTC".equals(id))
+                && timeZone.getRawOffset() == 0 && !timeZone.useDaylightTime();
+    }
+
+    // whether a time zone is one of those TimeZone.getTimeZone creates, whose offsets are those a
+    // GregorianCalendar computes its fields with
+    static boolean isJdkZone(final TimeZone timeZone) {
+        return timeZone.getClass() == JDK_ZONE_CLASS;
+    }
+
+    private static int parseInt(final CharSequence digits, final int start, final int end) {
+        int value = 0;
+        for (int i = start; i < end; ++i) {
+            value = value * 10 + digits.charAt(i) - '0';
+        }
+        return value;
     }
 
-    private static int parseInt(final String group) {
-        return group != null ? Integer.parseInt(group) : 0;
+    private static boolean isDigitAscii(final char c) {
+        return c >= '0' && c <= '9';
     }
 
-    private static boolean parseSign(final String group) {
-        return group != null && group.charAt(0) == '-';
+    private static char toUpperCaseAscii(final char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
     }
 
     // do not instantiate
@@ -20,10 +20,14 @@
 import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.commons.lang3.Validate;
 
@@ -34,11 +38,14 @@
     
     static final int NONE= -1;
 
-    private final ConcurrentMap<MultipartKey, F> cInstanceCache
-        = new ConcurrentHashMap<>(7);
+    // the default maximum number of formats kept, and the maximum number of patterns kept for styles
+    static final int DEFAULT_MAXIMUM_SIZE = 1000;
 
-    private static final ConcurrentMap<MultipartKey, String> cDateTimeInstanceCache
-        = new ConcurrentHashMap<>(7);
+    private final ClockCache<MultipartKey, F> cInstanceCache
+        = new ClockCache<>(DEFAULT_MAXIMUM_SIZE);
+
+    private static final ClockCache<MultipartKey, String> cDateTimeInstanceCache
+        = new ClockCache<>(DEFAULT_MAXIMUM_SIZE);
 
     
     public F getInstance() {
@@ -71,6 +78,37 @@ public F getInstance(final String pattern, TimeZone timeZone, Locale locale) {
     
     protected abstract F createInstance(String pattern, TimeZone timeZone, Locale locale);
 
+    // formats not used lately are evicted when there are more than this
+    void setMaximumSize(final int maximumSize) {
+        Validate.isTrue(maximumSize > 0, "The maximum size must be positive: %d", maximumSize);
+        cInstanceCache.setMaximumSize(maximumSize);
+    }
+
+    
+    int getMaximumSize() {
+        return cInstanceCache.maximumSize;
+    }
+
+    
+    int size() {
+        return cInstanceCache.map.size();
+    }
+
+    
+    long getHitCount() {
+        return cInstanceCache.hits();
+    }
+
+    
+    long getMissCount() {
+        return cInstanceCache.misses.get();
+    }
+
+    
+    long getEvictionCount() {
+        return cInstanceCache.evictions.get();
+    }
+
     
     // This must remain private, see LANG-884
     private F getDateTimeInstance(final Integer dateStyle, final Integer timeStyle, final TimeZone timeZone, Locale locale) {
@@ -130,6 +168,109 @@ static String getPatternForStyle(final Integer dateStyle, final Integer timeStyl
         return pattern;
     }
 
+    // ----------------------------------------------------------------------
+    // a concurrent map that evicts entries it has not seen used lately when it grows over its
+    // maximum size, with the second chance algorithm known as CLOCK, so not strictly in order of
+    // last use; reads stay lock free
+    // and shared writes stay off them: a read only marks the entry it finds as referenced if it is
+    // not already, and counts the hit in a stripe of its own thread; eviction, which happens after
+    // a miss, moves a hand over the entries, giving each referenced one a second chance by clearing
+    // the mark and taking the first one without
+    static final class ClockCache<K, V> {
+        // the number of longs from one stripe to the next, a cache line apart
+        private static final int SPACING = 8;
+
+        // the number of stripes, a power of 2
+        private static final int STRIPES = Integer.highestOneBit(
+                Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+        private final ConcurrentMap<K, Entry<V>> map = new ConcurrentHashMap<>(7);
+        private final AtomicLongArray hits = new AtomicLongArray(STRIPES * SPACING);
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+        private volatile int maximumSize;
+
+        // the hand of the clock, guarded by this
+        private Iterator<Map.Entry<K, Entry<V>>> hand;
+
+        ClockCache(final int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        V get(final K key) {
+            final Entry<V> entry = map.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            hits.incrementAndGet(((int) Thread.currentThread().getId() & (STRIPES - 1)) * SPACING);
+            return entry.value;
+        }
+
+        V putIfAbsent(final K key, final V value) {
+            final Entry<V> entry = new Entry<>(value);
+            final Entry<V> previous = map.putIfAbsent(key, entry);
+            if (previous != null) {
+                return previous.value;
+            }
+            if (map.size() > maximumSize) {
+                evict(entry);
+            }
+            return null;
+        }
+
+        long hits() {
+            long count = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                count += hits.get(i * SPACING);
+            }
+            return count;
+        }
+
+        void setMaximumSize(final int maximumSize) {
+            this.maximumSize = maximumSize;
+            if (map.size() > maximumSize) {
+                evict(null);
+            }
+        }
+
+        // passes over the entry just added, which has had no chance to be used yet
+        private synchronized void evict(final Entry<V> added) {
+            // two turns clear every mark, unless reads keep setting them again
+            int chances = 2 * map.size();
+            while (map.size() > maximumSize) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = map.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                final Map.Entry<K, Entry<V>> candidate = hand.next();
+                final Entry<V> entry = candidate.getValue();
+                if (entry == added) {
+                    continue;
+                }
+                if (entry.referenced && chances-- > 0) {
+                    entry.referenced = false;
+                } else if (map.remove(candidate.getKey(), entry)) {
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        volatile boolean referenced;
+
+        Entry(final V value) {
+            this.value = value;
+        }
+    }
+
     // ----------------------------------------------------------------------
     
     private static class MultipartKey {
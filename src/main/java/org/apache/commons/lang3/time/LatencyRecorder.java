@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>Records the distribution of many elapsed times, such as those of {@link StopWatch}es,
+ * in a histogram that is cheap enough to leave on in production.</p>
+ *
+ * <p>Times are counted in log-linear buckets: each power of two nanoseconds is divided
+ * into 32 buckets, so a percentile is reported within about 3% of the exact value.
+ * Recording threads count into stripes of buckets without locking, a thread always into
+ * the same stripe, and the stripes are merged when a {@link Snapshot} is taken. A snapshot can also reset the
+ * counts, for exporting metrics at intervals.</p>
+ *
+ * <pre>
+ * private static final LatencyRecorder LATENCY = new LatencyRecorder();
+ *
+ * final StopWatch watch = StopWatch.createStarted();
+ * handle(request);
+ * watch.stop();
+ * LATENCY.record(watch);
+ *
+ * // periodically
+ * final LatencyRecorder.Snapshot snapshot = LATENCY.snapshotAndReset();
+ * export(snapshot.getPercentile(50), snapshot.getPercentile(99), snapshot.getPercentile(99.9));
+ * </pre>
+ *
+ * <p>This class is thread-safe. There are at most about twice as many stripes as
+ * processors, each about 15KB, created as threads first record into them, however many
+ * threads record over the life of the recorder.</p>
+ *
+ * @since 3.8
+ */
+public class LatencyRecorder {
+
+    // the buckets of each power of two, as a power of two
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values below twice SUB_BUCKETS have a bucket each, then each power of two has SUB_BUCKETS
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    // the slots after the buckets
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int SLOTS = BUCKETS + 2;
+
+    // the number of stripes, a power of 2
+    private static final int STRIPES = Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    /**
+     * <p>Records the time of a stop watch, as given by {@link StopWatch#getNanoTime()}.</p>
+     *
+     * @param watch  the stop watch, not null
+     * @throws NullPointerException if the stop watch is null
+     */
+    public void record(final StopWatch watch) {
+        Validate.notNull(watch, "watch must not be null");
+        recordNanos(watch.getNanoTime());
+    }
+
+    /**
+     * <p>Records an elapsed time, such as the difference of two {@link System#nanoTime()}s.</p>
+     *
+     * @param nanos  the elapsed time in nanoseconds
+     * @throws IllegalArgumentException if the time is negative
+     */
+    public void recordNanos(final long nanos) {
+        Validate.isTrue(nanos >= 0, "nanos must not be negative: %d", nanos);
+        final AtomicLongArray counts = stripe();
+        counts.getAndIncrement(bucketOf(nanos));
+        counts.getAndAdd(SUM, nanos);
+        long max = counts.get(MAX);
+        while (nanos > max && !counts.compareAndSet(MAX, max, nanos)) {
+            max = counts.get(MAX);
+        }
+    }
+
+    /**
+     * <p>Takes a snapshot of the times recorded so far.</p>
+     *
+     * @return the snapshot, not null
+     */
+    public Snapshot snapshot() {
+        return merge(false);
+    }
+
+    /**
+     * <p>Takes a snapshot of the times recorded so far and resets the counts, so
+     * that the next snapshot has only the times recorded after this one.</p>
+     *
+     * <p>No time is lost or counted twice, though a time recorded during the call
+     * may go to either snapshot.</p>
+     *
+     * @return the snapshot, not null
+     */
+    public Snapshot snapshotAndReset() {
+        return merge(true);
+    }
+
+    /**
+     * <p>Resets the counts.</p>
+     */
+    public void reset() {
+        merge(true);
+    }
+
+    private Snapshot merge(final boolean reset) {
+        final long[] buckets = new long[BUCKETS];
+        long sum = 0;
+        long max = 0;
+        for (int index = 0; index < STRIPES; index++) {
+            final AtomicLongArray counts = stripes.get(index);
+            if (counts == null) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] += reset ? counts.getAndSet(i, 0) : counts.get(i);
+            }
+            sum += reset ? counts.getAndSet(SUM, 0) : counts.get(SUM);
+            max = Math.max(max, reset ? counts.getAndSet(MAX, 0) : counts.get(MAX));
+        }
+        return new Snapshot(buckets, sum, max);
+    }
+
+    // the stripe of the current thread, created when it is first used
+    private AtomicLongArray stripe() {
+        final int index = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        final AtomicLongArray counts = stripes.get(index);
+        if (counts != null) {
+            return counts;
+        }
+        stripes.compareAndSet(index, null, new AtomicLongArray(SLOTS));
+        return stripes.get(index);
+    }
+
+    // the index of the bucket counting the value
+    static int bucketOf(final long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // the highest value counted in the bucket
+    static long highestValueOf(final int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        final int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        final long lowest = (long) (bucket - (shift << SUB_BUCKET_BITS)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * <p>An immutable view of the times recorded by a {@link LatencyRecorder}.</p>
+     *
+     * @since 3.8
+     */
+    public static final class Snapshot {
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(final long[] buckets, final long sum, final long max) {
+            this.buckets = buckets;
+            long total = 0;
+            for (final long bucket : buckets) {
+                total += bucket;
+            }
+            this.count = total;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * <p>Gets the number of times recorded.</p>
+         *
+         * @return the number of times
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * <p>Gets the mean of the times recorded.</p>
+         *
+         * @return the mean in nanoseconds, 0 if no time was recorded
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * <p>Gets the longest time recorded.</p>
+         *
+         * @return the exact longest time in nanoseconds, 0 if no time was recorded
+         */
+        public long getMaxNanos() {
+            return max;
+        }
+
+        /**
+         * <p>Gets a percentile of the times recorded, such as 50 for the median or
+         * 99.9 for the time that 999 of every thousand times are within.</p>
+         *
+         * <p>The result is the highest time counted in the same bucket as the exact
+         * percentile, so it is at most about 3% over it, and never over the longest time.</p>
+         *
+         * @param percentile  the percentile, over 0 and at most 100
+         * @return the percentile in nanoseconds, 0 if no time was recorded
+         * @throws IllegalArgumentException if the percentile is out of range
+         */
+        public long getPercentile(final double percentile) {
+            Validate.isTrue(percentile > 0 && percentile <= 100, "percentile must be over 0 and at most 100: %s",
+                    percentile);
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * <p>Gets a percentile of the times recorded in a time unit.</p>
+         *
+         * @param percentile  the percentile, over 0 and at most 100
+         * @param timeUnit  the unit of the result, not null
+         * @return the percentile in the unit, rounded down
+         * @throws IllegalArgumentException if the percentile is out of range
+         * @see #getPercentile(double)
+         */
+        public long getPercentile(final double percentile, final TimeUnit timeUnit) {
+            return timeUnit.convert(getPercentile(percentile), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "LatencyRecorder.Snapshot[count=" + count + ",p50=" + getPercentile(50) + "ns,p99="
+                    + getPercentile(99) + "ns,p999=" + getPercentile(99.9) + "ns,max=" + max + "ns]";
+        }
+    }
+
+}
@@ -0,0 +1,448 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>Times the named stages of a task, such as the handling of a request, as laps
+ * and nested scopes, and adds up the stages over many tasks.</p>
+ *
+ * <p>Stage names are registered once with {@link #getStage(String)}, which gives the
+ * id the other methods take. The times are kept in primitive arrays that are reused
+ * from one task to the next, so timing a lap or a scope allocates nothing once the
+ * arrays have grown to fit.</p>
+ *
+ * <pre>
+ * final StageTimer timer = new StageTimer();
+ * final int parse = timer.getStage("parse");
+ * final int handle = timer.getStage("handle");
+ * final int query = timer.getStage("query");
+ *
+ * timer.start();
+ * parseRequest();
+ * timer.lap(parse);
+ * handleRequest();    // calls timer.enter(query) and timer.exit() around each query
+ * timer.lap(handle);
+ * timer.stop();
+ * log.debug(timer.toString());   // total=12.345ms parse=0.210ms handle=12.135ms query=9.012ms(3)
+ * </pre>
+ *
+ * <p>A lap lasts from the previous lap, or the start, to the call of {@link #lap(int)}.
+ * A scope lasts from {@link #enter(int)} to the matching {@link #exit()}, and scopes can
+ * nest. {@link #stop()} adds the times of the task to the totals.</p>
+ *
+ * <p>This class is not thread-safe; use one timer per thread.</p>
+ *
+ * @since 3.8
+ */
+public class StageTimer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Map<String, Integer> stageIds = new HashMap<>();
+    private String[] stageNames = new String[DEFAULT_CAPACITY];
+    private int stageCount;
+
+    // the times of the current task, by stage
+    private long[] stageNanos = new long[DEFAULT_CAPACITY];
+    private int[] stageTimes = new int[DEFAULT_CAPACITY];
+
+    // the laps of the current task, in order
+    private int[] lapStages = new int[DEFAULT_CAPACITY];
+    private long[] lapNanos = new long[DEFAULT_CAPACITY];
+    private int lapCount;
+
+    // the scopes entered and not yet exited
+    private int[] scopeStages = new int[DEFAULT_CAPACITY];
+    private long[] scopeStarts = new long[DEFAULT_CAPACITY];
+    private int depth;
+
+    private boolean running;
+    private long startTime;
+    private long lapTime;
+    private long stopTime;
+
+    // the times of all stopped tasks, by stage
+    private long[] totalNanos = new long[DEFAULT_CAPACITY];
+    private long[] totalTimes = new long[DEFAULT_CAPACITY];
+    private long totalTaskNanos;
+    private long taskCount;
+
+    /**
+     * <p>Gets the id of a stage, registering the name if it is new.</p>
+     *
+     * @param name  the name of the stage, not null
+     * @return the id of the stage, from 0 up in the order the names were registered
+     * @throws NullPointerException if the name is null
+     */
+    public int getStage(final String name) {
+        Validate.notNull(name, "name must not be null");
+        final Integer id = stageIds.get(name);
+        if (id != null) {
+            return id.intValue();
+        }
+        if (stageCount == stageNames.length) {
+            final int capacity = stageCount * 2;
+            stageNames = Arrays.copyOf(stageNames, capacity);
+            stageNanos = Arrays.copyOf(stageNanos, capacity);
+            stageTimes = Arrays.copyOf(stageTimes, capacity);
+            totalNanos = Arrays.copyOf(totalNanos, capacity);
+            totalTimes = Arrays.copyOf(totalTimes, capacity);
+        }
+        stageNames[stageCount] = name;
+        stageIds.put(name, Integer.valueOf(stageCount));
+        return stageCount++;
+    }
+
+    /**
+     * <p>Gets the name of a stage.</p>
+     *
+     * @param stage  the id of the stage
+     * @return the name of the stage
+     * @throws IllegalArgumentException if the stage is not registered
+     */
+    public String getStageName(final int stage) {
+        checkStage(stage);
+        return stageNames[stage];
+    }
+
+    /**
+     * <p>Gets the number of stages registered.</p>
+     *
+     * @return the number of stages
+     */
+    public int getStageCount() {
+        return stageCount;
+    }
+
+    /**
+     * <p>Starts timing a task, clearing the times of the previous task.</p>
+     *
+     * @throws IllegalStateException if the timer is already running
+     */
+    public void start() {
+        if (running) {
+            throw new IllegalStateException("StageTimer already started. ");
+        }
+        Arrays.fill(stageNanos, 0, stageCount, 0);
+        Arrays.fill(stageTimes, 0, stageCount, 0);
+        lapCount = 0;
+        depth = 0;
+        startTime = System.nanoTime();
+        lapTime = startTime;
+        running = true;
+    }
+
+    /**
+     * <p>Ends a lap of a stage, which lasted from the previous lap, or the start.</p>
+     *
+     * @param stage  the id of the stage
+     * @return the time of the lap in nanoseconds
+     * @throws IllegalArgumentException if the stage is not registered
+     * @throws IllegalStateException if the timer is not running
+     */
+    public long lap(final int stage) {
+        checkStage(stage);
+        checkRunning();
+        final long now = System.nanoTime();
+        final long nanos = now - lapTime;
+        lapTime = now;
+        if (lapCount == lapStages.length) {
+            lapStages = Arrays.copyOf(lapStages, lapCount * 2);
+            lapNanos = Arrays.copyOf(lapNanos, lapCount * 2);
+        }
+        lapStages[lapCount] = stage;
+        lapNanos[lapCount] = nanos;
+        lapCount++;
+        add(stage, nanos);
+        return nanos;
+    }
+
+    /**
+     * <p>Enters a scope of a stage, which lasts until the matching {@link #exit()}.</p>
+     *
+     * @param stage  the id of the stage
+     * @throws IllegalArgumentException if the stage is not registered
+     * @throws IllegalStateException if the timer is not running
+     */
+    public void enter(final int stage) {
+        checkStage(stage);
+        checkRunning();
+        if (depth == scopeStages.length) {
+            scopeStages = Arrays.copyOf(scopeStages, depth * 2);
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+        }
+        scopeStages[depth] = stage;
+        scopeStarts[depth] = System.nanoTime();
+        depth++;
+    }
+
+    /**
+     * <p>Exits the scope entered last, adding its time to its stage.</p>
+     *
+     * @return the time of the scope in nanoseconds
+     * @throws IllegalStateException if the timer is not running or no scope is entered
+     */
+    public long exit() {
+        checkRunning();
+        if (depth == 0) {
+            throw new IllegalStateException("StageTimer has no scope to exit. ");
+        }
+        depth--;
+        final long nanos = System.nanoTime() - scopeStarts[depth];
+        add(scopeStages[depth], nanos);
+        return nanos;
+    }
+
+    /**
+     * <p>Stops timing the task, adding its times to the totals.</p>
+     *
+     * @throws IllegalStateException if the timer is not running or a scope is not exited
+     */
+    public void stop() {
+        checkRunning();
+        if (depth != 0) {
+            throw new IllegalStateException("StageTimer has a scope of " + stageNames[scopeStages[depth - 1]]
+                    + " to exit. ");
+        }
+        stopTime = System.nanoTime();
+        running = false;
+        for (int stage = 0; stage < stageCount; stage++) {
+            totalNanos[stage] += stageNanos[stage];
+            totalTimes[stage] += stageTimes[stage];
+        }
+        totalTaskNanos += stopTime - startTime;
+        taskCount++;
+    }
+
+    /**
+     * <p>Clears the totals of all tasks, keeping the registered stages.</p>
+     */
+    public void resetTotals() {
+        Arrays.fill(totalNanos, 0, stageCount, 0);
+        Arrays.fill(totalTimes, 0, stageCount, 0);
+        totalTaskNanos = 0;
+        taskCount = 0;
+    }
+
+    private void add(final int stage, final long nanos) {
+        stageNanos[stage] += nanos;
+        stageTimes[stage]++;
+    }
+
+    private void checkStage(final int stage) {
+        Validate.isTrue(stage >= 0 && stage < stageCount, "Unknown stage: %d", stage);
+    }
+
+    private void checkRunning() {
+        if (!running) {
+            throw new IllegalStateException("StageTimer is not running. ");
+        }
+    }
+
+    /**
+     * <p>Tests whether the timer is timing a task.</p>
+     *
+     * @return {@code true} between {@link #start()} and {@link #stop()}
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * <p>Gets the time of the current task, so far if it is running.</p>
+     *
+     * @return the time in nanoseconds, 0 if no task was started
+     */
+    public long getNanoTime() {
+        if (running) {
+            return System.nanoTime() - startTime;
+        }
+        return stopTime - startTime;
+    }
+
+    /**
+     * <p>Gets the time of a stage in the current task, adding up its laps and scopes.</p>
+     *
+     * @param stage  the id of the stage
+     * @return the time in nanoseconds
+     * @throws IllegalArgumentException if the stage is not registered
+     */
+    public long getStageNanoTime(final int stage) {
+        checkStage(stage);
+        return stageNanos[stage];
+    }
+
+    /**
+     * <p>Gets the number of laps and scopes of a stage in the current task.</p>
+     *
+     * @param stage  the id of the stage
+     * @return the number of laps and scopes
+     * @throws IllegalArgumentException if the stage is not registered
+     */
+    public int getStageTimes(final int stage) {
+        checkStage(stage);
+        return stageTimes[stage];
+    }
+
+    /**
+     * <p>Gets the number of laps of the current task.</p>
+     *
+     * @return the number of laps
+     */
+    public int getLapCount() {
+        return lapCount;
+    }
+
+    /**
+     * <p>Gets the stage of a lap of the current task.</p>
+     *
+     * @param lap  the index of the lap, from 0
+     * @return the id of the stage
+     * @throws IndexOutOfBoundsException if there is no such lap
+     */
+    public int getLapStage(final int lap) {
+        checkLap(lap);
+        return lapStages[lap];
+    }
+
+    /**
+     * <p>Gets the time of a lap of the current task.</p>
+     *
+     * @param lap  the index of the lap, from 0
+     * @return the time in nanoseconds
+     * @throws IndexOutOfBoundsException if there is no such lap
+     */
+    public long getLapNanoTime(final int lap) {
+        checkLap(lap);
+        return lapNanos[lap];
+    }
+
+    private void checkLap(final int lap) {
+        if (lap < 0 || lap >= lapCount) {
+            throw new IndexOutOfBoundsException("Lap: " + lap + ", Laps: " + lapCount);
+        }
+    }
+
+    /**
+     * <p>Gets the number of tasks stopped since the totals were reset.</p>
+     *
+     * @return the number of tasks
+     */
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * <p>Gets the time of a stage over all stopped tasks.</p>
+     *
+     * @param stage  the id of the stage
+     * @return the time in nanoseconds
+     * @throws IllegalArgumentException if the stage is not registered
+     */
+    public long getTotalStageNanoTime(final int stage) {
+        checkStage(stage);
+        return totalNanos[stage];
+    }
+
+    /**
+     * <p>Gets the number of laps and scopes of a stage over all stopped tasks.</p>
+     *
+     * @param stage  the id of the stage
+     * @return the number of laps and scopes
+     * @throws IllegalArgumentException if the stage is not registered
+     */
+    public long getTotalStageTimes(final int stage) {
+        checkStage(stage);
+        return totalTimes[stage];
+    }
+
+    /**
+     * <p>Appends the times of the current task, such as
+     * {@code total=12.345ms parse=0.210ms query=9.012ms(3)}, leaving out stages that did
+     * not run and giving the number of times of stages that ran more than once.</p>
+     *
+     * @param buffer  the buffer to append to, not null
+     * @return the buffer
+     */
+    public StringBuilder appendTo(final StringBuilder buffer) {
+        appendMillis(buffer.append("total="), getNanoTime());
+        for (int stage = 0; stage < stageCount; stage++) {
+            if (stageTimes[stage] != 0) {
+                appendStage(buffer, stage, stageNanos[stage], stageTimes[stage]);
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * <p>Appends the mean times per task of all stopped tasks, such as
+     * {@code tasks=100 total=12.345ms parse=0.210ms query=9.012ms}, leaving out stages
+     * that never ran.</p>
+     *
+     * @param buffer  the buffer to append to, not null
+     * @return the buffer
+     */
+    public StringBuilder appendTotalsTo(final StringBuilder buffer) {
+        buffer.append("tasks=").append(taskCount);
+        final long tasks = Math.max(taskCount, 1);
+        appendMillis(buffer.append(" total="), totalTaskNanos / tasks);
+        for (int stage = 0; stage < stageCount; stage++) {
+            if (totalTimes[stage] != 0) {
+                appendStage(buffer, stage, totalNanos[stage] / tasks, 1);
+            }
+        }
+        return buffer;
+    }
+
+    private void appendStage(final StringBuilder buffer, final int stage, final long nanos, final long times) {
+        appendMillis(buffer.append(' ').append(stageNames[stage]).append('='), nanos);
+        if (times > 1) {
+            buffer.append('(').append(times).append(')');
+        }
+    }
+
+    // appends nanoseconds as milliseconds with three decimals
+    static StringBuilder appendMillis(final StringBuilder buffer, final long nanos) {
+        final long micros = nanos / 1000;
+        final long fraction = micros % 1000;
+        buffer.append(micros / 1000).append('.');
+        if (fraction < 100) {
+            buffer.append('0');
+            if (fraction < 10) {
+                buffer.append('0');
+            }
+        }
+        return buffer.append(fraction).append("ms");
+    }
+
+    /**
+     * <p>Gets the times of the current task, as {@link #appendTo(StringBuilder)} gives them.</p>
+     *
+     * @return the times of the current task
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Test to show the latency of the first call to each {@link StringEscapeUtils} method,
+ * class initialization and building of the translator included. Every measurement
+ * runs in a fresh JVM, so nothing is loaded beforehand.
+ */
+@Deprecated
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StringEscapeUtilsStartupBenchmark {
+
+    @Param({"escapeJava", "escapeJson", "escapeXml10", "escapeHtml4", "unescapeJava", "unescapeHtml4",
+        "unescapeXml", "escapeCsv"})
+    public String method;
+
+    @Benchmark
+    public String testFirstCall() {
+        switch (method) {
+        case "escapeJava":
+            return StringEscapeUtils.escapeJava("first \"call\"");
+        case "escapeJson":
+            return StringEscapeUtils.escapeJson("first \"call\"");
+        case "escapeXml10":
+            return StringEscapeUtils.escapeXml10("first <call>");
+        case "escapeHtml4":
+            return StringEscapeUtils.escapeHtml4("first <call>");
+        case "unescapeJava":
+            return StringEscapeUtils.unescapeJava("first \\\"call\\\"");
+        case "unescapeHtml4":
+            return StringEscapeUtils.unescapeHtml4("first &lt;call&gt;");
+        case "unescapeXml":
+            return StringEscapeUtils.unescapeXml("first &lt;call&gt;");
+        case "escapeCsv":
+            return StringEscapeUtils.escapeCsv("first,call");
+        default:
+            throw new IllegalArgumentException(method);
+        }
+    }
+}
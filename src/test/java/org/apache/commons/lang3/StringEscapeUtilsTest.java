@@ -20,20 +20,29 @@
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
+import org.apache.commons.lang3.text.StrBuilder;
+import org.apache.commons.lang3.text.translate.AggregateTranslator;
 import org.apache.commons.lang3.text.translate.CharSequenceTranslator;
+import org.apache.commons.lang3.text.translate.LazyTranslator;
 import org.apache.commons.lang3.text.translate.NumericEntityEscaper;
+import org.apache.commons.lang3.text.translate.UnicodeUnescaper;
 import org.junit.Test;
 
 /**
@@ -671,4 +680,167 @@ public void testUnescapeJson() {
 
         assertEquals(expected, StringEscapeUtils.unescapeJson(input));
     }
+
+    @Test
+    public void testCleanInputIsReturnedAsIs() {
+        final String clean = "nothing to escape here 123";
+        assertSame(clean, StringEscapeUtils.escapeJson(clean));
+        assertSame(clean, StringEscapeUtils.escapeXml10(clean));
+        assertSame(clean, StringEscapeUtils.escapeHtml4(clean));
+        assertSame(clean, StringEscapeUtils.unescapeJava(clean));
+        assertSame(clean, StringEscapeUtils.unescapeHtml4(clean));
+        assertEquals(clean, StringEscapeUtils.ESCAPE_JSON.translate(new StringBuilder(clean)));
+    }
+
+    @Test
+    public void testCleanPrefixAndSuffixAreKept() {
+        assertEquals("clean prefix &lt;b&gt; clean suffix", StringEscapeUtils.escapeXml10("clean prefix <b> clean suffix"));
+        assertEquals("a\\\\b\\u00E9\\uD83D\\uDE00c", StringEscapeUtils.escapeJava("a\\b\u00E9\uD83D\uDE00c"));
+        assertEquals("\uD83D\uDE00 &amp", StringEscapeUtils.unescapeHtml4("\uD83D\uDE00 &amp"));
+    }
+
+    @Test
+    public void testEscapeIntoStringBuilder() {
+        final StringBuilder sb = new StringBuilder("[");
+        StringEscapeUtils.escapeJson("a\"b", sb);
+        sb.append(',');
+        StringEscapeUtils.escapeJson(null, sb);
+        StringEscapeUtils.escapeXml10(new StringBuilder("<x/>"), sb);
+        sb.append(',');
+        StringEscapeUtils.unescapeHtml4("&lt;&eacute;&gt;", sb);
+        sb.append(']');
+        assertEquals("[a\\\"b,&lt;x/&gt;,<\u00E9>]", sb.toString());
+        try {
+            StringEscapeUtils.escapeJava("foo", null);
+            fail();
+        } catch (final IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void testTranslateToAppendable() throws IOException {
+        final StrBuilder strBuilder = new StrBuilder();
+        StringEscapeUtils.ESCAPE_HTML4.translate("caf\u00E9 & co", strBuilder);
+        assertEquals("caf&eacute; &amp; co", strBuilder.toString());
+
+        final StringBuffer buffer = new StringBuffer();
+        StringEscapeUtils.ESCAPE_JAVA.translate("tab\there\uD83D\uDE00", buffer);
+        assertEquals("tab\\there\\uD83D\\uDE00", buffer.toString());
+
+        final StringWriter writer = new StringWriter();
+        StringEscapeUtils.UNESCAPE_XML.translate("&quot;&#65;&quot;", (Appendable) writer);
+        assertEquals("\"A\"", writer.toString());
+
+        try {
+            StringEscapeUtils.ESCAPE_JAVA.translate("foo", (Appendable) null);
+            fail();
+        } catch (final IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void testTranslateStream() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 50000; i++) {
+            // vary the offsets so that entities straddle the window boundaries
+            sb.append(StringUtils.repeat('x', i % 13)).append("&eacute;&#x1F600;&#0000065;\\u00e9\\\"\uD83D\uDE00<>\u0001");
+        }
+        final String input = sb.toString();
+        for (final CharSequenceTranslator translator : new CharSequenceTranslator[] {
+                StringEscapeUtils.UNESCAPE_HTML4, StringEscapeUtils.ESCAPE_HTML4, StringEscapeUtils.ESCAPE_XML10,
+                StringEscapeUtils.ESCAPE_JAVA, StringEscapeUtils.UNESCAPE_JAVA, StringEscapeUtils.ESCAPE_CSV }) {
+            final StringWriter writer = new StringWriter();
+            translator.translateStream(new StringReader(input), writer);
+            assertEquals(translator.translate(input), writer.toString());
+        }
+
+        final StringWriter writer = new StringWriter();
+        final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        StringEscapeUtils.UNESCAPE_XML.translateStream(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                StandardCharsets.UTF_8, writer);
+        assertEquals(StringEscapeUtils.unescapeXml(input), writer.toString());
+    }
+
+    @Test
+    public void testTranslateStreamLongMatches() throws IOException {
+        final String input = "a&#" + StringUtils.repeat('0', 20000) + "65;b\\" + StringUtils.repeat('u', 20000) + "0041c";
+        final StringWriter writer = new StringWriter();
+        StringEscapeUtils.UNESCAPE_HTML4.translateStream(new StringReader(input), writer);
+        assertEquals("aAb\\" + StringUtils.repeat('u', 20000) + "0041c", writer.toString());
+        writer.getBuffer().setLength(0);
+        StringEscapeUtils.UNESCAPE_JAVA.translateStream(new StringReader(input), writer);
+        assertEquals(StringEscapeUtils.unescapeJava(input), writer.toString());
+    }
+
+    @Test
+    public void testTranslateStreamSubclassReadingLength() throws IOException {
+        final CharSequenceTranslator translator = new UnicodeUnescaper() {
+            @Override
+            public int translate(final CharSequence input, final int index, final Writer out) throws IOException {
+                if (input.charAt(index) == '%' && input.length() - index <= 10) {
+                    out.write("end");
+                    return 1;
+                }
+                return super.translate(input, index, out);
+            }
+        };
+        final String input = StringUtils.repeat("xxxxxx%", 5000);
+        final StringWriter writer = new StringWriter();
+        translator.translateStream(new StringReader(input), writer);
+        assertEquals(translator.translate(input), writer.toString());
+    }
+
+    @Test
+    public void testTranslateStreamBadEscape() throws IOException {
+        final StringReader reader = new StringReader("x\\u12zz" + StringUtils.repeat('x', 1000000));
+        try {
+            StringEscapeUtils.UNESCAPE_JAVA.translateStream(reader, new StringWriter());
+            fail();
+        } catch (final IllegalArgumentException ex) {
+        }
+        // the escape failed in the first window, without reading the rest of the input
+        assertTrue(reader.skip(Long.MAX_VALUE) > 900000);
+    }
+
+    @Test
+    public void testSubclassTranslatingMoreChars() {
+        final CharSequenceTranslator unescaper = new PercentUnicodeUnescaper();
+        assertEquals("aAbC", unescaper.translate("a%41b\\u0043"));
+        assertEquals("aAb", unescaper.translate("a%41b"));
+    }
+
+    @Test
+    public void testAggregateWithSubclassTranslatingMoreChars() {
+        final CharSequenceTranslator aggregate = new AggregateTranslator(
+                StringEscapeUtils.UNESCAPE_JAVA, new PercentUnicodeUnescaper());
+        assertEquals("aAbC\u4E2D", aggregate.translate("a%41b\\u0043\u4E2D"));
+        assertEquals("\u4E2DA", aggregate.translate("\u4E2D%41"));
+    }
+
+    @Test
+    public void testLazyWithSubclassTranslatingMoreChars() {
+        final CharSequenceTranslator aggregate = new AggregateTranslator(StringEscapeUtils.UNESCAPE_JAVA,
+                new LazyTranslator() {
+                    @Override
+                    protected CharSequenceTranslator initialize() {
+                        return new PercentUnicodeUnescaper();
+                    }
+                });
+        assertEquals("aAbC\u4E2D", aggregate.translate("a%41b\\u0043\u4E2D"));
+    }
+
+    /**
+     * A translator outside the package that also unescapes {@code %XX}, which
+     * {@link UnicodeUnescaper} does not start a match with.
+     */
+    private static class PercentUnicodeUnescaper extends UnicodeUnescaper {
+        @Override
+        public int translate(final CharSequence input, final int index, final Writer out) throws IOException {
+            if (input.charAt(index) == '%' && index + 2 < input.length()) {
+                out.write(Integer.parseInt(input.subSequence(index + 1, index + 3).toString(), 16));
+                return 3;
+            }
+            return super.translate(input, index, out);
+        }
+    }
 }
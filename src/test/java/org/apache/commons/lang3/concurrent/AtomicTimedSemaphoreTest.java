@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for AtomicTimedSemaphore.
+ */
+public class AtomicTimedSemaphoreTest {
+    /** Constant for the time period. */
+    private static final long PERIOD = 500;
+
+    /** Constant for the time unit. */
+    private static final TimeUnit UNIT = TimeUnit.MILLISECONDS;
+
+    /** Constant for the default limit. */
+    private static final int LIMIT = 10;
+
+    /**
+     * Tests creating a new instance.
+     */
+    @Test
+    public void testInit() {
+        final AtomicTimedSemaphore semaphore = new AtomicTimedSemaphore(PERIOD, UNIT, LIMIT);
+        assertEquals("Wrong period", PERIOD, semaphore.getPeriod());
+        assertEquals("Wrong unit", UNIT, semaphore.getUnit());
+        assertEquals("Statistic available", 0, semaphore.getLastAcquiresPerPeriod());
+        assertEquals("Average available", 0.0, semaphore.getAverageCallsPerPeriod(), .05);
+        assertEquals("Acquires available", 0, semaphore.getAcquireCount());
+        assertEquals("Wrong permits", LIMIT, semaphore.getAvailablePermits());
+        assertFalse("Already shutdown", semaphore.isShutdown());
+        assertEquals("Wrong limit", LIMIT, semaphore.getLimit());
+    }
+
+    /**
+     * Tries to create an instance with a zero period.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidPeriod() {
+        new AtomicTimedSemaphore(0L, UNIT, LIMIT);
+    }
+
+    /**
+     * Tests that the limit holds within a period and is reset by the next one.
+     */
+    @Test
+    public void testTryAcquireLimit() {
+        final ClockedSemaphore semaphore = new ClockedSemaphore(3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue("Could not acquire " + i, semaphore.tryAcquire());
+        }
+        assertFalse("Limit not enforced", semaphore.tryAcquire());
+        assertEquals("Wrong acquire count", 3, semaphore.getAcquireCount());
+        assertEquals("Wrong permits", 0, semaphore.getAvailablePermits());
+
+        semaphore.time += semaphore.periodNanos() - 1;
+        assertFalse("Period ended early", semaphore.tryAcquire());
+        semaphore.time += 1;
+        assertEquals("Acquires not reset", 0, semaphore.getAcquireCount());
+        assertEquals("Last period not seen", 3, semaphore.getLastAcquiresPerPeriod());
+        assertTrue("Not reset", semaphore.tryAcquire());
+        assertEquals("Wrong acquire count", 1, semaphore.getAcquireCount());
+        assertEquals("Wrong last acquires", 3, semaphore.getLastAcquiresPerPeriod());
+        assertEquals("Wrong average", 3.0, semaphore.getAverageCallsPerPeriod(), .005);
+    }
+
+    /**
+     * Tests the statistics when periods pass without acquires.
+     */
+    @Test
+    public void testIdlePeriods() {
+        final ClockedSemaphore semaphore = new ClockedSemaphore(LIMIT);
+        for (int i = 0; i < 4; i++) {
+            semaphore.tryAcquire();
+        }
+        semaphore.time += semaphore.periodNanos();
+        semaphore.tryAcquire();
+        semaphore.tryAcquire();
+        semaphore.time += 3 * semaphore.periodNanos();
+        assertEquals("Wrong last acquires", 0, semaphore.getLastAcquiresPerPeriod());
+        assertEquals("Wrong average", 6.0 / 4, semaphore.getAverageCallsPerPeriod(), .005);
+        assertTrue(semaphore.tryAcquire());
+        assertEquals("Wrong last acquires", 0, semaphore.getLastAcquiresPerPeriod());
+        assertEquals("Wrong average", 6.0 / 4, semaphore.getAverageCallsPerPeriod(), .005);
+    }
+
+    /**
+     * Tests that there is no limit with NO_LIMIT, and that the limit can be changed.
+     */
+    @Test
+    public void testNoLimitAndSetLimit() {
+        final ClockedSemaphore semaphore = new ClockedSemaphore(AtomicTimedSemaphore.NO_LIMIT);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(semaphore.tryAcquire());
+        }
+        semaphore.setLimit(1001);
+        assertTrue(semaphore.tryAcquire());
+        assertFalse(semaphore.tryAcquire());
+        semaphore.setLimit(-1);
+        assertTrue(semaphore.tryAcquire());
+    }
+
+    /**
+     * Tests that acquire waits for the next period.
+     */
+    @Test
+    public void testAcquireWaits() throws InterruptedException {
+        final AtomicTimedSemaphore semaphore = new AtomicTimedSemaphore(50, UNIT, 1);
+        final long start = System.nanoTime();
+        semaphore.acquire();
+        semaphore.acquire();
+        semaphore.acquire();
+        assertTrue("Did not wait", System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals("Wrong acquire count", 1, semaphore.getAcquireCount());
+    }
+
+    /**
+     * Tests that a waiting acquire can be interrupted.
+     */
+    @Test
+    public void testAcquireInterrupted() throws InterruptedException {
+        final AtomicTimedSemaphore semaphore = new AtomicTimedSemaphore(1, TimeUnit.HOURS, 1);
+        semaphore.acquire();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    semaphore.acquire();
+                } catch (final InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        };
+        t.start();
+        t.interrupt();
+        assertTrue("Not interrupted", interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that concurrent acquires never exceed the limit.
+     */
+    @Test
+    public void testConcurrentTryAcquire() throws InterruptedException {
+        final int limit = 5000;
+        final AtomicTimedSemaphore semaphore = new AtomicTimedSemaphore(1, TimeUnit.HOURS, limit);
+        final AtomicInteger acquired = new AtomicInteger();
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 2000; j++) {
+                        if (semaphore.tryAcquire()) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        assertEquals("Wrong number of acquires", limit, acquired.get());
+        assertEquals("Wrong acquire count", limit, semaphore.getAcquireCount());
+    }
+
+    /**
+     * Tests that acquires fail after a shutdown.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testTryAcquireAfterShutdown() {
+        final AtomicTimedSemaphore semaphore = new AtomicTimedSemaphore(PERIOD, UNIT, LIMIT);
+        semaphore.shutdown();
+        assertTrue("Not shutdown", semaphore.isShutdown());
+        semaphore.tryAcquire();
+    }
+
+    /**
+     * A semaphore whose clock only moves when the test moves it.
+     */
+    private static class ClockedSemaphore extends AtomicTimedSemaphore {
+        long time = 123456789L;
+
+        ClockedSemaphore(final int limit) {
+            super(PERIOD, UNIT, limit);
+        }
+
+        long periodNanos() {
+            return UNIT.toNanos(PERIOD);
+        }
+
+        @Override
+        long nanoTime() {
+            return time;
+        }
+    }
+}
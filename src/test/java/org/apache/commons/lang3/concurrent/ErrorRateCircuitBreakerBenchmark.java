@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Test to show whether recording calls in {@link ErrorRateCircuitBreaker} stays cheap
+ * when many threads share one breaker, compared to counting them in
+ * {@link EventCountCircuitBreaker}. The breakers never open, so a failure always counts
+ * the whole window, which a success never does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+public class ErrorRateCircuitBreakerBenchmark {
+
+    @Param({"10", "60"})
+    public int buckets;
+
+    private ErrorRateCircuitBreaker errorRate;
+    private EventCountCircuitBreaker eventCount;
+    private EventCountCircuitBreaker stripedEventCount;
+
+    @Setup
+    public void setup() {
+        errorRate = new ErrorRateCircuitBreaker.Builder().window(1, TimeUnit.MINUTES).buckets(buckets)
+                .minimumCalls(Integer.MAX_VALUE).build();
+        eventCount = new EventCountCircuitBreaker(Integer.MAX_VALUE, 1, TimeUnit.MINUTES);
+        stripedEventCount = new EventCountCircuitBreaker(Integer.MAX_VALUE, 1, TimeUnit.MINUTES,
+                Integer.MAX_VALUE, 1, TimeUnit.MINUTES, true);
+    }
+
+    @Benchmark
+    public boolean testRecordSuccess() {
+        return errorRate.recordSuccess(1000);
+    }
+
+    @Benchmark
+    public boolean testRecordFailure() {
+        return errorRate.recordFailure(1000);
+    }
+
+    @Benchmark
+    public boolean testCheckState() {
+        return errorRate.checkState();
+    }
+
+    @Benchmark
+    public boolean testEventCount() {
+        return eventCount.incrementAndCheckState();
+    }
+
+    @Benchmark
+    public boolean testStripedEventCount() {
+        return stripedEventCount.incrementAndCheckState();
+    }
+}
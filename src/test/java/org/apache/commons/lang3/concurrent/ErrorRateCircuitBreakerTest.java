@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@code ErrorRateCircuitBreaker}.
+ */
+public class ErrorRateCircuitBreakerTest {
+    /** Constant for a second in nanoseconds. */
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** Constant for the minimum number of calls. */
+    private static final int MINIMUM_CALLS = 10;
+
+    /** Constant for the number of probe calls. */
+    private static final int PROBE_CALLS = 3;
+
+    /**
+     * Creates a builder with a window of 10 seconds in 10 buckets, opening at half of
+     * the calls failing or being slow, and open for 5 seconds.
+     */
+    private static ErrorRateCircuitBreaker.Builder builder() {
+        return new ErrorRateCircuitBreaker.Builder().window(10, TimeUnit.SECONDS).buckets(10)
+                .failureRateThreshold(0.5).minimumCalls(MINIMUM_CALLS)
+                .slowCallDuration(1, TimeUnit.SECONDS).slowCallRateThreshold(0.5)
+                .openDuration(5, TimeUnit.SECONDS).probeCalls(PROBE_CALLS);
+    }
+
+    /**
+     * Tests the settings of the builder and its defaults.
+     */
+    @Test
+    public void testBuilder() {
+        final ErrorRateCircuitBreaker breaker = builder().build();
+        assertEquals("Wrong window", 10 * SECOND, breaker.getWindow());
+        assertEquals("Wrong buckets", 10, breaker.getBuckets());
+        assertEquals("Wrong failure rate threshold", 0.5, breaker.getFailureRateThreshold(), 0);
+        assertEquals("Wrong minimum calls", MINIMUM_CALLS, breaker.getMinimumCalls());
+        assertEquals("Wrong slow call duration", SECOND, breaker.getSlowCallDuration());
+        assertEquals("Wrong slow call rate threshold", 0.5, breaker.getSlowCallRateThreshold(), 0);
+        assertEquals("Wrong open duration", 5 * SECOND, breaker.getOpenDuration());
+        assertEquals("Wrong probe calls", PROBE_CALLS, breaker.getProbeCalls());
+        assertTrue("Not closed", breaker.isClosed());
+
+        final ErrorRateCircuitBreaker defaults = new ErrorRateCircuitBreaker.Builder().build();
+        assertEquals("Wrong default window", 60 * SECOND, defaults.getWindow());
+        assertEquals("Wrong default minimum calls", 100, defaults.getMinimumCalls());
+        assertEquals("Wrong default slow call duration", Long.MAX_VALUE, defaults.getSlowCallDuration());
+    }
+
+    /**
+     * Tries to set invalid values.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderInvalidRate() {
+        new ErrorRateCircuitBreaker.Builder().failureRateThreshold(1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderInvalidWindow() {
+        new ErrorRateCircuitBreaker.Builder().window(0, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testBuilderNullUnit() {
+        new ErrorRateCircuitBreaker.Builder().openDuration(1, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderTooManyBuckets() {
+        new ErrorRateCircuitBreaker.Builder().window(5, TimeUnit.NANOSECONDS).buckets(10).build();
+    }
+
+    /**
+     * Tests that the breaker does not open below the minimum number of calls, however
+     * many of them fail.
+     */
+    @Test
+    public void testNotOpeningUnderMinimumCalls() {
+        final ClockedBreaker breaker = new ClockedBreaker();
+        for (int i = 0; i < MINIMUM_CALLS - 1; i++) {
+            assertTrue("Opened", breaker.recordFailure(0));
+        }
+        assertEquals("Wrong call count", MINIMUM_CALLS - 1, breaker.getCallCount());
+        assertEquals("Wrong failure rate", 1.0, breaker.getFailureRate(), 0);
+        assertTrue("Not closed", breaker.checkState());
+    }
+
+    /**
+     * Tests that the breaker opens at the failure rate threshold whatever the volume.
+     */
+    @Test
+    public void testOpeningAtFailureRate() {
+        for (final int calls : new int[] {MINIMUM_CALLS, 10000}) {
+            final ClockedBreaker breaker = new ClockedBreaker();
+            for (int i = 0; i < calls / 2; i++) {
+                assertTrue(breaker.recordSuccess(0));
+            }
+            for (int i = 0; i < calls / 2 - 1; i++) {
+                assertTrue("Opened under the threshold", breaker.recordFailure(0));
+            }
+            assertFalse("Not opened at the threshold", breaker.incrementAndCheckState(Boolean.TRUE));
+            assertTrue("Not open", breaker.isOpen());
+            assertFalse("Calls let through", breaker.checkState());
+        }
+    }
+
+    /**
+     * Tests that slow calls open the breaker at their own threshold.
+     */
+    @Test
+    public void testOpeningAtSlowCallRate() {
+        final ClockedBreaker breaker = new ClockedBreaker();
+        for (int i = 0; i < MINIMUM_CALLS / 2; i++) {
+            breaker.recordSuccess(0);
+        }
+        for (int i = 0; i < MINIMUM_CALLS / 2 - 1; i++) {
+            assertTrue(breaker.recordSuccess(SECOND));
+        }
+        assertEquals("Wrong slow call rate", (MINIMUM_CALLS / 2 - 1) / (MINIMUM_CALLS - 1.0),
+                breaker.getSlowCallRate(), 1e-9);
+        assertFalse("Not opened", breaker.recordSuccess(SECOND));
+    }
+
+    /**
+     * Tests that calls drop out of the sliding window bucket by bucket.
+     */
+    @Test
+    public void testSlidingWindow() {
+        final ClockedBreaker breaker = new ClockedBreaker();
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            breaker.recordFailure(0);
+            breaker.recordSuccess(0);
+            breaker.recordSuccess(0);
+            breaker.time += SECOND / 2;
+        }
+        assertEquals("Wrong call count", 3 * MINIMUM_CALLS, breaker.getCallCount());
+        breaker.time = 10 * SECOND;
+        assertEquals("First bucket not dropped", 3 * MINIMUM_CALLS - 6, breaker.getCallCount());
+        breaker.time = 14 * SECOND - 1;
+        assertEquals("Wrong call count", 6, breaker.getCallCount());
+        breaker.time = 14 * SECOND;
+        assertEquals("Window not empty", 0, breaker.getCallCount());
+        for (int i = 0; i < MINIMUM_CALLS - 1; i++) {
+            assertTrue("Old failures counted", breaker.recordFailure(0));
+        }
+    }
+
+    /**
+     * Tests that an open breaker becomes half open and closes after the probe calls
+     * succeeded.
+     */
+    @Test
+    public void testClosingAfterProbeCalls() {
+        final ClockedBreaker breaker = new ClockedBreaker();
+        breaker.open();
+        breaker.time += 5 * SECOND - 1;
+        assertFalse("Half open early", breaker.isHalfOpen());
+        assertFalse(breaker.checkState());
+        assertFalse("Late outcome counted", breaker.recordSuccess(0));
+        breaker.time += 1;
+        assertTrue("Not half open", breaker.isHalfOpen());
+        assertTrue("Still open", breaker.isOpen());
+        for (int i = 0; i < PROBE_CALLS; i++) {
+            assertTrue("Probe call not let through", breaker.checkState());
+        }
+        assertFalse("Too many probe calls", breaker.checkState());
+        for (int i = 0; i < PROBE_CALLS - 1; i++) {
+            assertFalse("Closed early", breaker.recordSuccess(0));
+        }
+        assertTrue("Not closed", breaker.recordSuccess(0));
+        assertTrue("Not closed", breaker.isClosed());
+        assertFalse(breaker.isHalfOpen());
+        assertEquals("Window not empty", 0, breaker.getCallCount());
+    }
+
+    /**
+     * Tests that a failed or slow probe call opens the breaker again.
+     */
+    @Test
+    public void testReopeningOnBadProbeCall() {
+        final ClockedBreaker breaker = new ClockedBreaker();
+        breaker.open();
+        breaker.time += 5 * SECOND;
+        assertTrue(breaker.checkState());
+        assertFalse(breaker.recordFailure(0));
+        assertFalse("Still half open", breaker.isHalfOpen());
+        assertFalse(breaker.checkState());
+        breaker.time += 5 * SECOND;
+        assertTrue(breaker.checkState());
+        breaker.time += 2 * SECOND;
+        assertFalse(breaker.recordSuccess(2 * SECOND));
+        assertFalse("Slow probe call not bad", breaker.isHalfOpen());
+        assertTrue(breaker.isOpen());
+    }
+
+    /**
+     * Tests that only the outcomes of calls let through as probe calls count as such.
+     */
+    @Test
+    public void testOnlyProbeCallsCounted() {
+        final ClockedBreaker breaker = new ClockedBreaker();
+        breaker.open();
+        breaker.time += 5 * SECOND;
+        assertFalse("Outcome without a probe call counted", breaker.recordSuccess(0));
+        assertTrue(breaker.checkState());
+        assertFalse("Call let through before opening counted", breaker.recordFailure(6 * SECOND));
+        assertTrue("Reopened by an earlier call", breaker.isHalfOpen());
+        assertFalse(breaker.recordSuccess(0));
+        assertFalse("Outcome counted twice", breaker.recordSuccess(0));
+        for (int i = 1; i < PROBE_CALLS; i++) {
+            assertTrue(breaker.checkState());
+        }
+        assertFalse(breaker.recordSuccess(0));
+        assertTrue("Not closed", breaker.recordSuccess(0));
+    }
+
+    /**
+     * Tests that probe calls whose outcomes are never reported open the breaker again
+     * rather than keeping it half open.
+     */
+    @Test
+    public void testReopeningOnMissingProbeOutcomes() {
+        final ClockedBreaker breaker = new ClockedBreaker();
+        breaker.open();
+        breaker.time += 5 * SECOND;
+        for (int i = 0; i < PROBE_CALLS; i++) {
+            assertTrue(breaker.checkState());
+        }
+        breaker.time += 5 * SECOND - 1;
+        assertFalse(breaker.checkState());
+        assertTrue("Reopened early", breaker.isHalfOpen());
+        breaker.time += 1;
+        assertFalse(breaker.checkState());
+        assertFalse("Still half open", breaker.isHalfOpen());
+        breaker.time += 5 * SECOND;
+        assertTrue("No new probe calls", breaker.checkState());
+    }
+
+    /**
+     * Tests the change events of opening, half opening and closing.
+     */
+    @Test
+    public void testChangeEvents() {
+        final ClockedBreaker breaker = new ClockedBreaker();
+        final List<Object> values = new ArrayList<>();
+        breaker.addChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(final PropertyChangeEvent evt) {
+                assertEquals("Wrong property name", AbstractCircuitBreaker.PROPERTY_NAME, evt.getPropertyName());
+                values.add(evt.getNewValue());
+            }
+        });
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            breaker.recordFailure(0);
+        }
+        breaker.time += 5 * SECOND;
+        breaker.checkState();
+        breaker.recordFailure(0);
+        breaker.time += 5 * SECOND;
+        for (int i = 0; i < PROBE_CALLS; i++) {
+            breaker.checkState();
+            breaker.recordSuccess(0);
+        }
+        breaker.open();
+        breaker.close();
+        assertEquals(Arrays.<Object>asList(Boolean.TRUE, Boolean.FALSE, Boolean.TRUE, Boolean.FALSE),
+                values);
+    }
+
+    /**
+     * Tests that many threads reporting failures open the breaker once.
+     */
+    @Test
+    public void testConcurrentOpening() throws InterruptedException {
+        final ErrorRateCircuitBreaker breaker = builder().minimumCalls(1000).build();
+        final List<Object> values = new ArrayList<>();
+        breaker.addChangeListener(new PropertyChangeListener() {
+            @Override
+            public synchronized void propertyChange(final PropertyChangeEvent evt) {
+                values.add(evt.getNewValue());
+            }
+        });
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        breaker.recordFailure(0);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        assertTrue("Not open", breaker.isOpen());
+        assertEquals("Wrong events", Arrays.<Object>asList(Boolean.TRUE), values);
+    }
+
+    /**
+     * A breaker from the test builder whose clock only moves when the test moves it.
+     */
+    private static class ClockedBreaker extends ErrorRateCircuitBreaker {
+        long time;
+
+        ClockedBreaker() {
+            super(builder());
+        }
+
+        @Override
+        long now() {
+            return time;
+        }
+    }
+}
@@ -110,7 +110,7 @@ public void testNow() {
     @Test
     public void testNotOpeningUnderThreshold() {
         long startTime = 1000;
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD, 1,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD, 1,
                 TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         for (int i = 0; i < OPENING_THRESHOLD - 1; i++) {
             assertTrue("In open state", breaker.at(startTime).incrementAndCheckState());
@@ -127,7 +127,7 @@ public void testNotOpeningUnderThreshold() {
     public void testNotOpeningCheckIntervalExceeded() {
         long startTime = 0L;
         final long timeIncrement = 3 * NANO_FACTOR / (2 * OPENING_THRESHOLD);
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD, 1,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD, 1,
                 TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         for (int i = 0; i < 5 * OPENING_THRESHOLD; i++) {
             assertTrue("In open state", breaker.at(startTime).incrementAndCheckState());
@@ -143,7 +143,7 @@ public void testNotOpeningCheckIntervalExceeded() {
     public void testOpeningWhenThresholdReached() {
         long startTime = 0;
         final long timeIncrement = NANO_FACTOR / OPENING_THRESHOLD - 1;
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD, 1,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD, 1,
                 TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         boolean open = false;
         for (int i = 0; i < OPENING_THRESHOLD + 1; i++) {
@@ -161,7 +161,7 @@ public void testOpeningWhenThresholdReached() {
     @Test
     public void testOpeningWhenThresholdReachedThroughBatch() {
         final long timeIncrement = NANO_FACTOR / OPENING_THRESHOLD - 1;
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD, 1,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD, 1,
             TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         long startTime = timeIncrement * (OPENING_THRESHOLD + 1);
         boolean open = !breaker.at(startTime).incrementAndCheckState(OPENING_THRESHOLD + 1);
@@ -175,7 +175,7 @@ public void testOpeningWhenThresholdReachedThroughBatch() {
      */
     @Test
     public void testNotClosingOverThreshold() {
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD,
                 10, TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         long startTime = 0;
         breaker.open();
@@ -194,7 +194,7 @@ public void testNotClosingOverThreshold() {
      */
     @Test
     public void testClosingWhenThresholdReached() {
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD,
                 10, TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         breaker.open();
         breaker.at(1000).incrementAndCheckState();
@@ -211,7 +211,7 @@ public void testClosingWhenThresholdReached() {
      */
     @Test
     public void testOpenStartsNewCheckInterval() {
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD, 2,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD, 2,
                 TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         breaker.at(NANO_FACTOR - 1000).open();
         assertTrue("Not open", breaker.isOpen());
@@ -224,7 +224,7 @@ public void testOpenStartsNewCheckInterval() {
      */
     @Test
     public void testAutomaticOpenStartsNewCheckInterval() {
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD, 2,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD, 2,
                 TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         long time = 10 * NANO_FACTOR;
         for (int i = 0; i <= OPENING_THRESHOLD; i++) {
@@ -242,7 +242,7 @@ public void testAutomaticOpenStartsNewCheckInterval() {
      */
     @Test
     public void testClose() {
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD, 2,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD, 2,
                 TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         long time = 0;
         for (int i = 0; i <= OPENING_THRESHOLD; i++, time += 1000) {
@@ -323,7 +323,7 @@ public void run() {
      */
     @Test
     public void testChangeEventsGeneratedByAutomaticTransitions() {
-        final EventCountCircuitBreakerTestImpl breaker = new EventCountCircuitBreakerTestImpl(OPENING_THRESHOLD, 2,
+        final EventCountCircuitBreakerTestImpl breaker = createTestImpl(OPENING_THRESHOLD, 2,
                 TimeUnit.SECONDS, CLOSING_THRESHOLD, 1, TimeUnit.SECONDS);
         final ChangeListener listener = new ChangeListener(breaker);
         breaker.addChangeListener(listener);
@@ -336,20 +336,38 @@ public void testChangeEventsGeneratedByAutomaticTransitions() {
         listener.verify(Boolean.TRUE, Boolean.FALSE);
     }
 
+    /**
+     * Creates the circuit breaker for the tests with a mocked timer.
+     *
+     * @param openingThreshold the threshold for opening the circuit breaker
+     * @param openingInterval the opening interval
+     * @param openingUnit the {@code TimeUnit} of the opening interval
+     * @param closingThreshold the threshold for closing the circuit breaker
+     * @param closingInterval the closing interval
+     * @param closingUnit the {@code TimeUnit} of the closing interval
+     * @return the circuit breaker
+     */
+    protected EventCountCircuitBreakerTestImpl createTestImpl(final int openingThreshold, final long openingInterval,
+            final TimeUnit openingUnit, final int closingThreshold, final long closingInterval,
+            final TimeUnit closingUnit) {
+        return new EventCountCircuitBreakerTestImpl(openingThreshold, openingInterval, openingUnit,
+                closingThreshold, closingInterval, closingUnit, false);
+    }
+
     /**
      * A test implementation of {@code EventCountCircuitBreaker} which supports mocking the timer.
      * This is useful for the creation of deterministic tests for switching the circuit
      * breaker's state.
      */
-    private static class EventCountCircuitBreakerTestImpl extends EventCountCircuitBreaker {
+    static class EventCountCircuitBreakerTestImpl extends EventCountCircuitBreaker {
         /** The current time in nanoseconds. */
         private long currentTime;
 
         EventCountCircuitBreakerTestImpl(final int openingThreshold, final long openingInterval,
                                                 final TimeUnit openingUnit, final int closingThreshold, final long closingInterval,
-                                                final TimeUnit closingUnit) {
+                                                final TimeUnit closingUnit, final boolean striped) {
             super(openingThreshold, openingInterval, openingUnit, closingThreshold,
-                    closingInterval, closingUnit);
+                    closingInterval, closingUnit, striped);
         }
 
         /**
@@ -376,7 +394,7 @@ long now() {
     /**
      * A test change listener for checking whether correct change events are generated.
      */
-    private static class ChangeListener implements PropertyChangeListener {
+    static class ChangeListener implements PropertyChangeListener {
         /** The expected event source. */
         private final Object expectedSource;
 
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for KeyedRateLimiter.
+ */
+public class KeyedRateLimiterTest {
+    /** Constant for the refill interval of one permit in nanoseconds. */
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Constant for the idle timeout in nanoseconds. */
+    private static final long IDLE = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Tries to create instances with invalid arguments.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidPermits() {
+        new KeyedRateLimiter<String>(0, 1, TimeUnit.SECONDS, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidIdleTimeout() {
+        new KeyedRateLimiter<String>(1, 1, TimeUnit.SECONDS, 1, 0, TimeUnit.MINUTES);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testInitNullIdleUnit() {
+        new KeyedRateLimiter<String>(1, 1, TimeUnit.SECONDS, 1, 1, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testTryAcquireNullKey() {
+        new ClockedLimiter(1).tryAcquire(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTryAcquireInvalidPermits() {
+        new ClockedLimiter(1).tryAcquire("a", 0);
+    }
+
+    /**
+     * Tests that each key has a bucket of its own, created when first used.
+     */
+    @Test
+    public void testTryAcquirePerKey() {
+        final ClockedLimiter limiter = new ClockedLimiter(2);
+        assertEquals("Wrong size", 0, limiter.size());
+        assertEquals("Wrong permits", 2, limiter.getAvailablePermits("a"));
+        assertEquals("Bucket created by a read", 0, limiter.size());
+
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse("Capacity not enforced", limiter.tryAcquire("a"));
+        assertTrue("Keys not separate", limiter.tryAcquire("b", 2));
+        assertFalse(limiter.tryAcquire("b"));
+        assertFalse("More than the capacity", limiter.tryAcquire("c", 3));
+        assertEquals("Wrong size", 2, limiter.size());
+
+        limiter.time += INTERVAL;
+        assertEquals("Wrong permits", 1, limiter.getAvailablePermits("a"));
+        assertTrue("Not refilled", limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+    }
+
+    /**
+     * Tests that reserving spaces out the callers of a key at the rate.
+     */
+    @Test
+    public void testReserve() {
+        final ClockedLimiter limiter = new ClockedLimiter(1);
+        assertEquals(0, limiter.reserve("a", 1));
+        assertEquals(INTERVAL, limiter.reserve("a", 1));
+        assertEquals(2 * INTERVAL, limiter.reserve("b", 3));
+        assertEquals("Wrong permits", -1, limiter.getAvailablePermits("a"));
+        assertEquals("Wrong permits", -2, limiter.getAvailablePermits("b"));
+    }
+
+    /**
+     * Tests that buckets full for the idle timeout are removed by a later acquire,
+     * and that removing them does not change the limits.
+     */
+    @Test
+    public void testEvictOnAcquire() {
+        final ClockedLimiter limiter = new ClockedLimiter(2);
+        limiter.tryAcquire("a", 2);
+        limiter.tryAcquire("b", 1);
+        limiter.time += IDLE;
+        limiter.tryAcquire("c", 2);
+        assertEquals("Evicted before the timeout", 3, limiter.size());
+
+        // idle buckets are looked for once each idle timeout
+        limiter.time += IDLE;
+        assertTrue(limiter.tryAcquire("c"));
+        assertEquals("Idle buckets kept", 1, limiter.size());
+        assertEquals("Wrong permits", 2, limiter.getAvailablePermits("a"));
+        assertFalse("Limit lost", limiter.tryAcquire("c", 2));
+    }
+
+    /**
+     * Tests that each acquire looks at only a few buckets for eviction, going on where
+     * the one before stopped.
+     */
+    @Test
+    public void testEvictInSteps() {
+        final ClockedLimiter limiter = new ClockedLimiter(1);
+        final int keys = 10 * KeyedRateLimiter.SWEEP_STEP;
+        for (int i = 0; i < keys; i++) {
+            limiter.tryAcquire(Integer.toString(i));
+        }
+        limiter.time += INTERVAL + IDLE;
+        assertTrue(limiter.tryAcquire("x"));
+        assertTrue("Too many looked at", limiter.size() >= keys + 1 - KeyedRateLimiter.SWEEP_STEP);
+        assertTrue("Nothing evicted", limiter.size() < keys + 1);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("y");
+        }
+        assertEquals("Idle buckets kept", 2, limiter.size());
+    }
+
+    /**
+     * Tests evicting idle buckets on demand.
+     */
+    @Test
+    public void testEvictIdle() {
+        final ClockedLimiter limiter = new ClockedLimiter(1);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(Integer.toString(i));
+        }
+        limiter.time += INTERVAL + IDLE / 2;
+        limiter.reserve("x", 100);
+        limiter.time += IDLE / 2;
+        assertEquals("Wrong number evicted", 100, limiter.evictIdle());
+        assertEquals("Busy bucket evicted", 1, limiter.size());
+        assertEquals("Nothing left to evict", 0, limiter.evictIdle());
+        assertTrue(limiter.tryAcquire("1"));
+        assertFalse("Reservation lost", limiter.tryAcquire("x"));
+    }
+
+    /**
+     * Tests that concurrent acquires never exceed the capacity of a key, while idle
+     * buckets are evicted.
+     */
+    @Test
+    public void testConcurrentTryAcquire() throws InterruptedException {
+        final int capacity = 1000;
+        final KeyedRateLimiter<Integer> limiter =
+                new KeyedRateLimiter<>(1, 1, TimeUnit.HOURS, capacity, 1, TimeUnit.NANOSECONDS);
+        final AtomicInteger acquired = new AtomicInteger();
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 2000; j++) {
+                        if (limiter.tryAcquire(j % 4)) {
+                            acquired.incrementAndGet();
+                        }
+                        limiter.tryAcquire(-j - 1);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        assertEquals("Wrong number of acquires", 4 * capacity, acquired.get());
+    }
+
+    /**
+     * A limiter refilling a permit each 100 milliseconds, whose clock only moves when
+     * the test moves it.
+     */
+    private static class ClockedLimiter extends KeyedRateLimiter<String> {
+        long time;
+
+        ClockedLimiter(final int capacity) {
+            super(10, 1, TimeUnit.SECONDS, capacity, 10, TimeUnit.SECONDS);
+        }
+
+        @Override
+        long nanoTime() {
+            return time;
+        }
+    }
+}
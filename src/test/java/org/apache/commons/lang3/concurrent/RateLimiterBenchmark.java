@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Test to show whether {@link TokenBucketRateLimiter} and {@link SlidingWindowRateLimiter}
+ * hand out permits faster than {@link TimedSemaphore} when many threads share one
+ * limiter. The limit is {@code limit} permits a millisecond, so with a low limit most
+ * attempts are turned away and with a high one most get through.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    @Param({"10", "1000000"})
+    public int limit;
+
+    private TimedSemaphore semaphore;
+    private TokenBucketRateLimiter tokenBucket;
+    private SlidingWindowRateLimiter slidingWindow;
+
+    @Setup
+    public void setup() {
+        semaphore = new TimedSemaphore(1, TimeUnit.MILLISECONDS, limit);
+        tokenBucket = new TokenBucketRateLimiter(limit, 1, TimeUnit.MILLISECONDS, limit);
+        slidingWindow = new SlidingWindowRateLimiter(limit, 1, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        semaphore.shutdown();
+    }
+
+    @Benchmark
+    public boolean testTimedSemaphore() {
+        return semaphore.tryAcquire();
+    }
+
+    @Benchmark
+    public boolean testTokenBucket() {
+        return tokenBucket.tryAcquire();
+    }
+
+    @Benchmark
+    public boolean testSlidingWindow() {
+        return slidingWindow.tryAcquire();
+    }
+}
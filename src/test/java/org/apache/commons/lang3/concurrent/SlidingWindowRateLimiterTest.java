@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for SlidingWindowRateLimiter.
+ */
+public class SlidingWindowRateLimiterTest {
+    /** Constant for the window in nanoseconds. */
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Tests creating a new instance.
+     */
+    @Test
+    public void testInit() {
+        final ClockedLimiter limiter = new ClockedLimiter(10);
+        assertEquals("Wrong limit", 10, limiter.getLimit());
+        assertEquals("Wrong count", 0, limiter.getCount());
+    }
+
+    /**
+     * Tries to create instances with invalid arguments.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidLimit() {
+        new SlidingWindowRateLimiter(0, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidWindow() {
+        new SlidingWindowRateLimiter(1, 0, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testInitNullUnit() {
+        new SlidingWindowRateLimiter(1, 1, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTryAcquireInvalidPermits() {
+        new ClockedLimiter(10).tryAcquire(-1);
+    }
+
+    /**
+     * Tests that the count of the previous window fades out over the current one,
+     * so the limit is not let through twice at a window boundary.
+     */
+    @Test
+    public void testTryAcquireSliding() {
+        final ClockedLimiter limiter = new ClockedLimiter(10);
+        limiter.time = WINDOW - 1;
+        assertTrue(limiter.tryAcquire(10));
+        assertFalse("Limit not enforced", limiter.tryAcquire());
+
+        limiter.time = WINDOW;
+        assertEquals("Wrong count", 10, limiter.getCount());
+        assertFalse("Limit let through again", limiter.tryAcquire());
+
+        limiter.time = WINDOW + WINDOW / 2;
+        assertEquals("Wrong count", 5, limiter.getCount());
+        assertTrue(limiter.tryAcquire(5));
+        assertFalse(limiter.tryAcquire());
+
+        limiter.time = 2 * WINDOW;
+        assertEquals("Wrong count", 5, limiter.getCount());
+        assertTrue(limiter.tryAcquire(5));
+        assertFalse(limiter.tryAcquire());
+
+        limiter.time = 4 * WINDOW;
+        assertEquals("Idle window not cleared", 0, limiter.getCount());
+        assertTrue(limiter.tryAcquire(10));
+        assertFalse("More than the limit", limiter.tryAcquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTryAcquireMoreThanLimit() {
+        new ClockedLimiter(10).tryAcquire(11);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReserveMoreThanLimit() {
+        new ClockedLimiter(10).reserve(11);
+    }
+
+    /**
+     * Tests the waits handed out by reserve.
+     */
+    @Test
+    public void testReserve() {
+        final ClockedLimiter limiter = new ClockedLimiter(10);
+        assertEquals(0, limiter.reserve(10));
+        // the 11th permit is carried into the next window, where 10 * f + 1 fits once f is 0.9
+        assertEquals(WINDOW + WINDOW / 10, limiter.reserve(1), 1);
+        assertFalse(limiter.tryAcquire());
+
+        limiter.time = WINDOW + WINDOW / 2;
+        // 10 * 0.5 + 1 + 1 fits in the limit
+        assertEquals(0, limiter.reserve(1));
+        // 10 * 0.5 + 6 does not, 10 * f + 6 fits once f is 0.4
+        assertEquals(WINDOW / 10, limiter.reserve(4), 1);
+    }
+
+    /**
+     * Tests that a backlog of reservations is let through at the rate of the limit
+     * a window, however many windows it takes.
+     */
+    @Test
+    public void testReserveBacklog() {
+        final ClockedLimiter limiter = new ClockedLimiter(10);
+        final long[] waits = new long[100];
+        for (int i = 0; i < waits.length; i++) {
+            waits[i] = limiter.reserve(1);
+            if (i > 0) {
+                assertTrue("Wait went back at " + i, waits[i] >= waits[i - 1]);
+            }
+        }
+        assertEquals("Burst not let through", 0, waits[9]);
+        assertEquals(5 * WINDOW, waits[49], 1);
+        assertEquals(10 * WINDOW, waits[99], 1);
+        assertEquals("Wrong count", 100, limiter.getCount());
+
+        limiter.time = 5 * WINDOW;
+        assertFalse("Backlog let through early", limiter.tryAcquire());
+        limiter.time = 10 * WINDOW;
+        assertFalse("Backlog let through early", limiter.tryAcquire());
+        limiter.time = 10 * WINDOW + WINDOW / 2;
+        assertEquals("Wrong count", 5, limiter.getCount());
+        assertTrue(limiter.tryAcquire(5));
+        assertFalse(limiter.tryAcquire());
+    }
+
+    /**
+     * Tests the timed tryAcquire gives up at once when the wait is too long.
+     */
+    @Test
+    public void testTryAcquireTimeout() throws InterruptedException {
+        final ClockedLimiter limiter = new ClockedLimiter(2);
+        assertTrue(limiter.tryAcquire(2, 0, TimeUnit.NANOSECONDS));
+        assertFalse("Did not time out", limiter.tryAcquire(1, WINDOW, TimeUnit.NANOSECONDS));
+        assertEquals("Permit taken by a failed attempt", 2, limiter.getCount());
+        limiter.time = WINDOW + WINDOW / 2;
+        assertTrue(limiter.tryAcquire(1, 0, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Tests that the timed tryAcquire waits in real time.
+     */
+    @Test
+    public void testTryAcquireWaits() throws InterruptedException {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 50, TimeUnit.MILLISECONDS);
+        final long start = System.nanoTime();
+        assertTrue(limiter.tryAcquire(1, 1, TimeUnit.SECONDS));
+        assertTrue(limiter.tryAcquire(1, 1, TimeUnit.SECONDS));
+        assertTrue(limiter.tryAcquire(1, 1, TimeUnit.SECONDS));
+        assertTrue("Did not wait", System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    /**
+     * Tests that concurrent acquires never exceed the limit.
+     */
+    @Test
+    public void testConcurrentTryAcquire() throws InterruptedException {
+        final int limit = 5000;
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(limit, 1, TimeUnit.HOURS);
+        final AtomicInteger acquired = new AtomicInteger();
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 2000; j++) {
+                        if (limiter.tryAcquire()) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        assertEquals("Wrong number of acquires", limit, acquired.get());
+        assertEquals("Wrong count", limit, limiter.getCount());
+    }
+
+    /**
+     * A limiter with a window of a second, whose clock only moves when the test
+     * moves it.
+     */
+    private static class ClockedLimiter extends SlidingWindowRateLimiter {
+        long time;
+
+        ClockedLimiter(final int limit) {
+            super(limit, 1, TimeUnit.SECONDS);
+        }
+
+        @Override
+        long nanoTime() {
+            return time;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Runs the tests of {@code EventCountCircuitBreaker} with the events counted in stripes.
+ */
+public class StripedEventCountCircuitBreakerTest extends EventCountCircuitBreakerTest {
+
+    @Override
+    protected EventCountCircuitBreakerTestImpl createTestImpl(final int openingThreshold, final long openingInterval,
+            final TimeUnit openingUnit, final int closingThreshold, final long closingInterval,
+            final TimeUnit closingUnit) {
+        return new EventCountCircuitBreakerTestImpl(openingThreshold, openingInterval, openingUnit,
+                closingThreshold, closingInterval, closingUnit, true);
+    }
+
+    /**
+     * Tests whether the striped flag is set by the constructors.
+     */
+    @Test
+    public void testIsStriped() {
+        assertTrue("Not striped", createTestImpl(1, 1, TimeUnit.SECONDS, 1, 1, TimeUnit.SECONDS).isStriped());
+        assertFalse("Striped", new EventCountCircuitBreaker(1, 1, TimeUnit.SECONDS).isStriped());
+    }
+
+    /**
+     * Tests that events reported by many threads at once are all counted, so the
+     * circuit breaker stays closed up to the threshold, and opens once over it.
+     */
+    @Test
+    public void testConcurrentOpening() throws InterruptedException {
+        final int threshold = 8000;
+        final EventCountCircuitBreaker breaker = new EventCountCircuitBreaker(threshold, 1, TimeUnit.HOURS,
+                threshold, 1, TimeUnit.HOURS, true);
+        final ChangeListener listener = new ChangeListener(breaker);
+        breaker.addChangeListener(listener);
+        final AtomicInteger closed = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread[] threads = new Thread[8];
+        final CountDownLatch counted = new CountDownLatch(threads.length);
+        final CountDownLatch overThreshold = new CountDownLatch(1);
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                        for (int j = 0; j < threshold / threads.length; j++) {
+                            if (breaker.incrementAndCheckState()) {
+                                closed.incrementAndGet();
+                            }
+                        }
+                        counted.countDown();
+                        overThreshold.await();
+                        breaker.incrementAndCheckState();
+                    } catch (final InterruptedException iex) {
+                        // ignore
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        latch.countDown();
+        counted.await();
+        assertEquals("Wrong number of events while closed", threshold, closed.get());
+        assertTrue("Opened early", breaker.isClosed());
+        overThreshold.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue("Not opened over the threshold", breaker.isOpen());
+        listener.verify(Boolean.TRUE);
+    }
+
+    /**
+     * Tests that the circuit breaker opens on the event that takes it over the threshold
+     * when the thread that reported most events goes quiet and the others each report
+     * only a few, in stripes of their own as far as there are processors.
+     */
+    @Test
+    public void testOpeningAfterBusyThreadGoesQuiet() throws InterruptedException {
+        final int threshold = 100;
+        final EventCountCircuitBreaker breaker = new EventCountCircuitBreaker(threshold, 1, TimeUnit.MINUTES,
+                threshold, 1, TimeUnit.MINUTES, true);
+        final AtomicInteger closed = new AtomicInteger();
+        final Runnable events = new Runnable() {
+            @Override
+            public void run() {
+                if (breaker.incrementAndCheckState()) {
+                    closed.incrementAndGet();
+                }
+            }
+        };
+        final Thread busy = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < threshold / 2; i++) {
+                    events.run();
+                }
+            }
+        };
+        busy.start();
+        busy.join();
+        for (int i = 0; i < threshold; i++) {
+            final Thread thread = new Thread(events);
+            thread.start();
+            thread.join();
+        }
+        assertEquals("Wrong number of events while closed", threshold, closed.get());
+        assertTrue("Not opened over the threshold", breaker.isOpen());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for TokenBucketRateLimiter.
+ */
+public class TokenBucketRateLimiterTest {
+    /** Constant for the refill interval of one permit in nanoseconds. */
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Tests that a new bucket is full.
+     */
+    @Test
+    public void testInit() {
+        final ClockedLimiter limiter = new ClockedLimiter(5);
+        assertEquals("Wrong capacity", 5, limiter.getCapacity());
+        assertEquals("Wrong permits", 5, limiter.getAvailablePermits());
+    }
+
+    /**
+     * Tries to create instances with invalid arguments.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidPermits() {
+        new TokenBucketRateLimiter(0, 1, TimeUnit.SECONDS, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidPeriod() {
+        new TokenBucketRateLimiter(1, 0, TimeUnit.SECONDS, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidCapacity() {
+        new TokenBucketRateLimiter(1, 1, TimeUnit.SECONDS, 0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testInitNullUnit() {
+        new TokenBucketRateLimiter(1, 1, null, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTryAcquireInvalidPermits() {
+        new ClockedLimiter(5).tryAcquire(0);
+    }
+
+    /**
+     * Tests that a burst up to the capacity goes through and permits then come back
+     * one interval at a time.
+     */
+    @Test
+    public void testTryAcquireRefill() {
+        final ClockedLimiter limiter = new ClockedLimiter(3);
+        assertTrue(limiter.tryAcquire(2));
+        assertTrue(limiter.tryAcquire());
+        assertFalse("Capacity not enforced", limiter.tryAcquire());
+        assertEquals("Wrong permits", 0, limiter.getAvailablePermits());
+
+        limiter.time += INTERVAL - 1;
+        assertFalse("Refilled early", limiter.tryAcquire());
+        limiter.time += 1;
+        assertEquals("Wrong permits", 1, limiter.getAvailablePermits());
+        assertTrue("Not refilled", limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.time += 100 * INTERVAL;
+        assertEquals("Refilled over capacity", 3, limiter.getAvailablePermits());
+        assertFalse("More than the capacity", limiter.tryAcquire(4));
+        assertTrue(limiter.tryAcquire(3));
+    }
+
+    /**
+     * Tests that reserving spaces out the callers at the rate.
+     */
+    @Test
+    public void testReserve() {
+        final ClockedLimiter limiter = new ClockedLimiter(2);
+        assertEquals(0, limiter.reserve(1));
+        assertEquals(0, limiter.reserve(1));
+        assertEquals(INTERVAL, limiter.reserve(1));
+        assertEquals(2 * INTERVAL, limiter.reserve(1));
+        assertEquals("Wrong permits", -2, limiter.getAvailablePermits());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.time += 3 * INTERVAL;
+        assertEquals("Wrong permits", 1, limiter.getAvailablePermits());
+        assertEquals(0, limiter.reserve(1));
+    }
+
+    /**
+     * Tests the timed tryAcquire gives up at once when the wait is too long.
+     */
+    @Test
+    public void testTryAcquireTimeout() throws InterruptedException {
+        final ClockedLimiter limiter = new ClockedLimiter(1);
+        assertTrue(limiter.tryAcquire(1, 0, TimeUnit.NANOSECONDS));
+        assertFalse("Did not time out", limiter.tryAcquire(1, INTERVAL - 1, TimeUnit.NANOSECONDS));
+        assertFalse("Permit taken by a failed attempt", limiter.tryAcquire(1, 0, TimeUnit.NANOSECONDS));
+        limiter.time += INTERVAL;
+        assertTrue(limiter.tryAcquire(1, 0, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Tests that acquire waits for a permit in real time.
+     */
+    @Test
+    public void testAcquireWaits() throws InterruptedException {
+        final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20, 1, TimeUnit.SECONDS, 1);
+        final long start = System.nanoTime();
+        limiter.acquire(1);
+        limiter.acquire(1);
+        limiter.acquire(1);
+        assertTrue("Did not wait", System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(limiter.tryAcquire(1, 1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that concurrent acquires never exceed the capacity.
+     */
+    @Test
+    public void testConcurrentTryAcquire() throws InterruptedException {
+        final int capacity = 5000;
+        final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, TimeUnit.HOURS, capacity);
+        final AtomicInteger acquired = new AtomicInteger();
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 2000; j++) {
+                        if (limiter.tryAcquire()) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        assertEquals("Wrong number of acquires", capacity, acquired.get());
+    }
+
+    /**
+     * A limiter refilling a permit each 100 milliseconds, whose clock only moves when
+     * the test moves it.
+     */
+    private static class ClockedLimiter extends TokenBucketRateLimiter {
+        long time;
+
+        ClockedLimiter(final int capacity) {
+            super(10, 1, TimeUnit.SECONDS, capacity);
+        }
+
+        @Override
+        long nanoTime() {
+            return time;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.text.translate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Test to show whether the fused dispatch table of {@link AggregateTranslator} is faster
+ * than asking every translator of the chain in turn, for the chains predefined in
+ * {@link org.apache.commons.lang3.StringEscapeUtils}.
+ */
+@Deprecated
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class AggregateTranslatorBenchmark {
+
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog, "
+            + "\"quoted\" <b>bold</b> & caf\u00E9 \u00A9 2018 \u03B1\u2264\u03B2 \u2665 \u4E2D\u6587\n";
+
+    @Param({"ESCAPE_JAVA", "ESCAPE_XML10", "ESCAPE_HTML4", "UNESCAPE_HTML4"})
+    public String translator;
+
+    private CharSequenceTranslator fused;
+    private CharSequenceTranslator sequential;
+    private String input;
+
+    @Setup
+    public void setup() {
+        final CharSequenceTranslator[] chain = chain(translator);
+        fused = new AggregateTranslator(chain);
+        sequential = new SequentialTranslator(chain);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(TEXT);
+        }
+        input = translator.startsWith("UNESCAPE") ? new AggregateTranslator(chain("ESCAPE_HTML4")).translate(sb) : sb.toString();
+    }
+
+    @Benchmark
+    public String testFused() {
+        return fused.translate(input);
+    }
+
+    @Benchmark
+    public String testSequential() {
+        return sequential.translate(input);
+    }
+
+    private static CharSequenceTranslator[] chain(final String name) {
+        switch (name) {
+        case "ESCAPE_JAVA":
+            return new CharSequenceTranslator[] {
+                new LookupTranslator(new String[][] { {"\"", "\\\""}, {"\\", "\\\\"} }),
+                new LookupTranslator(EntityArrays.JAVA_CTRL_CHARS_ESCAPE()),
+                JavaUnicodeEscaper.outsideOf(32, 0x7f) };
+        case "ESCAPE_XML10":
+            return new CharSequenceTranslator[] {
+                new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
+                new LookupTranslator(EntityArrays.APOS_ESCAPE()),
+                new LookupTranslator(new String[][] { {"\u0000", ""}, {"\u0001", ""}, {"\uFFFE", ""}, {"\uFFFF", ""} }),
+                NumericEntityEscaper.between(0x7f, 0x84),
+                NumericEntityEscaper.between(0x86, 0x9f),
+                new UnicodeUnpairedSurrogateRemover() };
+        case "ESCAPE_HTML4":
+            return new CharSequenceTranslator[] {
+                new LookupTranslator(EntityArrays.BASIC_ESCAPE()),
+                new LookupTranslator(EntityArrays.ISO8859_1_ESCAPE()),
+                new LookupTranslator(EntityArrays.HTML40_EXTENDED_ESCAPE()) };
+        case "UNESCAPE_HTML4":
+            return new CharSequenceTranslator[] {
+                new LookupTranslator(EntityArrays.BASIC_UNESCAPE()),
+                new LookupTranslator(EntityArrays.ISO8859_1_UNESCAPE()),
+                new LookupTranslator(EntityArrays.HTML40_EXTENDED_UNESCAPE()),
+                new NumericEntityUnescaper() };
+        default:
+            throw new IllegalArgumentException(name);
+        }
+    }
+
+    /**
+     * The aggregate translation as it was done before the dispatch table: every
+     * translator is asked at every position.
+     */
+    private static class SequentialTranslator extends CharSequenceTranslator {
+
+        private final CharSequenceTranslator[] translators;
+
+        SequentialTranslator(final CharSequenceTranslator... translators) {
+            this.translators = translators;
+        }
+
+        @Override
+        public int translate(final CharSequence input, final int index, final Writer out) throws IOException {
+            for (final CharSequenceTranslator translator : translators) {
+                final int consumed = translator.translate(input, index, out);
+                if (consumed != 0) {
+                    return consumed;
+                }
+            }
+            return 0;
+        }
+    }
+}
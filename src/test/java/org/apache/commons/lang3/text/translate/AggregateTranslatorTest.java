@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.lang3.text.translate;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link org.apache.commons.lang3.text.translate.AggregateTranslator}.
+ */
+@Deprecated
+public class AggregateTranslatorTest {
+
+    @Test
+    public void testFirstMatchingTranslatorWins() {
+        final AggregateTranslator at = new AggregateTranslator(
+                new LookupTranslator(new CharSequence[][] { { "a", "1" } }),
+                new LookupTranslator(new CharSequence[][] { { "ab", "2" }, { "\u4E2D", "3" } }),
+                new LookupTranslator(new CharSequence[][] { { "\u4E2D", "4" }, { "c", "5" } }));
+        assertEquals("1b35x", at.translate("ab\u4E2Dcx"));
+    }
+
+    @Test
+    public void testOtherTranslatorsAreStillAsked() {
+        final AggregateTranslator at = new AggregateTranslator(
+                new LookupTranslator(new CharSequence[][] { { "&amp;", "&" } }),
+                new NumericEntityUnescaper(),
+                UnicodeEscaper.above(0x7f));
+        assertEquals("&A&\\u00E9\\u4E2D&x", at.translate("&amp;&#65;&\u00E9\u4E2D&x"));
+    }
+
+    @Test
+    public void testNestedAggregates() {
+        final CharSequenceTranslator at = new LookupTranslator(new CharSequence[][] { { "<", "&lt;" } })
+                .with(new LookupTranslator(new CharSequence[][] { { ">", "&gt;" } }))
+                .with(NumericEntityEscaper.between(0x100, 0x10FFFF));
+        assertEquals("&lt;a&gt;&#20013;&#128512;", at.translate("<a>\u4E2D\uD83D\uDE00"));
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.text.translate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Test to show whether {@link NumericEntityEscaper} and {@link UnicodeEscaper} write their
+ * escapes without allocating, compared to building a String per escaped code point.
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} of the {@code testDigits}
+ * benchmarks does not grow with the number of escaped characters.
+ */
+@Deprecated
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class EscaperBenchmark {
+
+    private static final String TEXT = "\u4E2D\u6587\u7F51\u9875 \uD83D\uDE00\uD83D\uDC4D caf\u00E9 \u2665 ";
+
+    @Param({"NUMERIC_ENTITY", "UNICODE", "JAVA_UNICODE"})
+    public String escaper;
+
+    private CharSequenceTranslator digits;
+    private CharSequenceTranslator strings;
+    private String input;
+    private final StringBuilder out = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        switch (escaper) {
+        case "NUMERIC_ENTITY":
+            digits = NumericEntityEscaper.above(0x7f);
+            strings = new StringNumericEntityEscaper();
+            break;
+        case "UNICODE":
+            digits = UnicodeEscaper.above(0x7f);
+            strings = new StringUnicodeEscaper(false);
+            break;
+        case "JAVA_UNICODE":
+            digits = JavaUnicodeEscaper.above(0x7f);
+            strings = new StringUnicodeEscaper(true);
+            break;
+        default:
+            throw new IllegalArgumentException(escaper);
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(TEXT);
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public StringBuilder testDigits() throws IOException {
+        out.setLength(0);
+        digits.translate(input, out);
+        return out;
+    }
+
+    @Benchmark
+    public StringBuilder testStrings() throws IOException {
+        out.setLength(0);
+        strings.translate(input, out);
+        return out;
+    }
+
+    /**
+     * The numeric entity escape as it was done before, with a String per code point.
+     */
+    private static class StringNumericEntityEscaper extends CodePointTranslator {
+
+        @Override
+        public boolean translate(final int codepoint, final Writer out) throws IOException {
+            if (codepoint <= 0x7f) {
+                return false;
+            }
+            out.write("&#");
+            out.write(Integer.toString(codepoint, 10));
+            out.write(';');
+            return true;
+        }
+    }
+
+    /**
+     * The Unicode escape as it was done before, with a String per supplementary code point.
+     */
+    private static class StringUnicodeEscaper extends CodePointTranslator {
+
+        private final boolean surrogatePairs;
+
+        StringUnicodeEscaper(final boolean surrogatePairs) {
+            this.surrogatePairs = surrogatePairs;
+        }
+
+        @Override
+        public boolean translate(final int codepoint, final Writer out) throws IOException {
+            if (codepoint <= 0x7f) {
+                return false;
+            }
+            if (codepoint > 0xffff) {
+                if (surrogatePairs) {
+                    final char[] surrogatePair = Character.toChars(codepoint);
+                    out.write("\\u" + stringHex(surrogatePair[0]) + "\\u" + stringHex(surrogatePair[1]));
+                } else {
+                    out.write("\\u" + stringHex(codepoint));
+                }
+            } else {
+                out.write("\\u");
+                out.write(HEX_DIGITS[(codepoint >> 12) & 15]);
+                out.write(HEX_DIGITS[(codepoint >> 8) & 15]);
+                out.write(HEX_DIGITS[(codepoint >> 4) & 15]);
+                out.write(HEX_DIGITS[(codepoint) & 15]);
+            }
+            return true;
+        }
+
+        private static String stringHex(final int codepoint) {
+            return Integer.toHexString(codepoint).toUpperCase(Locale.ENGLISH);
+        }
+    }
+}
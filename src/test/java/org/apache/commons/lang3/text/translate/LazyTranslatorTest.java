@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.lang3.text.translate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link org.apache.commons.lang3.text.translate.LazyTranslator}.
+ */
+@Deprecated
+public class LazyTranslatorTest {
+
+    private static class CountingTranslator extends LazyTranslator {
+
+        private int initializations;
+
+        @Override
+        protected CharSequenceTranslator initialize() {
+            initializations++;
+            return new LookupTranslator(new CharSequence[][] { { "<", "&lt;" } })
+                    .with(new LookupTranslator(new CharSequence[][] { { ">", "&gt;" } }));
+        }
+    }
+
+    @Test
+    public void testInitializedOnFirstUseOnly() throws Exception {
+        final CountingTranslator translator = new CountingTranslator();
+        assertEquals(0, translator.initializations);
+        assertEquals("&lt;a&gt;", translator.translate("<a>"));
+        final StringWriter writer = new StringWriter();
+        translator.translateStream(new StringReader("b>c"), writer);
+        assertEquals("b&gt;c", writer.toString());
+        assertSame(translator.get(), translator.get());
+        assertEquals(1, translator.initializations);
+    }
+
+    @Test
+    public void testAggregateOfLazyTranslators() {
+        final CharSequenceTranslator translator = new CountingTranslator().with(new LazyTranslator() {
+            @Override
+            protected CharSequenceTranslator initialize() {
+                return new LookupTranslator(new CharSequence[][] { { "&", "&amp;" } });
+            }
+        });
+        assertEquals("&lt;&amp;&gt;", translator.translate("<&>"));
+    }
+}
@@ -49,4 +49,26 @@ public void testLang882() throws IOException {
         assertEquals("Incorrect value", "two", out.toString());
     }
 
+    @Test
+    public void testLongestMatchWins() throws IOException {
+        final LookupTranslator lt = new LookupTranslator(new CharSequence[][] {
+            { "a", "1" }, { "abc", "3" }, { "ab", "2" }, { "abcde", "5" } });
+        StringWriter out = new StringWriter();
+        assertEquals("Incorrect codepoint consumption", 3, lt.translate("abcdX", 0, out));
+        assertEquals("Incorrect value", "3", out.toString());
+        out = new StringWriter();
+        assertEquals("Incorrect codepoint consumption", 5, lt.translate("xabcde", 1, out));
+        assertEquals("Incorrect value", "5", out.toString());
+        assertEquals("2X2", lt.translate("abXab"));
+    }
+
+    @Test
+    public void testNoMatch() throws IOException {
+        final LookupTranslator lt = new LookupTranslator(new CharSequence[][] { { "one", "two" } });
+        final StringWriter out = new StringWriter();
+        assertEquals("Incorrect codepoint consumption", 0, lt.translate("on", 0, out));
+        assertEquals("Incorrect codepoint consumption", 0, lt.translate("two", 0, out));
+        assertEquals("Incorrect value", "", out.toString());
+    }
+
 }
@@ -53,4 +53,18 @@ public void testAbove() {
         final String result = ue.translate(input);
         assertEquals("Failed to escape Unicode characters via the above method", "ADF\\u0047\\u005A", result);
     }
+
+    @Test
+    public void testSupplementaryCodePoints() {
+        final String input = "a\uD83D\uDE00";
+        assertEquals("a\\u1F600", UnicodeEscaper.above(0x7f).translate(input));
+        assertEquals("a\\uD83D\\uDE00", JavaUnicodeEscaper.above(0x7f).translate(input));
+        final UnicodeEscaper custom = new UnicodeEscaper(0, 0x7f, false) {
+            @Override
+            protected String toUtf16Escape(final int codepoint) {
+                return "\\U" + codepoint;
+            }
+        };
+        assertEquals("a\\U128512", custom.translate(input));
+    }
 }
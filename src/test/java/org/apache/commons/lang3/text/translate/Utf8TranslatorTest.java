@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.lang3.text.translate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link org.apache.commons.lang3.text.translate.Utf8Translator}.
+ */
+public class Utf8TranslatorTest {
+
+    private static final String[] INPUTS = {
+        "", "plain ascii", "a\"b/c\\d\te\nf\u0001", "<a href='x'>&amp;</a>", "\u007f\u0080\u0085\u0099\u00E9",
+        "\u4E2D\u6587\uFFFE\uFFFF", "\uD83D\uDE00x", "\\u0041\\uu00e9\\u+4e2d\\n\\101\\7\\\\\\\"", "\\"
+    };
+
+    @Test
+    @SuppressWarnings("deprecation") // StringEscapeUtils is deprecated
+    public void testSameAsStringTranslation() {
+        for (final String input : INPUTS) {
+            assertTranslation(StringEscapeUtils.escapeJson(input), Utf8Translator.ESCAPE_JSON, input);
+            assertTranslation(StringEscapeUtils.escapeXml10(input), Utf8Translator.ESCAPE_XML10, input);
+            assertTranslation(StringEscapeUtils.unescapeJava(input), Utf8Translator.UNESCAPE_JAVA, input);
+        }
+    }
+
+    @Test
+    public void testNullInput() {
+        assertNull(Utf8Translator.ESCAPE_JSON.translate((byte[]) null));
+    }
+
+    @Test
+    public void testMalformedInputIsReplaced() {
+        final byte[] input = {'a', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"', (byte) 0xC3};
+        assertEquals("a\\uFFFD\\\"\\uFFFD", new String(Utf8Translator.ESCAPE_JSON.translate(input),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testByteBuffers() {
+        final byte[] bytes = "x<\u00E9>".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer in = ByteBuffer.allocateDirect(bytes.length);
+        in.put(bytes).flip();
+        final ByteBuffer out = ByteBuffer.allocate(Utf8Translator.ESCAPE_XML10.maxTranslatedLength(bytes.length));
+        Utf8Translator.ESCAPE_XML10.translate(in, out);
+        assertEquals(0, in.remaining());
+        assertEquals("x&lt;\u00E9&gt;", new String(out.array(), 0, out.position(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testByteBufferOverflowLeavesPositions() {
+        final ByteBuffer in = ByteBuffer.wrap("<<<".getBytes(StandardCharsets.UTF_8));
+        final ByteBuffer out = ByteBuffer.allocate(8);
+        try {
+            Utf8Translator.ESCAPE_XML10.translate(in, out);
+            fail("Expected BufferOverflowException");
+        } catch (final BufferOverflowException e) {
+            assertEquals(0, in.position());
+            assertEquals(0, out.position());
+        }
+    }
+
+    private static void assertTranslation(final String expected, final Utf8Translator translator, final String input) {
+        final byte[] actual = translator.translate(input.getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(input, expected.getBytes(StandardCharsets.UTF_8), actual);
+    }
+}
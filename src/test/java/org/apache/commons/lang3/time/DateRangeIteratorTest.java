@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Tests for DateRangeIterator
+ */
+public class DateRangeIteratorTest {
+
+    private static final TimeZone GMT = TimeZone.getTimeZone(TimeZones.GMT_ID);
+
+    private static final TimeZone[] ZONES = {
+        GMT, TimeZone.getTimeZone("GMT+05:30"), TimeZone.getTimeZone("America/New_York"),
+        TimeZone.getTimeZone("Australia/Lord_Howe")
+    };
+
+    private static final int[][] STEPS = {
+        {Calendar.MINUTE, 90}, {Calendar.HOUR_OF_DAY, 7}, {Calendar.DATE, 1}, {Calendar.DAY_OF_YEAR, 3},
+        {Calendar.WEEK_OF_YEAR, 2}, {Calendar.MONTH, 1}, {Calendar.MONTH, 5}, {Calendar.YEAR, 1}
+    };
+
+    // 2016-01-31T01:30:00Z, to 2021-03-14T12:00:00Z
+    private static final long START = 1454203800000L;
+    private static final long END = 1615723200000L;
+
+    @Test
+    public void testSameAsCalendar() {
+        for (final TimeZone zone : ZONES) {
+            for (final int[] step : STEPS) {
+                final String message = zone.getID() + " " + step[0] + " " + step[1];
+                final List<Long> expected = calendarDates(START, END, zone, step[0], step[1]);
+                final DateRangeIterator it = DateUtils.iterator(START, END, zone, step[0], step[1]);
+                assertEquals(message, expected.size(), it.remaining());
+                assertEquals(message, expected, toList(it));
+            }
+        }
+    }
+
+    @Test
+    public void testFixedSteps() {
+        final DateRangeIterator it = DateUtils.iterator(0, 1000, GMT, Calendar.MILLISECOND, 300);
+        assertEquals(4, it.remaining());
+        assertEquals(0, it.nextMillis());
+        assertEquals(300, it.nextMillis());
+        assertEquals(600, it.nextMillis());
+        assertEquals(Long.valueOf(900), it.next());
+        assertFalse(it.hasNext());
+        assertEquals(0, it.remaining());
+
+        assertEquals(1, DateUtils.iterator(0, 1, GMT, Calendar.SECOND, 1).remaining());
+        assertEquals(24 * 365, DateUtils.iterator(START, START + 365 * DateUtils.MILLIS_PER_DAY, GMT,
+                Calendar.HOUR, 1).remaining());
+    }
+
+    @Test
+    public void testMonthsFromEndOfMonth() {
+        final DateRangeIterator it = DateUtils.iterator(START, END, GMT, Calendar.MONTH, 1);
+        final Calendar cal = new GregorianCalendar(GMT);
+        cal.setTimeInMillis(it.nextMillis());
+        assertEquals(31, cal.get(Calendar.DAY_OF_MONTH));
+        cal.setTimeInMillis(it.nextMillis());
+        assertEquals(29, cal.get(Calendar.DAY_OF_MONTH));
+        cal.setTimeInMillis(it.nextMillis());
+        assertEquals(31, cal.get(Calendar.DAY_OF_MONTH));
+        cal.setTimeInMillis(it.nextMillis());
+        assertEquals(30, cal.get(Calendar.DAY_OF_MONTH));
+    }
+
+    @Test
+    public void testSplit() {
+        for (final TimeZone zone : ZONES) {
+            for (final int[] step : STEPS) {
+                final List<Long> expected = toList(DateUtils.iterator(START, END, zone, step[0], step[1]));
+                final List<Long> actual = new ArrayList<>();
+                splitInto(DateUtils.iterator(START, END, zone, step[0], step[1]), actual);
+                assertEquals(zone.getID() + " " + step[0] + " " + step[1], expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testSplitAfterNext() {
+        final DateRangeIterator it = DateUtils.iterator(0, 10, GMT, Calendar.MILLISECOND, 1);
+        assertEquals(0, it.nextMillis());
+        final DateRangeIterator prefix = it.trySplit();
+        assertEquals(4, prefix.remaining());
+        assertEquals(5, it.remaining());
+        assertEquals(1, prefix.nextMillis());
+        assertEquals(5, it.nextMillis());
+        assertNull(DateUtils.iterator(0, 1, GMT, Calendar.MILLISECOND, 1).trySplit());
+    }
+
+    @Test
+    public void testEmptyRange() {
+        assertFalse(DateUtils.iterator(START, START, GMT, Calendar.DATE, 1).hasNext());
+        assertFalse(DateUtils.iterator(END, START, GMT, Calendar.MONTH, 1).hasNext());
+        assertNull(DateUtils.iterator(END, START, GMT, Calendar.MONTH, 1).trySplit());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextPastEnd() {
+        DateUtils.iterator(START, START, GMT, Calendar.DATE, 1).nextMillis();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRemove() {
+        DateUtils.iterator(START, END, GMT, Calendar.DATE, 1).remove();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullTimeZone() {
+        DateUtils.iterator(START, END, null, Calendar.DATE, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroAmount() {
+        DateUtils.iterator(START, END, GMT, Calendar.DATE, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedField() {
+        DateUtils.iterator(START, END, GMT, Calendar.ERA, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeTooLong() {
+        DateUtils.iterator(Long.MIN_VALUE, Long.MAX_VALUE, GMT, Calendar.MILLISECOND, 1);
+    }
+
+    private static List<Long> calendarDates(final long start, final long end, final TimeZone zone,
+            final int field, final int amount) {
+        final List<Long> dates = new ArrayList<>();
+        final Calendar cal = new GregorianCalendar(zone);
+        for (int k = 0;; k++) {
+            cal.setTimeInMillis(start);
+            cal.add(field, k * amount);
+            if (cal.getTimeInMillis() >= end) {
+                return dates;
+            }
+            dates.add(cal.getTimeInMillis());
+        }
+    }
+
+    private static List<Long> toList(final DateRangeIterator it) {
+        final List<Long> dates = new ArrayList<>();
+        while (it.hasNext()) {
+            dates.add(it.nextMillis());
+        }
+        return dates;
+    }
+
+    private static void splitInto(final DateRangeIterator it, final List<Long> dates) {
+        final long remaining = it.remaining();
+        final DateRangeIterator prefix = it.trySplit();
+        if (prefix == null) {
+            assertTrue(remaining < 2);
+            dates.addAll(toList(it));
+            return;
+        }
+        assertEquals(remaining, prefix.remaining() + it.remaining());
+        splitInto(prefix, dates);
+        splitInto(it, dates);
+    }
+}
@@ -34,6 +34,7 @@
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.TimeZone;
 
 import org.apache.commons.lang3.test.SystemDefaults;
@@ -1287,6 +1288,96 @@ public void testTruncateLang59() throws Exception {
         }
     }
 
+    /**
+     * Tests the millisecond versions of truncate, round and ceiling against the
+     * Calendar versions, on random dates in zones with and without offset changes.
+     */
+    @Test
+    public void testModifyMillisSameAsCalendar() {
+        final int[] fields = {Calendar.MILLISECOND, Calendar.SECOND, Calendar.MINUTE, Calendar.HOUR_OF_DAY,
+            Calendar.HOUR, Calendar.AM_PM, Calendar.DATE, DateUtils.SEMI_MONTH, Calendar.MONTH, Calendar.YEAR};
+        final String[] zones = {"UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe", "Asia/Kolkata",
+            "Africa/Cairo", "America/Sao_Paulo", "Pacific/Apia", "GMT+05:45"};
+        final Random random = new Random(1);
+        for (final String id : zones) {
+            final TimeZone timeZone = FastTimeZone.getTimeZone(id);
+            final Calendar calendar = new GregorianCalendar(timeZone);
+            for (int i = 0; i < 500; i++) {
+                // mostly 1900 to 2100, and some dates before the Gregorian cutover
+                final long millis = i % 10 == 0 ? -15000000000000L + (long) (random.nextDouble() * 6e12)
+                        : -2208988800000L + (long) (random.nextDouble() * 6.3e12);
+                for (final int field : fields) {
+                    calendar.setTimeInMillis(millis);
+                    final String message = id + " " + millis + " field " + field;
+                    assertEquals(message, DateUtils.truncate(calendar, field).getTimeInMillis(),
+                            DateUtils.truncate(millis, timeZone, field));
+                    assertEquals(message, DateUtils.round(calendar, field).getTimeInMillis(),
+                            DateUtils.round(millis, timeZone, field));
+                    assertEquals(message, DateUtils.ceiling(calendar, field).getTimeInMillis(),
+                            DateUtils.ceiling(millis, timeZone, field));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testModifyMillisAlternatingSeasons() {
+        final TimeZone sydney = TimeZone.getTimeZone("Australia/Sydney");
+        final Calendar calendar = new GregorianCalendar(sydney);
+        // more seasons than the windows kept per zone, visited back and forth
+        final long january = 1516000000000L;
+        for (int i = 0; i < 4000; i++) {
+            final long date = january + (i % 2 == 0 ? 0 : 182 * DateUtils.MILLIS_PER_DAY)
+                    + (i * 7919L % 40) * 365 * DateUtils.MILLIS_PER_DAY + i * 1000L;
+            calendar.setTimeInMillis(date);
+            assertEquals(DateUtils.truncate(calendar, Calendar.HOUR_OF_DAY).getTimeInMillis(),
+                    DateUtils.truncate(date, sydney, Calendar.HOUR_OF_DAY));
+            calendar.setTimeInMillis(date);
+            assertEquals(DateUtils.ceiling(calendar, Calendar.DATE).getTimeInMillis(),
+                    DateUtils.ceiling(date, sydney, Calendar.DATE));
+        }
+    }
+
+    @Test
+    public void testModifyMillisAcrossOffsetChange() {
+        final TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+        final Calendar calendar = new GregorianCalendar(newYork);
+        // 2011-11-06T05:59:59.999Z is 01:59:59.999 EDT, and the clocks go back a millisecond later
+        final long lastDaylight = 1320559199999L;
+        for (long millis = lastDaylight - 3 * DateUtils.MILLIS_PER_DAY; millis < lastDaylight + 3 * DateUtils.MILLIS_PER_DAY;
+                millis += 17 * DateUtils.MILLIS_PER_MINUTE) {
+            for (final long date : new long[] {millis, lastDaylight, lastDaylight + 1}) {
+                for (final int field : new int[] {Calendar.HOUR_OF_DAY, Calendar.AM_PM, Calendar.DATE, Calendar.MONTH}) {
+                    calendar.setTimeInMillis(date);
+                    assertEquals(DateUtils.truncate(calendar, field).getTimeInMillis(), DateUtils.truncate(date, newYork, field));
+                    assertEquals(DateUtils.round(calendar, field).getTimeInMillis(), DateUtils.round(date, newYork, field));
+                    assertEquals(DateUtils.ceiling(calendar, field).getTimeInMillis(), DateUtils.ceiling(date, newYork, field));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTruncatedMillis() {
+        final TimeZone tokyo = TimeZone.getTimeZone("Asia/Tokyo");
+        // 2017-07-14 11:40:00 and 23:59:59, and 2017-07-15 00:00:00, in Tokyo
+        assertTrue(DateUtils.truncatedEquals(1500000000000L, 1500044399000L, tokyo, Calendar.DATE));
+        assertFalse(DateUtils.truncatedEquals(1500000000000L, 1500044399000L, tokyo, Calendar.AM_PM));
+        assertEquals(-1, DateUtils.truncatedCompareTo(1500000000000L, 1500044399000L, tokyo, Calendar.HOUR));
+        assertEquals(1, DateUtils.truncatedCompareTo(1500044400000L, 1500044399000L, tokyo, Calendar.DATE));
+        assertEquals(0, DateUtils.truncatedCompareTo(1500044400000L, 1500044400999L, tokyo, Calendar.SECOND));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncateMillisNullTimeZone() {
+        DateUtils.truncate(0L, null, Calendar.DATE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncateMillisUnsupportedField() {
+        DateUtils.truncate(0L, TimeZone.getTimeZone("UTC"), Calendar.DAY_OF_WEEK);
+    }
+
     // http://issues.apache.org/jira/browse/LANG-530
     @SuppressWarnings("deprecation")
     @Test
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for DurationFormatter
+ */
+public class DurationFormatterTest {
+
+    private static final String[] FORMATS = {
+        "HH:mm:ss.SSS", DurationFormatUtils.ISO_EXTENDED_FORMAT_PATTERN, "d' days 'H' hours 'm' minutes 's' seconds'",
+        "yMdHmsS", "s.S", "S", "ss'.'SS", "m's'S", "dd HH", "sSSSSS", "'x''y'", ""
+    };
+
+    private static final long[] DURATIONS = {
+        0, 1, 999, 1000, 59999, 60000, 3599999, 3600000, 86399999, 86400000, 123456789, Long.MAX_VALUE
+    };
+
+    @Test
+    public void testSameAsFormatDuration() {
+        for (final String format : FORMATS) {
+            final DurationFormatter padded = DurationFormatter.getInstance(format);
+            final DurationFormatter unpadded = DurationFormatter.getInstance(format, false);
+            for (final long duration : DURATIONS) {
+                assertEquals(format, DurationFormatUtils.formatDuration(duration, format), padded.format(duration));
+                assertEquals(format, DurationFormatUtils.formatDuration(duration, format, false),
+                        unpadded.format(duration));
+            }
+        }
+    }
+
+    @Test
+    public void testFormatIntoStringBuilder() {
+        final DurationFormatter formatter = DurationFormatter.getInstance("H:mm:ss.SSS");
+        final StringBuilder buffer = new StringBuilder("took ");
+        assertSame(buffer, formatter.format(3723004, buffer));
+        assertEquals("took 1:02:03.004", buffer.toString());
+        formatter.format(5, buffer.append(", "));
+        assertEquals("took 1:02:03.004, 0:00:00.005", buffer.toString());
+    }
+
+    @Test
+    public void testMillisAfterSeconds() {
+        assertEquals("5.007", DurationFormatter.getInstance("s.S", false).format(5007));
+        assertEquals("5007", DurationFormatter.getInstance("S", false).format(5007));
+        assertEquals("0.0007", DurationFormatter.getInstance("s.SSSS").format(7));
+    }
+
+    @Test
+    public void testGetters() {
+        final DurationFormatter formatter = DurationFormatter.getInstance("mm:ss", false);
+        assertEquals("mm:ss", formatter.getFormat());
+        assertFalse(formatter.isPadWithZeros());
+        assertTrue(DurationFormatter.getInstance("mm:ss").isPadWithZeros());
+        assertEquals("DurationFormatter[mm:ss]", formatter.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnmatchedQuote() {
+        DurationFormatter.getInstance("HH 'hours");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullFormat() {
+        DurationFormatter.getInstance(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDuration() {
+        DurationFormatter.getInstance("HH:mm").format(-1);
+    }
+}
@@ -156,6 +156,20 @@ public void test_getInstance_String_TimeZone_Locale() {
         assertEquals(Locale.GERMANY, format3.getLocale());
     }
 
+    @Test
+    public void test_getCachingInstance() {
+        final TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+        final FastDateFormat caching = FastDateFormat.getCachingInstance("yyyy-MM-dd HH:mm:ss.SSS XXX", newYork, Locale.US);
+        final FastDateFormat plain = FastDateFormat.getInstance("yyyy-MM-dd HH:mm:ss.SSS XXX", newYork, Locale.US);
+
+        assertSame(caching, FastDateFormat.getCachingInstance("yyyy-MM-dd HH:mm:ss.SSS XXX", newYork, Locale.US));
+        assertNotSame(caching, plain);
+        // 2011-03-13T06:59:58.500Z, the clocks go forward two seconds later
+        for (long millis = 1299999598500L; millis < 1299999604000L; millis += 250) {
+            assertEquals(plain.format(millis), caching.format(millis));
+        }
+    }
+
     @Test
     public void testCheckDefaults() {
         final FastDateFormat format = FastDateFormat.getInstance();
@@ -324,4 +338,60 @@ public void testLANG_1152() {
     public void testLANG_1267() throws Exception {
         FastDateFormat.getInstance("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
     }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() {
+        final FormatCache<FastDateFormat> cache = new FormatCache<FastDateFormat>() {
+            @Override
+            protected FastDateFormat createInstance(final String pattern, final TimeZone timeZone, final Locale locale) {
+                return new FastDateFormat(pattern, timeZone, locale);
+            }
+        };
+        cache.setMaximumSize(2);
+        final FastDateFormat first = cache.getInstance("yyyy", null, null);
+        final FastDateFormat second = cache.getInstance("MM", null, null);
+        assertSame(first, cache.getInstance("yyyy", null, null));
+        cache.getInstance("dd", null, null);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(first, cache.getInstance("yyyy", null, null));
+        assertNotSame(second, cache.getInstance("MM", null, null));
+
+        cache.setMaximumSize(1);
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testCacheStatistics() {
+        final long hits = FastDateFormat.getCacheHitCount();
+        final long misses = FastDateFormat.getCacheMissCount();
+        FastDateFormat.getInstance("yyyy-MM-dd'T'HH 'testCacheStatistics'");
+        FastDateFormat.getInstance("yyyy-MM-dd'T'HH 'testCacheStatistics'");
+        assertTrue(FastDateFormat.getCacheMissCount() > misses);
+        assertTrue(FastDateFormat.getCacheHitCount() > hits);
+        // the instances of getInstance and of getCachingInstance are kept up to the maximum each
+        assertTrue(FastDateFormat.getCacheSize() <= 2L * FastDateFormat.getCacheMaximumSize());
+    }
+
+    @Test
+    public void testCacheStatisticsOfCachingInstances() {
+        final int size = FastDateFormat.getCacheSize();
+        final long hits = FastDateFormat.getCacheHitCount();
+        final long misses = FastDateFormat.getCacheMissCount();
+        final TimeZone timeZone = TimeZone.getTimeZone("UTC");
+        FastDateFormat.getCachingInstance("yyyy-MM-dd'T'HH 'testCacheStatisticsOfCachingInstances'", timeZone, Locale.US);
+        FastDateFormat.getCachingInstance("yyyy-MM-dd'T'HH 'testCacheStatisticsOfCachingInstances'", timeZone, Locale.US);
+        assertEquals(misses + 1, FastDateFormat.getCacheMissCount());
+        assertEquals(hits + 1, FastDateFormat.getCacheHitCount());
+        assertEquals(size + 1, FastDateFormat.getCacheSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCacheMaximumSizeMustBePositive() {
+        FastDateFormat.setCacheMaximumSize(0);
+    }
 }
@@ -18,10 +18,12 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.Serializable;
+import java.nio.CharBuffer;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
@@ -703,6 +705,92 @@ public void testParseOffset() {
         assertEquals(cal.getTime(), date);
     }
 
+    @Test
+    public void testTextPrefersLongerName() {
+        final DateParser parser = getInstance("MMMd", NEW_YORK, Locale.US);
+        final Calendar cal = Calendar.getInstance(NEW_YORK, Locale.US);
+        cal.clear();
+        cal.set(1970, Calendar.SEPTEMBER, 5);
+
+        ParsePosition pos = new ParsePosition(0);
+        assertEquals(cal.getTime(), parser.parse("SEPTEMBER5", pos));
+        assertEquals(10, pos.getIndex());
+
+        pos = new ParsePosition(0);
+        assertEquals(cal.getTime(), parser.parse("sep5", pos));
+        assertEquals(4, pos.getIndex());
+    }
+
+    @Test
+    public void testZoneOffsetsAndNames() throws ParseException {
+        final DateParser parser = getInstance("yyyy-MM-dd z", NEW_YORK, Locale.US);
+        final Calendar cal = Calendar.getInstance(INDIA, Locale.US);
+        cal.clear();
+        cal.set(2015, Calendar.JULY, 4);
+        assertEquals(cal.getTime(), parser.parse("2015-07-04 gmt+5:30"));
+        assertEquals(cal.getTime(), parser.parse("2015-07-04 +0530"));
+        assertEquals(cal.getTime(), parser.parse("2015-07-04 INDIA STANDARD TIME"));
+
+        final ParsePosition pos = new ParsePosition(0);
+        assertNull(parser.parse("2015-07-04 Nowhere Time", pos));
+        assertEquals(11, pos.getErrorIndex());
+    }
+
+    @Test
+    public void testParseRegions() throws ParseException {
+        final FastDateParser parser = new FastDateParser("yyyy/MM/dd HH:mm", NEW_YORK, Locale.US);
+        final Calendar expected = Calendar.getInstance(NEW_YORK, Locale.US);
+        expected.clear();
+        expected.set(2015, Calendar.JULY, 4, 12, 30);
+        final String line = "[2015/07/04 12:30] started";
+
+        final Calendar cal = Calendar.getInstance(NEW_YORK, Locale.US);
+        cal.clear();
+        assertTrue(parser.parse(line.toCharArray(), 1, 16, cal));
+        assertEquals(expected.getTime(), cal.getTime());
+
+        cal.clear();
+        assertTrue(parser.parse(new StringBuilder(line), 1, 16, cal));
+        assertEquals(expected.getTime(), cal.getTime());
+
+        final ParsePosition pos = new ParsePosition(0);
+        cal.clear();
+        assertTrue(parser.parse(CharBuffer.wrap(line, 1, line.length()), pos, cal));
+        assertEquals(expected.getTime(), cal.getTime());
+        assertEquals(16, pos.getIndex());
+
+        assertEquals(expected.getTimeInMillis(), parser.parseMillis(line, 1, 16));
+        assertEquals(expected.getTimeInMillis(), parser.parseMillis(line.toCharArray(), 1, 16));
+    }
+
+    @Test
+    public void testParseRegionStopsAtEnd() {
+        final FastDateParser parser = new FastDateParser("yyyy/MM/dd HH:mm", NEW_YORK, Locale.US);
+        try {
+            parser.parseMillis("[2015/07/04 12:30]", 1, 11);
+            fail("Expected ParseException");
+        } catch (final ParseException e) {
+            assertEquals(12, e.getErrorOffset());
+        }
+        assertFalse(parser.parse("[2015/07/04 12:30]".toCharArray(), 1, 11, Calendar.getInstance(NEW_YORK, Locale.US)));
+    }
+
+    @Test
+    public void testParseMillisSameAsCalendar() throws ParseException {
+        final String[] inputs = {"2015-07-04 12:30:45.678+0530", "2016-02-29 23:59:59.999Z", "2015-13-32 25:61:61.1000-0800",
+            "2015-00-00 00:00:00.000+0000", "1582-10-10 00:00:00.000Z", "1583-01-01 00:00:00.000-1130", "0001-01-01 00:00:00.000Z"};
+        for (final TimeZone zone : new TimeZone[] {GMT, NEW_YORK, FastTimeZone.getGmtTimeZone("+05:30")}) {
+            final FastDateParser parser = new FastDateParser("yyyy-MM-dd HH:mm:ss.SSSX", zone, Locale.US);
+            for (final String input : inputs) {
+                final Calendar cal = Calendar.getInstance(zone, Locale.US);
+                cal.clear();
+                assertTrue(input, parser.parse(input, new ParsePosition(0), cal));
+                assertEquals(input, cal.getTimeInMillis(), parser.parseMillis(input, 0, input.length()));
+                assertEquals(input, cal.getTime(), parser.parse(input));
+            }
+        }
+    }
+
     @Test
     public void testDayNumberOfWeek() throws ParseException {
         final DateParser parser = getInstance("u");
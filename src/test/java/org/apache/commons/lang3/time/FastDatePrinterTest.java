@@ -18,12 +18,15 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.Serializable;
 import java.text.FieldPosition;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -435,4 +438,63 @@ public void testDayNumberOfWeek() {
         calendar.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
         assertEquals("7", printer.format(calendar.getTime()));
     }
+
+    @Test
+    public void testFormatIntoCharArray() {
+        final String pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS Z EEE MMM a h k K D F u G";
+        final long[] dates = {
+            0L, -1L, 1300000000000L, 1300003200000L, 951782400000L, -12219292800000L, -12219292800001L,
+            -62135596800000L, 253402300799999L, 253402300800000L
+        };
+        for (final TimeZone timeZone : new TimeZone[] {GMT, NEW_YORK, INDIA, FastTimeZone.getGmtTimeZone("GMT+05:30")}) {
+            final FastDatePrinter printer = new FastDatePrinter(pattern, timeZone, Locale.US);
+            final SimpleDateFormat sdf = new SimpleDateFormat(pattern, Locale.US);
+            sdf.setTimeZone(timeZone);
+            final char[] buffer = new char[100];
+            for (final long millis : dates) {
+                final String expected = sdf.format(new Date(millis));
+                assertEquals(expected, printer.format(millis));
+                final int end = printer.format(millis, buffer, 3);
+                assertEquals(expected, new String(buffer, 3, end - 3));
+            }
+        }
+    }
+
+    @Test
+    public void testFormatIntoShortCharArray() {
+        final FastDatePrinter printer = new FastDatePrinter("yyyy-MM-dd HH:mm", GMT, Locale.US);
+        final char[] buffer = new char[20];
+        assertEquals(18, printer.format(0L, buffer, 2));
+        assertEquals("1970-01-01 00:00", new String(buffer, 2, 16));
+
+        Arrays.fill(buffer, 'x');
+        try {
+            printer.format(0L, buffer, 5);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (final IndexOutOfBoundsException e) {
+            assertEquals("xxxxxxxxxxxxxxxxxxxx", new String(buffer));
+        }
+    }
+
+    @Test
+    public void testCacheSeconds() {
+        for (final String pattern : new String[] {"HH:mm:ss", "S HH:mm:ss.SSS SSSS XXX", "yyyy-MM-dd HH:mm:ss Z"}) {
+            final FastDatePrinter plain = new FastDatePrinter(pattern, NEW_YORK, Locale.US);
+            final FastDatePrinter caching = new FastDatePrinter(pattern, NEW_YORK, Locale.US, true);
+            final char[] buffer = new char[50];
+            // across the end of daylight saving time on 2011-11-06 and around the epoch
+            for (final long start : new long[] {1320555598000L, -2000L}) {
+                for (long millis = start; millis < start + 4000; millis += 99) {
+                    final String expected = plain.format(millis);
+                    assertEquals(expected, caching.format(millis));
+                    assertEquals(expected, new String(buffer, 0, caching.format(millis, buffer, 0)));
+                    assertEquals(expected, caching.format(millis, new StringBuilder()).toString());
+                    if (pattern.indexOf('S') < 0) {
+                        // the kept output of the second is returned as it is
+                        assertSame(caching.format(millis), caching.format(millis));
+                    }
+                }
+            }
+        }
+    }
 }
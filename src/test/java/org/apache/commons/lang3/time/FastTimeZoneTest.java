@@ -19,6 +19,8 @@
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.util.TimeZone;
 
@@ -97,4 +99,32 @@ public void testHoursMinutes() {
         assertEquals(HOURS_2+MINUTES_5, FastTimeZone.getGmtTimeZone("0205").getRawOffset());
     }
 
+    @Test
+    public void testGmtOffsetsAreInterned() {
+        assertSame(FastTimeZone.getTimeZone("GMT+05:30"), FastTimeZone.getTimeZone("+0530"));
+        assertSame(FastTimeZone.getGmtTimeZone("-2:00"), FastTimeZone.getTimeZone("GMT-02:00"));
+        assertNotSame(FastTimeZone.getTimeZone("+02:00"), FastTimeZone.getTimeZone("-02:00"));
+        assertEquals(-HOURS_2, FastTimeZone.getTimeZone("-02:00").getRawOffset());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGmtOffsetOutOfRange() {
+        FastTimeZone.getGmtTimeZone("+24:00");
+    }
+
+    @Test
+    public void testCachedZonesAreNotShared() {
+        final TimeZone zone = FastTimeZone.getTimeZone("Europe/Paris");
+        assertNotSame(zone, FastTimeZone.getTimeZone("Europe/Paris"));
+        zone.setRawOffset(HOURS_23);
+        assertEquals(TimeZone.getTimeZone("Europe/Paris"), FastTimeZone.getTimeZone("Europe/Paris"));
+    }
+
+    @Test
+    public void testPreloadTimeZones() {
+        FastTimeZone.preloadTimeZones("Asia/Kolkata", "GMT+01:00", "UTC", "No/Such_Zone");
+        assertEquals(TimeZone.getTimeZone("Asia/Kolkata"), FastTimeZone.getTimeZone("Asia/Kolkata"));
+        assertEquals(TimeZone.getTimeZone("No/Such_Zone"), FastTimeZone.getTimeZone("No/Such_Zone"));
+    }
+
 }
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for LatencyRecorder
+ */
+public class LatencyRecorderTest {
+
+    @Test
+    public void testBuckets() {
+        long previousHighest = -1;
+        for (int bucket = 0; bucket < 2000 && previousHighest != Long.MAX_VALUE; bucket++) {
+            final long highest = LatencyRecorder.highestValueOf(bucket);
+            assertEquals(bucket, LatencyRecorder.bucketOf(previousHighest + 1));
+            assertEquals(bucket, LatencyRecorder.bucketOf(highest));
+            // each bucket is within 1/32 of its values
+            assertTrue(highest - previousHighest - 1 <= (previousHighest + 1) / 32);
+            previousHighest = highest;
+        }
+        assertEquals(Long.MAX_VALUE, previousHighest);
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        for (long nanos = 1; nanos <= 100000; nanos++) {
+            recorder.recordNanos(nanos * 1000);
+        }
+        final LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(100000, snapshot.getCount());
+        assertEquals(100000000, snapshot.getMaxNanos());
+        assertEquals(50000500.0, snapshot.getMeanNanos(), 0.001);
+        assertWithin(50000000, snapshot.getPercentile(50));
+        assertWithin(99000000, snapshot.getPercentile(99));
+        assertWithin(99900000, snapshot.getPercentile(99.9));
+        assertEquals(100000000, snapshot.getPercentile(100));
+        assertWithin(1000, snapshot.getPercentile(0.001));
+        assertEquals(snapshot.getPercentile(99) / 1000000, snapshot.getPercentile(99, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        for (int nanos = 0; nanos < 64; nanos++) {
+            recorder.recordNanos(nanos);
+        }
+        final LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(31, snapshot.getPercentile(50));
+        assertEquals(63, snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void testEmpty() {
+        final LatencyRecorder.Snapshot snapshot = new LatencyRecorder().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getPercentile(99));
+        assertEquals(0, snapshot.getMaxNanos());
+        assertEquals(0.0, snapshot.getMeanNanos(), 0);
+        assertEquals("LatencyRecorder.Snapshot[count=0,p50=0ns,p99=0ns,p999=0ns,max=0ns]", snapshot.toString());
+    }
+
+    @Test
+    public void testSnapshotAndReset() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        recorder.recordNanos(500);
+        recorder.recordNanos(700);
+        assertEquals(2, recorder.snapshot().getCount());
+        final LatencyRecorder.Snapshot first = recorder.snapshotAndReset();
+        assertEquals(2, first.getCount());
+        assertEquals(700, first.getMaxNanos());
+        recorder.recordNanos(100);
+        final LatencyRecorder.Snapshot second = recorder.snapshotAndReset();
+        assertEquals(1, second.getCount());
+        assertEquals(100, second.getMaxNanos());
+        assertEquals(2, first.getCount());
+        recorder.recordNanos(100);
+        recorder.reset();
+        assertEquals(0, recorder.snapshot().getCount());
+    }
+
+    @Test
+    public void testRecordStopWatch() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final StopWatch watch = StopWatch.createStarted();
+        watch.stop();
+        recorder.record(watch);
+        final LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(1, snapshot.getCount());
+        assertEquals(watch.getNanoTime(), snapshot.getMaxNanos());
+    }
+
+    @Test
+    public void testMergesThreads() throws InterruptedException {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final int threads = 4;
+        final int perThread = 10000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final long nanos = (t + 1) * 1000;
+            new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        recorder.recordNanos(nanos);
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        long drained = 0;
+        while (done.getCount() > 0) {
+            drained += recorder.snapshotAndReset().getCount();
+        }
+        done.await();
+        final LatencyRecorder.Snapshot rest = recorder.snapshot();
+        assertEquals(threads * perThread, drained + rest.getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeNanos() {
+        new LatencyRecorder().recordNanos(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroPercentile() {
+        new LatencyRecorder().snapshot().getPercentile(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullStopWatch() {
+        new LatencyRecorder().record(null);
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        assertTrue(actual + " is not just over " + expected, actual >= expected && actual <= expected + expected / 32);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for StageTimer
+ */
+public class StageTimerTest {
+
+    @Test
+    public void testStages() {
+        final StageTimer timer = new StageTimer();
+        assertEquals(0, timer.getStage("parse"));
+        assertEquals(1, timer.getStage("render"));
+        assertEquals(0, timer.getStage("parse"));
+        assertEquals(2, timer.getStageCount());
+        assertEquals("render", timer.getStageName(1));
+        for (int i = 0; i < 40; i++) {
+            assertEquals(2 + i, timer.getStage("stage" + i));
+        }
+        assertEquals("stage39", timer.getStageName(41));
+    }
+
+    @Test
+    public void testLapsAndScopes() throws InterruptedException {
+        final StageTimer timer = new StageTimer();
+        final int parse = timer.getStage("parse");
+        final int handle = timer.getStage("handle");
+        final int query = timer.getStage("query");
+        final int unused = timer.getStage("unused");
+
+        timer.start();
+        assertTrue(timer.isRunning());
+        Thread.sleep(2);
+        final long parseNanos = timer.lap(parse);
+        timer.enter(query);
+        timer.enter(query);
+        final long inner = timer.exit();
+        final long outer = timer.exit();
+        final long handleNanos = timer.lap(handle);
+        timer.stop();
+        assertFalse(timer.isRunning());
+
+        assertTrue(parseNanos >= 2000000);
+        assertTrue(outer >= inner);
+        assertTrue(handleNanos >= outer);
+        assertEquals(2, timer.getLapCount());
+        assertEquals(parse, timer.getLapStage(0));
+        assertEquals(handleNanos, timer.getLapNanoTime(1));
+        assertEquals(parseNanos, timer.getStageNanoTime(parse));
+        assertEquals(inner + outer, timer.getStageNanoTime(query));
+        assertEquals(2, timer.getStageTimes(query));
+        assertEquals(0, timer.getStageTimes(unused));
+        assertTrue(timer.getNanoTime() >= parseNanos + handleNanos);
+
+        final String breakdown = timer.toString();
+        assertTrue(breakdown, breakdown.matches("total=\\d+\\.\\d{3}ms parse=\\d+\\.\\d{3}ms handle=\\d+\\.\\d{3}ms"
+                + " query=\\d+\\.\\d{3}ms\\(2\\)"));
+    }
+
+    @Test
+    public void testReuseAndTotals() {
+        final StageTimer timer = new StageTimer();
+        final int parse = timer.getStage("parse");
+        final int other = timer.getStage("other");
+        long parseTotal = 0;
+        for (int task = 0; task < 3; task++) {
+            timer.start();
+            for (int i = 0; i < 20; i++) {
+                parseTotal += timer.lap(parse);
+            }
+            timer.stop();
+            assertEquals(20, timer.getLapCount());
+            assertEquals(20, timer.getStageTimes(parse));
+        }
+        assertEquals(3, timer.getTaskCount());
+        assertEquals(60, timer.getTotalStageTimes(parse));
+        assertEquals(parseTotal, timer.getTotalStageNanoTime(parse));
+        assertEquals(0, timer.getTotalStageTimes(other));
+        final String totals = timer.appendTotalsTo(new StringBuilder()).toString();
+        assertTrue(totals, totals.matches("tasks=3 total=\\d+\\.\\d{3}ms parse=\\d+\\.\\d{3}ms"));
+
+        timer.resetTotals();
+        assertEquals(0, timer.getTaskCount());
+        assertEquals(0, timer.getTotalStageTimes(parse));
+        assertEquals("tasks=0 total=0.000ms", timer.appendTotalsTo(new StringBuilder()).toString());
+    }
+
+    @Test
+    public void testAppendMillis() {
+        assertEquals("0.000ms", StageTimer.appendMillis(new StringBuilder(), 999).toString());
+        assertEquals("0.001ms", StageTimer.appendMillis(new StringBuilder(), 1000).toString());
+        assertEquals("0.012ms", StageTimer.appendMillis(new StringBuilder(), 12345).toString());
+        assertEquals("12.345ms", StageTimer.appendMillis(new StringBuilder(), 12345678).toString());
+        assertEquals("1234.500ms", StageTimer.appendMillis(new StringBuilder(), 1234500000).toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLapBeforeStart() {
+        final StageTimer timer = new StageTimer();
+        timer.lap(timer.getStage("parse"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStartTwice() {
+        final StageTimer timer = new StageTimer();
+        timer.start();
+        timer.start();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExitWithoutEnter() {
+        final StageTimer timer = new StageTimer();
+        timer.start();
+        timer.exit();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStopInsideScope() {
+        final StageTimer timer = new StageTimer();
+        timer.start();
+        timer.enter(timer.getStage("query"));
+        timer.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownStage() {
+        final StageTimer timer = new StageTimer();
+        timer.start();
+        timer.lap(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testUnknownLap() {
+        final StageTimer timer = new StageTimer();
+        timer.start();
+        timer.getLapNanoTime(0);
+    }
+}